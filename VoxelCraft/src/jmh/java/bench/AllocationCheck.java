@@ -0,0 +1,56 @@
+package bench;
+
+import render.Camera;
+import render.Renderer;
+import render.math.Vector3f;
+import world.World;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 检查稳态渲染每帧分配的堆内存 (应接近 0)。
+ * 通过 com.sun.management.ThreadMXBean 统计所有线程 (包括光栅化线程) 的累计分配字节数。
+ * 运行: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/jmh bench.AllocationCheck
+ */
+public class AllocationCheck {
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 500;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        World world = new World();
+        world.awaitLoaded();
+        Camera camera = new Camera();
+        camera.setPosition(new Vector3f(10f, 22f, 40f));
+        camera.setRotation(new Vector3f(-0.4f, -0.6f, 0f));
+
+        Renderer renderer = new Renderer(800, 600);
+        BufferedImage target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics g = target.getGraphics();
+
+        for (boolean tiled : new boolean[]{false, true}) {
+            renderer.setTiledRendering(tiled);
+            for (int i = 0; i < WARMUP_FRAMES; i++) renderer.render(g, world, camera);
+
+            long before = totalAllocatedBytes(threads);
+            for (int i = 0; i < FRAMES; i++) renderer.render(g, world, camera);
+            long after = totalAllocatedBytes(threads);
+
+            System.out.printf("%-6s: %.1f bytes/frame%n", tiled ? "tiled" : "single", (double) (after - before) / FRAMES);
+        }
+        g.dispose();
+    }
+
+    private static long totalAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+}
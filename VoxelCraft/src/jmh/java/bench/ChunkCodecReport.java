@@ -0,0 +1,72 @@
+package bench;
+
+import world.Chunk;
+import world.ChunkCodec;
+import world.ChunkStorage;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+/**
+ * ChunkCodec 的开销：对比编码大小 (是否再 Deflate)、编解码耗时和逐方块 1 字节的做法。
+ * 往返正确性见 ChunkCodecTest。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.ChunkCodecReport
+ */
+public class ChunkCodecReport {
+    private static final int GRID = 16;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws DataFormatException {
+        int chunks = GRID * GRID;
+        ChunkStorage[] generated = new ChunkStorage[chunks];
+        for (int i = 0; i < chunks; i++) generated[i] = Chunk.generateTerrain(i % GRID - GRID / 2, i / GRID - GRID / 2);
+        ChunkCodec codec = new ChunkCodec();
+
+        // 大小
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] flat = new byte[Chunk.VOLUME];
+        byte[] compressed = new byte[Chunk.VOLUME * 2];
+        long codecBytes = 0, codecDeflated = 0, flatDeflated = 0;
+        for (ChunkStorage blocks : generated) {
+            int length = codec.encodeToBuffer(blocks);
+            codecBytes += length;
+            codecDeflated += deflate(deflater, codec.getBuffer(), length, compressed);
+            blocks.copyTo(flat);
+            flatDeflated += deflate(deflater, flat, flat.length, compressed);
+        }
+        deflater.end();
+        System.out.printf("Bytes per chunk: raw %d, codec %d, codec+deflate %d, raw+deflate %d%n",
+                Chunk.VOLUME, codecBytes / chunks, codecDeflated / chunks, flatDeflated / chunks);
+
+        // 耗时：解码直接写打包数组 vs 平铺数组再 compact
+        byte[][] encodedChunks = new byte[chunks][];
+        for (int i = 0; i < chunks; i++) encodedChunks[i] = codec.encode(generated[i]);
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (ChunkStorage blocks : generated) codec.encodeToBuffer(blocks);
+            long encodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (byte[] bytes : encodedChunks) ChunkCodec.decode(bytes, 0, bytes.length);
+            long decodeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (ChunkStorage blocks : generated) {
+                byte[] ids = new byte[Chunk.VOLUME];
+                blocks.copyTo(ids);
+                ChunkStorage.fromFlat(ids);
+            }
+            long flatNanos = System.nanoTime() - start;
+
+            System.out.printf("Round %d: encode %.1f us, decode %.1f us, flat copy + compact %.1f us per chunk%n", round,
+                    encodeNanos / 1e3 / chunks, decodeNanos / 1e3 / chunks, flatNanos / 1e3 / chunks);
+        }
+    }
+
+    private static int deflate(Deflater deflater, byte[] input, int length, byte[] output) {
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+        return deflater.deflate(output);
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import world.BlockStorage;
+import world.Chunk;
+import world.ChunkStorage;
+import world.World;
+
+/**
+ * 打印每个 Chunk 的内存占用，对比旧的 Block[][][] 对象数组存储。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.ChunkFootprintReport
+ */
+public class ChunkFootprintReport {
+    public static void main(String[] args) {
+        World world = new World();
+        world.awaitLoaded();
+
+        long legacyBytes = legacyBlockArrayBytes();
+        long storageTotal = 0;
+        int paletted = 0;
+        int emptySections = 0;
+        int[] bitsHistogram = new int[9];
+
+        for (Chunk chunk : world.getChunks()) {
+            ChunkStorage storage = chunk.getStorage();
+            storageTotal += storage.getFootprintBytes();
+            for (int s = 0; s < Chunk.SECTIONS; s++) {
+                BlockStorage section = storage.getSection(s);
+                if (section == null) {
+                    emptySections++;
+                    continue;
+                }
+                if (section.isPaletted()) paletted++;
+                bitsHistogram[section.getBitsPerEntry()]++;
+            }
+        }
+
+        int chunks = world.getChunks().size();
+        long storagePerChunk = storageTotal / chunks;
+
+        System.out.println("Chunks loaded            : " + chunks);
+        System.out.println("Legacy Block[][][] bytes : " + legacyBytes + " per chunk");
+        System.out.println("ChunkStorage bytes       : " + storagePerChunk + " per chunk (avg)");
+        System.out.printf("Saving                   : %.1fx%n", (double) legacyBytes / storagePerChunk);
+        System.out.println("Empty sections           : " + emptySections + " / " + chunks * Chunk.SECTIONS);
+        System.out.println("Paletted sections        : " + paletted + " / " + (chunks * Chunk.SECTIONS - emptySections));
+        for (int bits = 0; bits <= 8; bits++) {
+            if (bitsHistogram[bits] > 0) {
+                System.out.println("  " + bits + " bits/entry       : " + bitsHistogram[bits]);
+            }
+        }
+        System.out.println("Chunk total (with mesh)  : " + world.getFootprintBytes() / chunks + " per chunk (avg)");
+    }
+
+    /**
+     * 旧实现的占用：三层引用数组 + 每个体素一个 16 字节的 Block 对象
+     */
+    private static long legacyBlockArrayBytes() {
+        long outer = align(16 + 4L * Chunk.SIZE);
+        long middle = Chunk.SIZE * align(16 + 4L * Chunk.HEIGHT);
+        long inner = (long) Chunk.SIZE * Chunk.HEIGHT * align(16 + 4L * Chunk.SIZE);
+        long blocks = (long) Chunk.VOLUME * 16;
+        return outer + middle + inner + blocks;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import world.Chunk;
+import world.ChunkStorage;
+import world.ChunkStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 存档的开销：把 GRID x GRID 个 Chunk 保存到临时目录，统计 save() 在调用方的耗时、到全部写完刷盘的时间和文件大小，
+ * 再对比从存档加载和重新生成一个 Chunk 的耗时。单核机器上 save() 的耗时包含后台写盘线程抢走的 CPU 时间。
+ * 读回的方块是否一致由 world.ChunkStoreTest 检查。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.ChunkStoreReport
+ */
+public class ChunkStoreReport {
+    private static final int GRID = 16;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("voxelcraft-store");
+        try {
+            run(directory);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(Path directory) throws IOException {
+        int chunks = GRID * GRID;
+        ChunkStorage[] generated = new ChunkStorage[chunks];
+        for (int i = 0; i < chunks; i++) generated[i] = Chunk.generateTerrain(i % GRID, i / GRID);
+
+        // 同一批 Chunk 保存几轮 (后面几轮覆盖前面的记录)，第一轮包含 JIT 预热
+        ChunkStore store = new ChunkStore(directory);
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < chunks; i++) store.save(i % GRID, i / GRID, generated[i]);
+            long queued = System.nanoTime() - start;
+            store.flush();
+            long written = System.nanoTime() - start;
+            System.out.printf("Save round %d: save() %.1f us, queued to flushed %.1f us per chunk%n", round,
+                    queued / 1e3 / chunks, written / 1e3 / chunks);
+        }
+        store.close();
+
+        long fileBytes = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) fileBytes += Files.size(file);
+        }
+
+        System.out.printf("Region files: %d bytes per chunk (raw %d)%n", fileBytes / chunks, Chunk.VOLUME);
+
+        // 新开一个 ChunkStore，第一轮是冷的 (要打开和映射区域文件)
+        store = new ChunkStore(directory);
+        for (int round = 0; round < ROUNDS; round++) {
+            long loadStart = System.nanoTime();
+            for (int i = 0; i < chunks; i++) store.load(i % GRID, i / GRID);
+            long loadNanos = System.nanoTime() - loadStart;
+
+            long generateStart = System.nanoTime();
+            for (int i = 0; i < chunks; i++) Chunk.generateTerrain(i % GRID, i / GRID);
+            long generateNanos = System.nanoTime() - generateStart;
+
+            System.out.printf("Load round %d: load %.1f us, generate %.1f us per chunk (%.1fx)%n", round,
+                    loadNanos / 1e3 / chunks, generateNanos / 1e3 / chunks, (double) generateNanos / loadNanos);
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import render.Camera;
+import render.Renderer;
+import render.math.Vector3f;
+import world.World;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * 对比开关视锥剔除时，每帧送入顶点变换的面数和帧耗时。
+ * 运行: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/jmh bench.CullingReport
+ */
+public class CullingReport {
+    private static final int FRAMES = 100;
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.awaitLoaded();
+        Renderer renderer = new Renderer(800, 600);
+        BufferedImage target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics g = target.getGraphics();
+
+        // 几个典型视角：世界中央平视、角落看向外侧、俯视
+        float[][] views = {
+                {64f, 20f, 64f, 0f, 0f},
+                {4f, 20f, 4f, 0f, (float) Math.PI * 0.75f},
+                {64f, 60f, 64f, -1.2f, 0.3f},
+        };
+
+        System.out.printf("%-6s %12s %12s %10s %10s%n", "view", "faces(all)", "faces(cull)", "ms(all)", "ms(cull)");
+        for (int v = 0; v < views.length; v++) {
+            Camera camera = new Camera();
+            camera.setPosition(new Vector3f(views[v][0], views[v][1], views[v][2]));
+            camera.setRotation(new Vector3f(views[v][3], views[v][4], 0f));
+
+            renderer.setFrustumCulling(false);
+            double msAll = measure(renderer, g, world, camera);
+            int facesAll = renderer.getLastFrameFaces();
+
+            renderer.setFrustumCulling(true);
+            double msCull = measure(renderer, g, world, camera);
+            int facesCull = renderer.getLastFrameFaces();
+
+            System.out.printf("%-6d %12d %12d %10.2f %10.2f%n", v, facesAll, facesCull, msAll, msCull);
+        }
+        g.dispose();
+    }
+
+    private static double measure(Renderer renderer, Graphics g, World world, Camera camera) {
+        for (int i = 0; i < FRAMES / 2; i++) renderer.render(g, world, camera);
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) renderer.render(g, world, camera);
+        return (System.nanoTime() - start) / 1e6 / FRAMES;
+    }
+}
@@ -0,0 +1,106 @@
+package bench;
+
+import entity.EntityStore;
+import entity.EntitySystem;
+import world.Chunk;
+import world.World;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * 一次模拟 10000 个实体 (怪物 / 掉落物 / 投射物)：每 tick 的耗时、和方块的碰撞、基于空间哈希的实体间碰撞，
+ * 并在最后的状态上和 O(n²) 两两检测对比耗时。两者找到的接触相同由 entity.EntitySystemTest 检查。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.EntityBenchmark [entities]
+ */
+public class EntityBenchmark {
+    private static final int WARMUP_TICKS = 300;
+    private static final int TICKS = 600;
+    private static final float DT = 1f / 60f;
+    // 实体分布在出生点附近 (已加载的区域)，密度足够让怪物之间经常相互挤开
+    private static final float AREA_MIN = 24f, AREA_MAX = 104f;
+
+    public static void main(String[] args) {
+        int entities = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        World world = new World();
+        world.awaitLoaded();
+
+        EntitySystem system = new EntitySystem(entities, 42L);
+        EntityStore store = system.getStore();
+        Random random = new Random(42);
+        for (int i = 0; i < entities; i++) {
+            float x = AREA_MIN + random.nextFloat() * (AREA_MAX - AREA_MIN);
+            float z = AREA_MIN + random.nextFloat() * (AREA_MAX - AREA_MIN);
+            float y = Chunk.HEIGHT - 4 + random.nextFloat() * 3;
+            int roll = random.nextInt(10);
+            if (roll < 7) {
+                store.add(EntityStore.MOB, x, y, z, 0.6f, 1.8f);
+            } else if (roll < 9) {
+                store.add(EntityStore.ITEM, x, y, z, 0.25f, 0.25f);
+                int last = store.size() - 1;
+                store.velX[last] = random.nextFloat() * 4 - 2;
+                store.velZ[last] = random.nextFloat() * 4 - 2;
+            } else {
+                store.add(EntityStore.PROJECTILE, x, y, z, 0.1f, 0.1f);
+                int last = store.size() - 1;
+                store.velX[last] = random.nextFloat() * 40 - 20;
+                store.velY[last] = random.nextFloat() * 10;
+                store.velZ[last] = random.nextFloat() * 40 - 20;
+            }
+        }
+
+        for (int t = 0; t < WARMUP_TICKS; t++) system.tick(world, DT);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long total = 0, max = 0, candidates = 0, contacts = 0;
+        for (int t = 0; t < TICKS; t++) {
+            long t0 = System.nanoTime();
+            system.tick(world, DT);
+            long elapsed = System.nanoTime() - t0;
+            total += elapsed;
+            max = Math.max(max, elapsed);
+            candidates += system.getCandidatePairs();
+            contacts += system.getContacts();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        int grounded = 0, belowWorld = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (store.onGround[i]) grounded++;
+            if (store.posY[i] < -0.5f) belowWorld++;
+        }
+
+        System.out.printf("%d entities (%d simulated), %d ticks%n", store.size(), system.getSimulatedCount(), TICKS);
+        System.out.printf("Tick: avg %.3f ms, max %.3f ms (%.0f ns / entity)%n",
+                total / 1e6 / TICKS, max / 1e6, (double) total / TICKS / store.size());
+        System.out.printf("Spatial hash: %d cells, avg %.0f candidate pairs, %.0f contacts per tick%n",
+                system.getSpatialHash().getCellCount(), (double) candidates / TICKS, (double) contacts / TICKS);
+        System.out.printf("On ground: %d, fell out of the world: %d, allocated: %d bytes%n", grounded, belowWorld, allocated);
+
+        // 同一状态下的 O(n²) 两两检测
+        int bruteContacts = 0;
+        long b0 = System.nanoTime();
+        for (int repeat = 0; repeat < 5; repeat++) bruteContacts = bruteForceContacts(store);
+        double bruteMs = (System.nanoTime() - b0) / 1e6 / 5;
+        System.out.printf("Brute force: %.2f ms for %,d pairs, %d contacts%n",
+                bruteMs, (long) store.size() * (store.size() - 1) / 2, bruteContacts);
+    }
+
+    private static int bruteForceContacts(EntityStore s) {
+        int contacts = 0;
+        int n = s.size();
+        for (int i = 0; i < n; i++) {
+            if (s.type[i] != EntityStore.MOB) continue;
+            for (int j = i + 1; j < n; j++) {
+                if (s.type[j] != EntityStore.MOB) continue;
+                float reach = s.halfWidth[i] + s.halfWidth[j];
+                if (Math.abs(s.posX[j] - s.posX[i]) >= reach || Math.abs(s.posZ[j] - s.posZ[i]) >= reach) continue;
+                if (s.posY[j] >= s.posY[i] + s.height[i] || s.posY[i] >= s.posY[j] + s.height[j]) continue;
+                contacts++;
+            }
+        }
+        return contacts;
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import world.Chunk;
+import world.GreedyMesher;
+import world.Mesher;
+import world.NaiveMesher;
+import world.World;
+
+/**
+ * 对比逐面网格与 Greedy Meshing 的面数、顶点数和构建耗时。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.MeshingReport
+ */
+public class MeshingReport {
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.awaitLoaded();
+
+        Result naive = measure(world, new NaiveMesher());
+        Result greedy = measure(world, new GreedyMesher());
+
+        System.out.printf("%-8s %10s %10s %12s%n", "mesher", "faces", "vertices", "ms/world");
+        print("naive", naive);
+        print("greedy", greedy);
+        System.out.printf("Face reduction: %.1fx%n", (double) naive.faces / greedy.faces);
+    }
+
+    private static Result measure(World world, Mesher mesher) {
+        world.setMesher(mesher);
+
+        // 预热后再计时
+        for (int i = 0; i < ROUNDS; i++) rebuildAll(world);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) rebuildAll(world);
+        double ms = (System.nanoTime() - start) / 1e6 / ROUNDS;
+
+        Result r = new Result();
+        for (Chunk c : world.getChunks()) {
+            r.faces += c.getFaceCount();
+            r.vertices += c.getFaceCount() * 4L;
+        }
+        r.millis = ms;
+        return r;
+    }
+
+    private static void rebuildAll(World world) {
+        for (Chunk c : world.getChunks()) c.rebuildMesh(world);
+    }
+
+    private static void print(String name, Result r) {
+        System.out.printf("%-8s %10d %10d %12.2f%n", name, r.faces, r.vertices, r.millis);
+    }
+
+    private static class Result {
+        long faces;
+        long vertices;
+        double millis;
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import perf.PerfMetrics;
+import render.Camera;
+import render.OcclusionScenes;
+import render.Renderer;
+import world.World;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * 对比开关 Hi-Z 遮挡剔除时，每帧送入顶点变换的面数、光栅化的三角形数和帧耗时
+ * (被剔除的面本来就一个像素也通不过深度测试，所以着色像素数不变，省下的是变换、三角形建立和逐像素深度测试；
+ * 两者画面逐像素相同由 render.OcclusionCullingTest 在同一批场景上检查)。
+ * 场景见 render.OcclusionScenes，每个场景朝四个方向各测一次取平均。
+ * 运行: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/jmh bench.OcclusionReport
+ */
+public class OcclusionReport {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int FRAMES = 60;
+
+    public static void main(String[] args) throws IOException {
+        World world = new World(OcclusionScenes.CENTER, OcclusionScenes.CENTER);
+        world.awaitLoaded();
+
+        Renderer renderer = new Renderer(WIDTH, HEIGHT);
+        PerfMetrics metrics = new PerfMetrics();
+        renderer.setMetrics(metrics);
+        BufferedImage target = renderer.createFrameBuffer();
+
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %9s %9s%n", "scene", "faces(off)", "faces(on)",
+                "occluded", "tris(off)", "tris(on)", "ms(off)", "ms(on)");
+        for (OcclusionScenes.Scene scene : OcclusionScenes.find(world)) {
+            report(scene, world, renderer, metrics, target);
+        }
+        world.close();
+    }
+
+    private static void report(OcclusionScenes.Scene scene, World world, Renderer renderer, PerfMetrics metrics,
+                               BufferedImage target) {
+        scene.load(world);
+
+        long facesOff = 0, facesOn = 0, occluded = 0, trianglesOff = 0, trianglesOn = 0;
+        double msOff = 0, msOn = 0;
+        int n = OcclusionScenes.DIRECTIONS;
+        for (int d = 0; d < n; d++) {
+            Camera camera = scene.camera(d);
+
+            renderer.setOcclusionCulling(false);
+            msOff += measure(renderer, world, camera, target);
+            facesOff += renderer.getLastFrameFaces();
+            trianglesOff += metrics.getCounter(PerfMetrics.TRIANGLES_DRAWN);
+
+            renderer.setOcclusionCulling(true);
+            msOn += measure(renderer, world, camera, target);
+            facesOn += renderer.getLastFrameFaces();
+            occluded += renderer.getLastFrameOccluded();
+            trianglesOn += metrics.getCounter(PerfMetrics.TRIANGLES_DRAWN);
+        }
+        System.out.printf("%-8s %10d %10d %10d %10d %10d %9.2f %9.2f%n", scene.name, facesOff / n, facesOn / n,
+                occluded / n, trianglesOff / n, trianglesOn / n, msOff / n, msOn / n);
+    }
+
+    private static double measure(Renderer renderer, World world, Camera camera, BufferedImage target) {
+        for (int i = 0; i < FRAMES / 2; i++) renderer.renderFrame(world, camera, target);
+        long start = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) renderer.renderFrame(world, camera, target);
+        return (System.nanoTime() - start) / 1e6 / FRAMES;
+    }
+}
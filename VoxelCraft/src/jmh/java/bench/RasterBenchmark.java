@@ -0,0 +1,132 @@
+package bench;
+
+import gfx.ZBuffer;
+import render.Renderer;
+
+import java.util.Random;
+
+/**
+ * 光栅化微基准：对比旧的逐像素边函数实现与新的定点增量实现，单位为三角形/秒。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.RasterBenchmark
+ */
+public class RasterBenchmark {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int TRIANGLES = 4096;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %16s %16s %8s%n", "size", "legacy tri/s", "fixed tri/s", "speedup");
+        for (int size : new int[]{8, 32, 128, 400}) {
+            float[] tris = randomTriangles(size, new Random(size));
+
+            double legacy = measure(tris, new LegacyRasterizer(WIDTH, HEIGHT));
+            double fixed = measure(tris, new Renderer(WIDTH, HEIGHT));
+            System.out.printf("%-8d %16.0f %16.0f %7.2fx%n", size, legacy, fixed, fixed / legacy);
+        }
+    }
+
+    /**
+     * 生成一批正面朝向的三角形：x, y, z 各 3 个，共 9 个 float 一组
+     */
+    private static float[] randomTriangles(int size, Random random) {
+        float[] out = new float[TRIANGLES * 9];
+        for (int i = 0; i < TRIANGLES; i++) {
+            float cx = random.nextFloat() * (WIDTH - size);
+            float cy = random.nextFloat() * (HEIGHT - size);
+            float z = random.nextFloat() * 2 - 1;
+            int o = i * 9;
+            // 屏幕 y 朝下时顺时针，与网格的正面绕序一致
+            out[o] = cx;
+            out[o + 1] = cy;
+            out[o + 2] = z;
+            out[o + 3] = cx + size;
+            out[o + 4] = cy + random.nextFloat() * size * 0.5f;
+            out[o + 5] = z;
+            out[o + 6] = cx + random.nextFloat() * size;
+            out[o + 7] = cy + size;
+            out[o + 8] = z;
+        }
+        return out;
+    }
+
+    private static double measure(float[] tris, Object target) {
+        // 预热几轮让 JIT 编译完成
+        for (int i = 0; i < 5; i++) drawAll(tris, target);
+
+        int rounds = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            drawAll(tris, target);
+            rounds++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 1_000_000_000L);
+        return (double) rounds * TRIANGLES / (elapsed / 1e9);
+    }
+
+    private static void drawAll(float[] tris, Object target) {
+        if (target instanceof Renderer renderer) {
+            renderer.clearFrame();
+            for (int o = 0; o < tris.length; o += 9) {
+                renderer.drawTriangle(tris[o], tris[o + 1], tris[o + 2], tris[o + 3], tris[o + 4], tris[o + 5],
+                        tris[o + 6], tris[o + 7], tris[o + 8], 0xFF7D7D7D);
+            }
+        } else {
+            LegacyRasterizer legacy = (LegacyRasterizer) target;
+            legacy.clear();
+            for (int o = 0; o < tris.length; o += 9) {
+                legacy.drawTriangle((int) tris[o], (int) tris[o + 1], tris[o + 2], (int) tris[o + 3], (int) tris[o + 4], tris[o + 5],
+                        (int) tris[o + 6], (int) tris[o + 7], tris[o + 8], 0xFF7D7D7D);
+            }
+        }
+    }
+
+    /**
+     * 旧版 Renderer.drawTriangleOptimized 的原样拷贝：包围盒内每个像素重新计算三条边函数并做除法
+     */
+    private static class LegacyRasterizer {
+        private final int width, height;
+        private final int[] pixels;
+        private final ZBuffer zBuffer;
+
+        LegacyRasterizer(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixels = new int[width * height];
+            this.zBuffer = new ZBuffer(width, height);
+        }
+
+        void clear() {
+            java.util.Arrays.fill(pixels, 0xFF87CEEB);
+            zBuffer.clear();
+        }
+
+        void drawTriangle(int v1x, int v1y, float v1z, int v2x, int v2y, float v2z, int v3x, int v3y, float v3z, int color) {
+            float crossProduct = (v2x - v1x) * (v3y - v1y) - (v2y - v1y) * (v3x - v1x);
+            if (crossProduct <= 0) return;
+
+            int minX = Math.max(0, Math.min(v1x, Math.min(v2x, v3x)));
+            int maxX = Math.min(width - 1, Math.max(v1x, Math.max(v2x, v3x)));
+            int minY = Math.max(0, Math.min(v1y, Math.min(v2y, v3y)));
+            int maxY = Math.min(height - 1, Math.max(v1y, Math.max(v2y, v3y)));
+            float area = crossProduct;
+
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    float w0 = (v3x - v2x) * (y - v2y) - (v3y - v2y) * (x - v2x);
+                    float w1 = (v1x - v3x) * (y - v3y) - (v1y - v3y) * (x - v3x);
+                    float w2 = (v2x - v1x) * (y - v1y) - (v2y - v1y) * (x - v1x);
+                    if (w0 >= 0 && w1 >= 0 && w2 >= 0) {
+                        w0 /= area;
+                        w1 /= area;
+                        w2 /= area;
+                        float z = w0 * v1z + w1 * v2z + w2 * v3z;
+                        if (zBuffer.testAndSet(x, y, z)) {
+                            pixels[x + y * width] = color;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import world.RaycastHit;
+import world.World;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * World.raycast 的吞吐量和分配量，和按固定步长采样 isSolid 的朴素做法对比。
+ * 命中结果是否正确由 world.RaycastTest 检查。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.RaycastBenchmark
+ */
+public class RaycastBenchmark {
+    private static final int RAYS = 1 << 16;
+    private static final float MAX_DISTANCE = 64f;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.awaitLoaded();
+
+        // 起点在地表附近，方向在球面上均匀分布
+        Random random = new Random(42);
+        float[] ox = new float[RAYS], oy = new float[RAYS], oz = new float[RAYS];
+        float[] dx = new float[RAYS], dy = new float[RAYS], dz = new float[RAYS];
+        for (int i = 0; i < RAYS; i++) {
+            ox[i] = 32 + random.nextFloat() * 64;
+            oy[i] = 12 + random.nextFloat() * 16;
+            oz[i] = 32 + random.nextFloat() * 64;
+            float u = random.nextFloat() * 2 - 1;
+            float phi = random.nextFloat() * (float) (Math.PI * 2);
+            float r = (float) Math.sqrt(1 - u * u);
+            dx[i] = r * (float) Math.cos(phi);
+            dy[i] = u;
+            dz[i] = r * (float) Math.sin(phi);
+        }
+
+        RaycastHit hit = new RaycastHit();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // DDA
+        int hits = 0;
+        for (int i = 0; i < RAYS; i++) {
+            if (world.raycast(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], MAX_DISTANCE, hit)) hits++;
+        }
+        long allocBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < RAYS; i++) world.raycast(ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], MAX_DISTANCE, hit);
+        }
+        double ddaSeconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocBefore;
+
+        // 朴素做法：每 0.1 格采样一次 isSolid (每次都 floor + 查 Chunk)
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < RAYS; i++) marchFixedStep(world, ox[i], oy[i], oz[i], dx[i], dy[i], dz[i], 0.1f);
+        }
+        double marchSeconds = (System.nanoTime() - start) / 1e9;
+
+        long total = (long) RAYS * ROUNDS;
+        System.out.printf("Rays: %d x %d, max distance %.0f, hit rate %.1f%%%n", RAYS, ROUNDS, MAX_DISTANCE, 100.0 * hits / RAYS);
+        System.out.printf("DDA raycast        : %8.2f M rays/s, %d bytes allocated%n", total / ddaSeconds / 1e6, allocated);
+        System.out.printf("Fixed-step isSolid : %8.2f M rays/s (%.1fx slower)%n", total / marchSeconds / 1e6, marchSeconds / ddaSeconds);
+    }
+
+    /**
+     * 按固定步长采样，返回第一次进入实心方块的距离，没有命中返回 -1
+     */
+    private static float marchFixedStep(World world, float x, float y, float z, float dx, float dy, float dz, float step) {
+        for (float t = 0; t <= MAX_DISTANCE; t += step) {
+            // 与渲染相同的坐标约定：方块 (x, y, z) 占据 [x - 0.5, x + 0.5]
+            if (world.isSolid(x + dx * t + 0.5f, y + dy * t + 0.5f, z + dz * t + 0.5f)) return t;
+        }
+        return -1;
+    }
+}
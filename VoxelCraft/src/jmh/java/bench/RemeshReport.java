@@ -0,0 +1,62 @@
+package bench;
+
+import world.Block;
+import world.Chunk;
+import world.World;
+
+import java.util.List;
+
+/**
+ * 对比整个 Chunk 重建网格和只重建一个分段的耗时，以及 setBlock 之后增量重建的往返时间。
+ * 增量重建的结果是否与整体重建一致由 world.RemeshTest 检查。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.RemeshReport
+ */
+public class RemeshReport {
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.awaitLoaded();
+        List<Chunk> chunks = world.getChunks();
+
+        // 1. 构建耗时：整个 Chunk vs 单个分段 (沿用其余分段)，分段取所有分段的平均
+        double fullMs = 0, sectionMs = 0;
+        for (int round = 0; round < ROUNDS * 2; round++) {
+            boolean measure = round >= ROUNDS;
+            long t0 = System.nanoTime();
+            for (Chunk c : chunks) c.buildMesh(world.getMesher(), world);
+            long t1 = System.nanoTime();
+            for (int s = 0; s < Chunk.SECTIONS; s++) {
+                for (Chunk c : chunks) c.buildMesh(world.getMesher(), world, 1 << s, c.getChunkMesh());
+            }
+            long t2 = System.nanoTime();
+            if (measure) {
+                fullMs += (t1 - t0) / 1e6;
+                sectionMs += (t2 - t1) / 1e6;
+            }
+        }
+        fullMs /= (double) ROUNDS * chunks.size();
+        sectionMs /= (double) ROUNDS * chunks.size() * Chunk.SECTIONS;
+        System.out.printf("Full chunk rebuild   : %.3f ms%n", fullMs);
+        System.out.printf("Single section (avg) : %.3f ms (%.1fx faster)%n", sectionMs, fullMs / sectionMs);
+
+        // 2. 在 Chunk 交界处挖一条沟 (跨越 4 个 Chunk、两个分段)，再放回几块石头
+        int edits = 0;
+        long t0 = System.nanoTime();
+        for (int x = 56; x < 72; x++) {
+            for (int y = 10; y < 20; y++) {
+                if (world.setBlock(x, y, 63, Block.AIR)) edits++;
+                if (world.setBlock(x, y, 64, Block.AIR)) edits++;
+            }
+        }
+        for (int x = 60; x < 68; x += 2) {
+            if (world.setBlock(x, 16, 64, Block.STONE)) edits++;
+        }
+        long setNanos = System.nanoTime() - t0;
+        System.out.printf("setBlock             : %d edits, %.2f us/edit%n", edits, setNanos / 1e3 / Math.max(1, edits));
+
+        t0 = System.nanoTime();
+        world.awaitLoaded();
+        System.out.printf("Remesh round trip    : %.2f ms%n", (System.nanoTime() - t0) / 1e6);
+    }
+}
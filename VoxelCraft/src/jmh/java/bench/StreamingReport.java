@@ -0,0 +1,54 @@
+package bench;
+
+import core.Config;
+import world.World;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟玩家沿直线一直往前飞，检查缓存中的 Chunk 数、估算占用和实际堆内存是否保持平稳，
+ * 以及游戏线程每帧花在 World.update 上的时间 (生成和构建网格都在后台线程，这里应该始终很短)。
+ * 运行: java -cp build/classes/java/main:build/classes/java/jmh bench.StreamingReport [chunks]
+ */
+public class StreamingReport {
+    // 每帧移动的方块数 (远快于步行速度)
+    private static final float SPEED = 1.0f;
+    // 每帧之间留给后台线程的时间，模拟游戏循环中渲染占用的时间
+    private static final long FRAME_NANOS = 2_000_000L;
+
+    public static void main(String[] args) {
+        int distanceChunks = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        long start = System.nanoTime();
+        World world = new World(0f, 0f);
+        double constructMs = (System.nanoTime() - start) / 1e6;
+        world.awaitLoaded();
+        System.out.printf("Startup: constructor returned in %.1f ms, %d chunks ready after %.1f ms%n",
+                constructMs, world.getChunks().size(), (System.nanoTime() - start) / 1e6);
+        System.out.println("View distance " + Config.VIEW_DISTANCE + ", budget " + Config.CHUNK_CACHE_MB + " MB");
+        System.out.printf("%10s %10s %10s %12s %12s%n", "chunks", "loaded", "visible", "cache MB", "heap MB");
+
+        int frames = (int) (distanceChunks * 16 / SPEED);
+        long maxUpdateNanos = 0;
+        long totalUpdateNanos = 0;
+        float x = 0f;
+        for (int frame = 1; frame <= frames; frame++) {
+            x += SPEED;
+            long t0 = System.nanoTime();
+            world.update(x, 0f);
+            long elapsed = System.nanoTime() - t0;
+            maxUpdateNanos = Math.max(maxUpdateNanos, elapsed);
+            totalUpdateNanos += elapsed;
+            LockSupport.parkNanos(FRAME_NANOS);
+
+            if (frame % (frames / 10) == 0) {
+                System.gc();
+                Runtime rt = Runtime.getRuntime();
+                System.out.printf("%10d %10d %10d %12.1f %12.1f%n", (int) x / 16, world.getLoadedChunkCount(),
+                        world.getChunks().size(), world.getFootprintBytes() / 1048576.0,
+                        (rt.totalMemory() - rt.freeMemory()) / 1048576.0);
+            }
+        }
+        System.out.printf("World.update: avg %.3f ms, max %.2f ms%n", totalUpdateNanos / 1e6 / frames, maxUpdateNanos / 1e6);
+    }
+}
@@ -0,0 +1,62 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import render.Camera;
+import render.math.Vector3f;
+import world.World;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 碰撞相关的热点：World.isSolid 的单点查询，以及玩家贴着地形移动一步 (Camera.moveWithCollision)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+    private static final int PROBES = 1024; // 2 的幂，下标用位与回绕
+
+    private World world;
+    private Camera camera;
+    private final float[] probeX = new float[PROBES], probeY = new float[PROBES], probeZ = new float[PROBES];
+    private final float[] moveX = new float[PROBES], moveZ = new float[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = new World();
+        world.awaitLoaded();
+        camera = new Camera();
+
+        Random random = new Random(7);
+        for (int i = 0; i < PROBES; i++) {
+            probeX[i] = 24 + random.nextFloat() * 80;
+            probeY[i] = random.nextFloat() * 32;
+            probeZ[i] = 24 + random.nextFloat() * 80;
+            double angle = random.nextDouble() * Math.PI * 2;
+            moveX[i] = (float) Math.cos(angle) * 0.15f;
+            moveZ[i] = (float) Math.sin(angle) * 0.15f;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void placeCamera() {
+        // 每轮从地表附近重新开始，随机游走不会走出已加载的区域太远
+        camera.setPosition(new Vector3f(64f, 20f, 64f));
+    }
+
+    @Benchmark
+    public boolean isSolid() {
+        int i = next++ & (PROBES - 1);
+        return world.isSolid(probeX[i], probeY[i], probeZ[i]);
+    }
+
+    @Benchmark
+    public Vector3f moveWithCollision() {
+        int i = next++ & (PROBES - 1);
+        // 和 InputHandler 一样每步 0.15 格，并带一点下压，让碰撞箱贴着地面滑动
+        camera.moveWithCollision(moveX[i], -0.15f, moveZ[i], world);
+        return camera.getPosition();
+    }
+}
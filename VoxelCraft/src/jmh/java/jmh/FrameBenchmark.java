@@ -0,0 +1,51 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import render.Camera;
+import render.Renderer;
+import render.math.Vector3f;
+import world.World;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 固定视角下的整帧渲染 (变换、裁剪、光栅化)，视角与 CullingReport 相同：世界中央平视、角落看向外侧、俯视。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FrameBenchmark {
+    private static final float[][] VIEWS = {
+            {64f, 20f, 64f, 0f, 0f},
+            {4f, 20f, 4f, 0f, (float) Math.PI * 0.75f},
+            {64f, 60f, 64f, -1.2f, 0.3f},
+    };
+
+    @Param({"0", "1", "2"})
+    public int view;
+
+    @Param({"true", "false"})
+    public boolean tiled;
+
+    private World world;
+    private Renderer renderer;
+    private Camera camera;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = new World();
+        world.awaitLoaded();
+        renderer = new Renderer(800, 600);
+        renderer.setTiledRendering(tiled);
+        camera = new Camera();
+        float[] v = VIEWS[view];
+        camera.setPosition(new Vector3f(v[0], v[1], v[2]));
+        camera.setRotation(new Vector3f(v[3], v[4], 0f));
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        return renderer.renderFrame(world, camera);
+    }
+}
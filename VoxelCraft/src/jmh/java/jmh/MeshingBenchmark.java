@@ -0,0 +1,39 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import world.Chunk;
+import world.ChunkMesh;
+import world.GreedyMesher;
+import world.NaiveMesher;
+import world.World;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在当前线程上同步重建出生点处一个 Chunk 的全部网格 (Chunk.rebuildMesh)，对比逐面和 Greedy 两种 Mesher。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeshingBenchmark {
+    @Param({"naive", "greedy"})
+    public String mesher;
+
+    private World world;
+    private Chunk chunk;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = new World();
+        world.awaitLoaded();
+        world.setMesher(mesher.equals("greedy") ? new GreedyMesher() : new NaiveMesher());
+        // 渲染列表由近到远排序，第一个就是出生点所在的 Chunk，四周邻居都已加载
+        chunk = world.getChunks().get(0);
+    }
+
+    @Benchmark
+    public ChunkMesh rebuildMesh() {
+        chunk.rebuildMesh(world);
+        return chunk.getChunkMesh();
+    }
+}
@@ -0,0 +1,84 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import util.NoiseGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次噪声采样，以及一个 Chunk 的高度图 / 3D 密度场的批量生成 (vectorized 切换 Vector API 和标量实现)。
+ * 坐标每次都变 (步长不是整数，会落在格子的不同位置)，避免 JIT 把结果当作常量
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NoiseBenchmark {
+    private static final int SIZE = 16;
+    private static final double FREQUENCY = 0.05;
+
+    @Param({"true", "false"})
+    public boolean vectorized;
+
+    private NoiseGenerator noise;
+    private final double[] heights = new double[SIZE * SIZE];
+    private final double[] density = new double[SIZE * SIZE * SIZE];
+    private double x, z;
+    private int chunk;
+
+    @Setup
+    public void setup() {
+        noise = new NoiseGenerator(12345L, vectorized);
+    }
+
+    @Benchmark
+    public double noise3D() {
+        x += 0.173;
+        z += 0.071;
+        return noise.noise(x, 7.31, z);
+    }
+
+    @Benchmark
+    public double noise2D() {
+        x += 0.173;
+        z += 0.071;
+        return noise.noise2D(x, z);
+    }
+
+    /**
+     * 改动前 Chunk.generateTerrain 的做法：256 次 noise2D
+     */
+    @Benchmark
+    public double[] chunkHeightmapPerSample() {
+        int cx = chunk++ & 63;
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                heights[z * SIZE + x] = noise.noise2D((cx * SIZE + x) * FREQUENCY, (7 * SIZE + z) * FREQUENCY);
+            }
+        }
+        return heights;
+    }
+
+    @Benchmark
+    public double[] chunkHeightmap() {
+        int cx = chunk++ & 63;
+        noise.fillNoise2D(cx * SIZE, 7 * SIZE, 1, FREQUENCY, SIZE, SIZE, heights);
+        return heights;
+    }
+
+    @Benchmark
+    public double[] chunkHeightmapFbm() {
+        int cx = chunk++ & 63;
+        noise.fillFbm2D(cx * SIZE, 7 * SIZE, 1, FREQUENCY, 4, 2, 0.5, SIZE, SIZE, heights);
+        return heights;
+    }
+
+    /**
+     * 16x16x16 的 3D fBm (4 层)
+     */
+    @Benchmark
+    public double[] chunkDensityFbm() {
+        int cx = chunk++ & 63;
+        noise.fillFbm3D(cx * SIZE, 0, 7 * SIZE, 1, 1, FREQUENCY, 4, 2, 0.5, SIZE, SIZE, SIZE, density);
+        return density;
+    }
+}
@@ -0,0 +1,36 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import world.Chunk;
+import world.ChunkStorage;
+import world.DensityGenerator;
+import world.HeightmapGenerator;
+import world.TerrainGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成一个 Chunk (含压缩成调色板模式) 的耗时：原来的高度图和 3D 密度场 (洞穴、生物群系、矿石)。
+ * 每次换一个 Chunk 坐标，避免 JIT 把结果当作常量
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TerrainBenchmark {
+    @Param({"density", "heightmap"})
+    public String generator;
+
+    private TerrainGenerator terrain;
+    private int chunk;
+
+    @Setup
+    public void setup() {
+        terrain = generator.equals("density") ? new DensityGenerator(12345L) : new HeightmapGenerator(12345L);
+    }
+
+    @Benchmark
+    public ChunkStorage generateChunk() {
+        int i = chunk++;
+        return Chunk.generateTerrain(terrain, i & 63, (i >> 6) & 63);
+    }
+}
@@ -0,0 +1,55 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import render.Renderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个三角形的光栅化 (Renderer.drawTriangle -> drawTriangleOptimized)，覆盖几种典型形状：
+ * 远处的小三角形、近处的中等三角形、占大半个屏幕的大三角形，以及斜着的细长三角形 (包围盒大、覆盖像素少)。
+ * <p>
+ * 每次调用的深度都比上一次略近，所有像素都通过深度测试并写入；深度用完后整屏清空一次，分摊到每次调用可以忽略。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriangleBenchmark {
+    private static final int WIDTH = 800, HEIGHT = 600;
+    private static final int DRAWS_PER_CLEAR = 100_000;
+    private static final float DEPTH_STEP = 1e-6f;
+
+    @Param({"small", "medium", "large", "sliver"})
+    public String shape;
+
+    private Renderer renderer;
+    private float[] v; // x1 y1 x2 y2 x3 y3 (屏幕坐标，顺时针即正面)
+    private float depth;
+    private int remaining;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        renderer = new Renderer(WIDTH, HEIGHT);
+        v = switch (shape) {
+            case "small" -> new float[]{400.3f, 300.2f, 408.7f, 304.1f, 402.5f, 309.9f};
+            case "medium" -> new float[]{350.3f, 250.2f, 430.7f, 280.1f, 370.5f, 335.9f};
+            case "large" -> new float[]{20.3f, 10.2f, 780.7f, 120.1f, 200.5f, 590.9f};
+            case "sliver" -> new float[]{10.3f, 10.2f, 790.7f, 585.1f, 786.5f, 589.9f};
+            default -> throw new IllegalArgumentException(shape);
+        };
+        reset();
+    }
+
+    @Benchmark
+    public void drawTriangle() {
+        if (--remaining == 0) reset();
+        depth -= DEPTH_STEP;
+        renderer.drawTriangle(v[0], v[1], depth, v[2], v[3], depth, v[4], v[5], depth, 0xFF5A8C3C);
+    }
+
+    private void reset() {
+        renderer.clearFrame();
+        depth = 0.9f;
+        remaining = DRAWS_PER_CLEAR;
+    }
+}
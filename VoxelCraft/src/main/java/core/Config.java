@@ -3,5 +3,46 @@ package core;
 public class Config {
     public static final int SCREEN_WIDTH = 800;
     public static final int SCREEN_HEIGHT = 600;
-    public static final int TARGET_FPS = 60;
+    // 模拟频率 (tick / 秒)：输入、世界加载都按固定步长推进，与渲染帧率无关
+    public static final int TICK_RATE = 60;
+    // 帧率上限，0 表示不限帧 (渲染线程画完一帧立刻画下一帧)
+    public static final int MAX_FPS = 0;
+    // 按显示器刷新率限帧 (类似垂直同步)，开启时忽略 MAX_FPS
+    public static final boolean VSYNC = true;
+    // 在渲染线程和显示线程之间轮转的帧缓冲数：2 为双缓冲，3 为三缓冲 (渲染可以领先显示两帧)
+    public static final int FRAME_BUFFERS = 3;
+    // 性能统计：分阶段耗时、面 / 像素计数，F3 显示面板，通过 JMX 导出。关闭后各处埋点只剩一次 null 判断
+    public static final boolean PERF_METRICS = true;
+    // 是否使用 Greedy Meshing 合并同色共面的方块面 (false 则逐面输出)
+    public static final boolean GREEDY_MESHING = false;
+    // 多线程分 Tile 光栅化 (false 则在当前线程整屏光栅化)
+    public static final boolean TILED_RENDERING = true;
+    // 光栅化线程数，0 表示使用全部 CPU 核心
+    public static final int RENDER_THREADS = 0;
+    // 屏幕 Tile 边长 (像素)
+    public static final int TILE_SIZE = 64;
+    // 视锥剔除：在变换顶点前按包围盒整块剔除 Chunk / Section
+    public static final boolean FRUSTUM_CULLING = true;
+    // 遮挡剔除：先画摄像机附近的 Chunk，用它们的深度建立 Hi-Z 金字塔，剔除包围盒被完全挡住的远处 Chunk / Section
+    public static final boolean OCCLUSION_CULLING = true;
+    // 遮挡剔除第一遍 (遮挡物) 的半径 (Chunk 数)：越大挡住的越多，但这些 Chunk 本身不经过遮挡测试
+    public static final int OCCLUDER_DISTANCE = 2;
+    // x/y 方向的 Guard Band (屏幕尺寸的倍数)：三角形超出这个范围才做几何裁剪，近平面总是裁剪
+    public static final float GUARD_BAND = 4.0f;
+    // 批量噪声使用 Vector API (需要 --add-modules jdk.incubator.vector，没有时自动退回标量实现)
+    public static final boolean VECTOR_NOISE = true;
+    // 世界种子：同一种子总是生成相同的地形
+    public static final long WORLD_SEED = 12345L;
+    // 地形生成：true 为 3D 密度场 (洞穴、悬崖、生物群系、矿石)，false 为原来的单层高度图
+    public static final boolean DENSITY_TERRAIN = true;
+    // 存档目录 (相对工作目录)，null 表示不保存，每次启动重新生成
+    public static final String SAVE_DIRECTORY = "saves/world";
+    // 自动保存间隔 (秒)：把新生成和修改过的 Chunk 交给后台线程写盘
+    public static final int AUTOSAVE_SECONDS = 30;
+    // 视距 (Chunk 数)：以玩家所在 Chunk 为圆心，半径内的 Chunk 会被加载并构建网格
+    public static final int VIEW_DISTANCE = 8;
+    // 后台生成地形 / 构建网格的线程数，0 表示 CPU 核心数 - 1 (至少 1 个)
+    public static final int CHUNK_WORKER_THREADS = 0;
+    // Chunk 缓存的内存预算 (MB)：超出后按最久未使用淘汰视距外的 Chunk
+    public static final int CHUNK_CACHE_MB = 32;
 }
@@ -1,14 +1,39 @@
 package core;
 
 import input.InputHandler;
+import perf.PerfMetrics;
+import perf.PerfOverlay;
 import render.Camera;
+import render.FrameBufferPool;
 import render.Renderer;
+import world.ChunkStore;
 import world.World;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 游戏主循环。模拟和渲染在两个线程上各自运行：
+ * <p>
+ * - 模拟线程 (调用 run 的线程) 以固定步长 1 / TICK_RATE 推进输入和世界，时间累加器攒够一个 tick 才推进一次，
+ *   渲染慢也不会改变模拟结果；每个 tick 结束后发布相机状态快照，两次 tick 之间 park 等待
+ * - 渲染线程按 MAX_FPS / VSYNC 限帧 (等待下一帧时 park，不空转)，在前后两个 tick 的快照之间按时间插值相机，
+ *   渲染到帧缓冲池里的一张空闲帧缓冲
+ * - 显示线程通过 BufferStrategy 主动绘制 (不经过 repaint / EDT)，显示第 N 帧的同时渲染线程已经在画第 N+1 帧
+ */
+public class GameEngine extends Canvas implements Runnable {
+    // 落后太多时最多连续补几个 tick，再多就丢弃积压的时间，避免越追越慢
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    // 退出时最多等模拟循环保存世界、渲染线程关闭 CSV 多久 (秒)
+    private static final int SAVE_ON_EXIT_TIMEOUT = 10;
 
-public class GameEngine extends JPanel implements Runnable {
     private final int WIDTH = Config.SCREEN_WIDTH;
     private final int HEIGHT = Config.SCREEN_HEIGHT;
 
@@ -18,16 +43,45 @@ public class GameEngine extends JPanel implements Runnable {
     private InputHandler input;
     private JFrame window;
 
-    private boolean running = true;
+    private volatile boolean running = true;
+    private final CountDownLatch stopped = new CountDownLatch(1); // 模拟循环结束、世界已经保存
+    private final CountDownLatch renderStopped = new CountDownLatch(1); // 渲染循环结束、性能 CSV 已经写完关闭
+    private final long tickNanos = 1_000_000_000L / Config.TICK_RATE;
+
+    // 模拟线程发布给渲染线程的状态：上一个和当前 tick 的相机，以及当前 tick 对应的时刻，都由 stateLock 保护
+    private final Object stateLock = new Object();
+    private final Camera previousState = new Camera();
+    private final Camera currentState = new Camera();
+    private long currentTickTime;
+    // 渲染线程自己的插值相机
+    private final Camera renderCamera = new Camera();
+
+    private FrameBufferPool frames;
+    private BufferStrategy strategy;
+
+    // 性能统计，Config.PERF_METRICS 关闭时都为 null
+    private PerfMetrics metrics;
+    private PerfOverlay overlay;
 
     public GameEngine() {
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
         setBackground(Color.BLACK);
+        // 主动渲染：画面全部由显示线程绘制，忽略系统发来的重绘请求
+        setIgnoreRepaint(true);
 
         renderer = new Renderer(WIDTH, HEIGHT);
-        world = new World();
+        frames = new FrameBufferPool(renderer, Config.FRAME_BUFFERS);
+        if (Config.PERF_METRICS) {
+            metrics = new PerfMetrics();
+            metrics.registerMBean();
+            overlay = new PerfOverlay(metrics);
+            renderer.setMetrics(metrics);
+        }
         camera = new Camera();
+        // 只加载出生点附近的 Chunk，其余随玩家移动流式加载
+        world = new World(camera.getPosition().x, camera.getPosition().z, openChunkStore());
         input = new InputHandler(camera, world); // 创建
+        input.setOverlay(overlay);
 
         // --- 核心变更开始 ---
         addKeyListener(input);            // 监听键盘
@@ -39,35 +93,229 @@ public class GameEngine extends JPanel implements Runnable {
 
         window = new JFrame("VoxelCraft");
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // 关窗口时 EXIT_ON_CLOSE 直接调用 System.exit：在关闭钩子里停下模拟循环，等它把世界存完盘
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stopAndAwaitSave, "save-on-exit"));
         window.setResizable(false);
         window.add(this);
         window.pack();
         window.setVisible(true);
+        // BufferStrategy 要在组件显示出来之后创建
+        createBufferStrategy(2);
+        strategy = getBufferStrategy();
 
         // 初始化鼠标锁定 (窗口显示后调用)
         input.initMouseLock(this);
     }
 
 
+    /**
+     * 在当前线程上运行模拟循环，并启动渲染线程和显示线程
+     */
     @Override
     public void run() {
-        long lastTime = System.nanoTime();
-        double nsPerFrame = 1e9 / Config.TARGET_FPS;
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        publishState(previous);
+        previousState.set(currentState);
 
-        while (running) {
-            long now = System.nanoTime();
-            if (now - lastTime < nsPerFrame) continue;
-            lastTime = now;
+        Thread renderThread = new Thread(this::renderLoop, "render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+        Thread presentThread = new Thread(this::presentLoop, "present");
+        presentThread.setDaemon(true);
+        presentThread.start();
 
-            input.update();
-            world.update();
-            repaint();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                accumulator += now - previous;
+                previous = now;
+                if (accumulator > MAX_CATCH_UP_TICKS * tickNanos) accumulator = MAX_CATCH_UP_TICKS * tickNanos;
+
+                while (accumulator >= tickNanos) {
+                    tick();
+                    accumulator -= tickNanos;
+                    // 这个 tick 对应的时刻：当前时间减去还没消化的累积时间
+                    publishState(now - accumulator);
+                }
+                LockSupport.parkNanos(tickNanos - accumulator);
+            }
+        } finally {
+            // World 只在模拟线程上访问，保存也在这里做
+            try {
+                world.close();
+            } catch (IOException e) {
+                System.err.println("Failed to save world: " + e);
+            }
+            stopped.countDown();
         }
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        renderer.render(g, world, camera);
+    public void stop() {
+        running = false;
+    }
+
+    private void stopAndAwaitSave() {
+        stop();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SAVE_ON_EXIT_TIMEOUT);
+            if (stopped.await(SAVE_ON_EXIT_TIMEOUT, TimeUnit.SECONDS)) {
+                renderStopped.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 打开 Config.SAVE_DIRECTORY 下的存档，未配置或打不开时返回 null (不保存，照常游戏)
+     */
+    private static ChunkStore openChunkStore() {
+        if (Config.SAVE_DIRECTORY == null) return null;
+        try {
+            return new ChunkStore(Path.of(Config.SAVE_DIRECTORY));
+        } catch (IOException e) {
+            System.err.println("Cannot open save directory, the world will not be saved: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * 性能统计，Config.PERF_METRICS 关闭时为 null
+     */
+    public PerfMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 一个固定步长的模拟 tick
+     */
+    private void tick() {
+        PerfMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0L;
+        long meshNanos = world.getMeshNanos();
+
+        input.update();
+        world.update(camera.getPosition().x, camera.getPosition().z);
+
+        if (m != null) {
+            m.record(PerfMetrics.TICK, System.nanoTime() - start);
+            m.record(PerfMetrics.REMESH, world.getMeshNanos() - meshNanos);
+        }
+    }
+
+    private void publishState(long tickTime) {
+        synchronized (stateLock) {
+            previousState.set(currentState);
+            currentState.set(camera);
+            currentTickTime = tickTime;
+        }
+    }
+
+    private void renderLoop() {
+        long period = framePeriodNanos();
+        long next = System.nanoTime();
+        long frameStart = next;
+        try {
+            while (running) {
+                renderFrame();
+                if (metrics != null) {
+                    long now = System.nanoTime();
+                    metrics.record(PerfMetrics.FRAME, now - frameStart);
+                    metrics.endFrame();
+                    frameStart = now;
+                }
+
+                if (period == 0) continue; // 不限帧
+                next += period;
+                long wait = next - System.nanoTime();
+                if (wait < -period) {
+                    // 渲染跟不上目标帧率：从现在重新计时，不为了追赶连续出帧
+                    next = System.nanoTime();
+                    continue;
+                }
+                while (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    wait = next - System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // CSV 只在渲染线程上写 (endFrame)，也在这里关闭，缓冲里最后几帧才不会丢
+            if (metrics != null) metrics.closeCsv();
+            renderStopped.countDown();
+        }
+    }
+
+    /**
+     * 在最近两个 tick 的状态之间插值出相机 (画面比模拟晚不到一个 tick)，渲染到一张空闲帧缓冲后交给显示线程。
+     * 帧缓冲都在显示中 / 等待显示时在 acquire 上等待
+     */
+    private void renderFrame() throws InterruptedException {
+        BufferedImage frame = frames.acquire();
+        synchronized (stateLock) {
+            float alpha = (float) (System.nanoTime() - currentTickTime) / tickNanos;
+            renderCamera.interpolate(previousState, currentState, Math.max(0f, Math.min(1f, alpha)));
+        }
+        renderer.renderFrame(world, renderCamera, frame);
+        frames.submit(frame);
+    }
+
+    /**
+     * 显示线程：按渲染顺序取出渲染好的帧，画到 BufferStrategy 的后台缓冲上翻转显示，再把帧缓冲还回池中。
+     * 每秒在标题栏显示一次实际显示的帧数
+     */
+    private void presentLoop() {
+        long windowStart = System.nanoTime();
+        int presented = 0;
+        try {
+            while (running) {
+                BufferedImage frame = frames.takeReady();
+                long start = System.nanoTime();
+                // 后台缓冲的内容可能被系统回收 (切换显示模式、窗口被遮挡等)，按 BufferStrategy 文档的方式重画
+                do {
+                    do {
+                        Graphics g = strategy.getDrawGraphics();
+                        g.drawImage(frame, 0, 0, null);
+                        if (overlay != null) overlay.draw(g);
+                        g.dispose();
+                    } while (strategy.contentsRestored());
+                    strategy.show();
+                } while (strategy.contentsLost());
+                Toolkit.getDefaultToolkit().sync();
+                frames.release(frame);
+                if (metrics != null) metrics.record(PerfMetrics.PRESENT, System.nanoTime() - start);
+
+                presented++;
+                long now = System.nanoTime();
+                if (now - windowStart >= 1_000_000_000L) {
+                    String title = "VoxelCraft - " + Math.round(presented * 1e9 / (now - windowStart)) + " FPS";
+                    SwingUtilities.invokeLater(() -> window.setTitle(title));
+                    windowStart = now;
+                    presented = 0;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 两帧之间的目标间隔，0 表示不限帧
+     */
+    private static long framePeriodNanos() {
+        if (Config.VSYNC) {
+            int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+            if (!GraphicsEnvironment.isHeadless()) {
+                refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                        .getDisplayMode().getRefreshRate();
+            }
+            // 取不到刷新率时按 60Hz
+            return 1_000_000_000L / (refreshRate > 0 ? refreshRate : 60);
+        }
+        // 先拷到局部变量：直接除以编译期常量 0 会触发 javac 的 divzero 警告 (运行时已经有 > 0 判断)
+        int maxFps = Config.MAX_FPS;
+        return maxFps > 0 ? 1_000_000_000L / maxFps : 0;
     }
 }
@@ -0,0 +1,75 @@
+package core;
+
+import perf.PerfMetrics;
+import render.Camera;
+import render.CameraPath;
+import render.FrameExporter;
+import render.Renderer;
+import world.World;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 无窗口运行：不创建 JFrame / Robot，相机沿脚本路径移动，渲染结果只留在帧缓冲里，可选地逐帧写成文件。
+ * <p>
+ * 每帧先等视距内的 Chunk 全部加载好再渲染，画面只取决于路径和帧号，和后台线程的快慢无关，
+ * 同一条路径在任何机器上都输出相同的图像，可以用来做自动化渲染 benchmark 和图像回归测试。
+ * 运行: java -Djava.awt.headless=true -cp build/classes/java/main main.Main --headless [选项] (见 Main)
+ */
+public class HeadlessRunner {
+    private final Renderer renderer;
+    private final CameraPath path;
+    private final float fps;
+    private final Camera camera = new Camera();
+    private PerfMetrics metrics;
+
+    public HeadlessRunner(int width, int height, CameraPath path, float fps) {
+        this.renderer = new Renderer(width, height);
+        this.path = path;
+        this.fps = fps;
+    }
+
+    /**
+     * 记录每帧的分阶段耗时和计数 (整帧时间为 renderFrame 的耗时)，传 null 关闭
+     */
+    public void setMetrics(PerfMetrics metrics) {
+        this.metrics = metrics;
+        renderer.setMetrics(metrics);
+    }
+
+    /**
+     * 渲染 frames 帧 (路径时间按 fps 推进)，exporter 为 null 时不写文件。结束后打印每帧渲染耗时的统计
+     */
+    public void run(int frames, FrameExporter exporter) throws IOException {
+        path.apply(0f, camera);
+        World world = new World(camera.getPosition().x, camera.getPosition().z);
+        BufferedImage frame = renderer.createFrameBuffer();
+        long[] renderNanos = new long[frames];
+
+        for (int i = 0; i < frames; i++) {
+            path.apply(i / fps, camera);
+            world.update(camera.getPosition().x, camera.getPosition().z);
+            world.awaitLoaded();
+
+            long start = System.nanoTime();
+            renderer.renderFrame(world, camera, frame);
+            renderNanos[i] = System.nanoTime() - start;
+            if (metrics != null) {
+                metrics.record(PerfMetrics.FRAME, renderNanos[i]);
+                metrics.endFrame();
+            }
+
+            if (exporter != null) exporter.write(frame, i);
+        }
+
+        if (frames == 0) return;
+        long total = 0;
+        for (long nanos : renderNanos) total += nanos;
+        Arrays.sort(renderNanos);
+        System.out.printf("%d frames: avg %.2f ms, p50 %.2f ms, p95 %.2f ms, max %.2f ms%n", frames,
+                total / 1e6 / frames, renderNanos[frames / 2] / 1e6,
+                renderNanos[Math.min(frames - 1, (int) (frames * 0.95))] / 1e6, renderNanos[frames - 1] / 1e6);
+    }
+}
@@ -0,0 +1,159 @@
+package entity;
+
+import java.util.Arrays;
+
+/**
+ * 所有实体的状态，按结构数组 (SoA) 存放：每个属性一个原始数组，第 i 个实体的属性都在下标 i 上。
+ * <p>
+ * 逐属性遍历 (积分位置、重建空间哈希) 时访问是连续的，也没有每个实体一个对象的头部开销和 GC 压力。
+ * 存活的实体始终紧凑地排在 [0, count) 里，删除时把最后一个实体挪进空位，所以下标会变；
+ * 外部长期引用实体要用 add 返回的 id，通过 indexOf 换成当前下标。
+ * <p>
+ * 非线程安全，只在游戏线程上访问。
+ */
+public class EntityStore {
+    public static final byte MOB = 0;        // 怪物：会走动、会上台阶，彼此之间互相推开
+    public static final byte ITEM = 1;       // 掉落物：落地后滑行减速，不参与实体间碰撞
+    public static final byte PROJECTILE = 2; // 投射物：飞行中受较小的重力，撞上方块就停住
+
+    // 按下标的实体属性
+    public float[] posX, posY, posZ;    // 脚底中心
+    public float[] velX, velY, velZ;    // 方块 / 秒
+    public float[] pushX, pushZ;        // 上一 tick 实体间碰撞累积的分离位移，下一 tick 移动时消化
+    public float[] halfWidth, height;
+    public byte[] type;
+    public boolean[] onGround;
+    public int[] id;
+
+    private int count;
+    private float maxHalfWidth;
+
+    // id -> 下标，空闲的 id 用一条栈回收复用
+    private int[] indexOfId;
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+
+    public EntityStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        posX = new float[capacity];
+        posY = new float[capacity];
+        posZ = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        pushX = new float[capacity];
+        pushZ = new float[capacity];
+        halfWidth = new float[capacity];
+        height = new float[capacity];
+        type = new byte[capacity];
+        onGround = new boolean[capacity];
+        id = new int[capacity];
+        indexOfId = new int[capacity];
+        freeIds = new int[capacity];
+    }
+
+    /**
+     * 加入一个实体，返回它的 id (在被删除之前保持不变)
+     */
+    public int add(byte entityType, float x, float y, float z, float width, float entityHeight) {
+        if (count == posX.length) grow(count * 2);
+        int i = count++;
+        posX[i] = x;
+        posY[i] = y;
+        posZ[i] = z;
+        velX[i] = velY[i] = velZ[i] = 0f;
+        pushX[i] = pushZ[i] = 0f;
+        halfWidth[i] = width / 2f;
+        height[i] = entityHeight;
+        type[i] = entityType;
+        onGround[i] = false;
+        maxHalfWidth = Math.max(maxHalfWidth, halfWidth[i]);
+
+        int entityId;
+        if (freeCount > 0) {
+            entityId = freeIds[--freeCount];
+        } else {
+            entityId = nextId++;
+            if (entityId == indexOfId.length) indexOfId = Arrays.copyOf(indexOfId, entityId * 2);
+        }
+        id[i] = entityId;
+        indexOfId[entityId] = i;
+        return entityId;
+    }
+
+    /**
+     * 删除实体：最后一个实体挪到它的下标上
+     */
+    public void remove(int entityId) {
+        int i = indexOf(entityId);
+        if (i < 0) return;
+        int last = --count;
+        if (i != last) copy(last, i);
+        indexOfId[entityId] = -1;
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = entityId;
+    }
+
+    /**
+     * id 对应的当前下标，已删除或从未分配过返回 -1
+     */
+    public int indexOf(int entityId) {
+        if (entityId < 0 || entityId >= nextId) return -1;
+        return indexOfId[entityId];
+    }
+
+    public void clear() {
+        for (int i = 0; i < count; i++) indexOfId[id[i]] = -1;
+        for (int i = count - 1; i >= 0; i--) {
+            if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            freeIds[freeCount++] = id[i];
+        }
+        count = 0;
+        maxHalfWidth = 0f;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 加入过的实体中最大的半宽，邻居查询时按它扩大搜索范围 (删除后不回缩，只会让查询略微保守)
+     */
+    public float getMaxHalfWidth() {
+        return maxHalfWidth;
+    }
+
+    private void copy(int from, int to) {
+        posX[to] = posX[from];
+        posY[to] = posY[from];
+        posZ[to] = posZ[from];
+        velX[to] = velX[from];
+        velY[to] = velY[from];
+        velZ[to] = velZ[from];
+        pushX[to] = pushX[from];
+        pushZ[to] = pushZ[from];
+        halfWidth[to] = halfWidth[from];
+        height[to] = height[from];
+        type[to] = type[from];
+        onGround[to] = onGround[from];
+        id[to] = id[from];
+        indexOfId[id[to]] = to;
+    }
+
+    private void grow(int capacity) {
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        pushX = Arrays.copyOf(pushX, capacity);
+        pushZ = Arrays.copyOf(pushZ, capacity);
+        halfWidth = Arrays.copyOf(halfWidth, capacity);
+        height = Arrays.copyOf(height, capacity);
+        type = Arrays.copyOf(type, capacity);
+        onGround = Arrays.copyOf(onGround, capacity);
+        id = Arrays.copyOf(id, capacity);
+    }
+}
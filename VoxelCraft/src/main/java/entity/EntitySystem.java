@@ -0,0 +1,194 @@
+package entity;
+
+import physics.PhysicsBody;
+import world.World;
+
+/**
+ * 每 tick 推进所有实体：
+ * 1. 行为：怪物隔一段时间随机换个方向走；掉落物在地上减速
+ * 2. 移动：逐个装入同一个 PhysicsBody 求解器，和方块做扫掠碰撞 (见 physics.VoxelCollider)
+ * 3. 重建空间哈希
+ * 4. 实体间碰撞粗筛：每个实体只查询周围几个格子里的实体，精确检测 AABB 重叠，把分离位移记到 push 里，
+ *    下一 tick 移动时一起做方块碰撞，所以推挤不会把实体推进墙里
+ * <p>
+ * 所在 Chunk 尚未生成的实体原地冻结，等地形加载好再继续模拟。整个 tick 不分配对象，只在游戏线程上调用。
+ */
+public class EntitySystem {
+    private static final float GRAVITY = 20f;             // 方块 / 秒²
+    private static final float CELL_SIZE = 2f;             // 空间哈希格子边长 (方块)，略大于实体直径
+    private static final float MOB_SPEED = 2f;             // 怪物行走速度 (方块 / 秒)
+    private static final int MOB_TURN_CHANCE = 128;        // 怪物每 tick 有 1/128 的概率换方向
+    private static final float ITEM_DRAG = 6f;             // 掉落物在地面上的减速 (每秒损失速度的比例)
+    private static final float PROJECTILE_GRAVITY = 0.5f;  // 投射物受到的重力比例
+
+    private final EntityStore store;
+    private final SpatialHash hash = new SpatialHash(CELL_SIZE);
+    private final PhysicsBody solver = new PhysicsBody(1f, 1f);
+    private int[] neighbours = new int[64];
+    private long seed;
+
+    // 最近一次 tick 的统计
+    private int simulated;
+    private int candidatePairs;
+    private int contacts;
+
+    public EntitySystem(int initialCapacity, long seed) {
+        this.store = new EntityStore(initialCapacity);
+        this.seed = seed == 0 ? 1 : seed; // xorshift 的状态不能为 0
+    }
+
+    public EntityStore getStore() {
+        return store;
+    }
+
+    public SpatialHash getSpatialHash() {
+        return hash;
+    }
+
+    public void tick(World world, float dt) {
+        EntityStore s = store;
+        int n = s.size();
+        simulated = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (!world.isLoaded(blockCoord(s.posX[i]), blockCoord(s.posZ[i]))) continue;
+            simulated++;
+            think(i, dt);
+            move(world, i, dt);
+        }
+
+        hash.build(s.posX, s.posZ, n);
+        separate();
+    }
+
+    /**
+     * 找出脚底中心在矩形 [minX, maxX] x [minZ, maxZ] 附近的实体下标 (基于最近一次 tick 重建的空间哈希，粗筛结果)
+     */
+    public int queryNearby(float minX, float minZ, float maxX, float maxZ, int[] out) {
+        return hash.query(minX, minZ, maxX, maxZ, out);
+    }
+
+    public int getSimulatedCount() {
+        return simulated;
+    }
+
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    public int getContacts() {
+        return contacts;
+    }
+
+    private void think(int i, float dt) {
+        EntityStore s = store;
+        switch (s.type[i]) {
+            case EntityStore.MOB:
+                if (nextInt(MOB_TURN_CHANCE) == 0) {
+                    float angle = nextInt(360) * (float) (Math.PI / 180);
+                    s.velX[i] = (float) Math.cos(angle) * MOB_SPEED;
+                    s.velZ[i] = (float) Math.sin(angle) * MOB_SPEED;
+                }
+                break;
+            case EntityStore.ITEM:
+                if (s.onGround[i]) {
+                    float keep = Math.max(0f, 1f - ITEM_DRAG * dt);
+                    s.velX[i] *= keep;
+                    s.velZ[i] *= keep;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void move(World world, int i, float dt) {
+        EntityStore s = store;
+        byte type = s.type[i];
+        PhysicsBody body = solver;
+        body.setSize(s.halfWidth[i] * 2f, s.height[i]);
+        body.setPosition(s.posX[i], s.posY[i], s.posZ[i]);
+        body.setVelocity(s.velX[i], s.velY[i], s.velZ[i]);
+        body.setGravity(type == EntityStore.PROJECTILE ? GRAVITY * PROJECTILE_GRAVITY : GRAVITY);
+        body.setStepHeight(type == EntityStore.MOB ? 1f : 0f);
+        body.setOnGround(s.onGround[i]);
+
+        if (s.pushX[i] != 0f || s.pushZ[i] != 0f) {
+            body.move(world, s.pushX[i], 0f, s.pushZ[i]);
+            s.pushX[i] = 0f;
+            s.pushZ[i] = 0f;
+        }
+        body.tick(world, dt);
+
+        s.posX[i] = body.getX();
+        s.posY[i] = body.getY();
+        s.posZ[i] = body.getZ();
+        s.onGround[i] = body.isOnGround();
+        if (type == EntityStore.PROJECTILE && (body.isCollidedHorizontally() || body.isOnGround())) {
+            // 扎在方块上：不再移动
+            s.velX[i] = s.velY[i] = s.velZ[i] = 0f;
+        } else {
+            s.velX[i] = body.getVelocityX();
+            s.velY[i] = body.getVelocityY();
+            s.velZ[i] = body.getVelocityZ();
+        }
+    }
+
+    /**
+     * 只检查下标比自己大的邻居，每对只处理一次；沿重叠较小的水平轴各推开一半
+     */
+    private void separate() {
+        EntityStore s = store;
+        int n = s.size();
+        float reach = s.getMaxHalfWidth();
+        candidatePairs = 0;
+        contacts = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (s.type[i] != EntityStore.MOB) continue;
+            float x = s.posX[i], y = s.posY[i], z = s.posZ[i];
+            float r = s.halfWidth[i] + reach;
+            int found = hash.query(x - r, z - r, x + r, z + r, neighbours);
+            if (found > neighbours.length) {
+                neighbours = new int[found * 2];
+                found = hash.query(x - r, z - r, x + r, z + r, neighbours);
+            }
+
+            for (int k = 0; k < found; k++) {
+                int j = neighbours[k];
+                if (j <= i || s.type[j] != EntityStore.MOB) continue;
+                candidatePairs++;
+                float dx = s.posX[j] - x;
+                float dz = s.posZ[j] - z;
+                float overlapX = s.halfWidth[i] + s.halfWidth[j] - Math.abs(dx);
+                float overlapZ = s.halfWidth[i] + s.halfWidth[j] - Math.abs(dz);
+                if (overlapX <= 0f || overlapZ <= 0f) continue;
+                if (s.posY[j] >= y + s.height[i] || y >= s.posY[j] + s.height[j]) continue;
+
+                contacts++;
+                if (overlapX < overlapZ) {
+                    float push = dx < 0f ? -overlapX * 0.5f : overlapX * 0.5f;
+                    s.pushX[i] -= push;
+                    s.pushX[j] += push;
+                } else {
+                    float push = dz < 0f ? -overlapZ * 0.5f : overlapZ * 0.5f;
+                    s.pushZ[i] -= push;
+                    s.pushZ[j] += push;
+                }
+            }
+        }
+    }
+
+    // 渲染约定：方块 (x, y, z) 占据 [x - 0.5, x + 0.5]
+    private static int blockCoord(float coord) {
+        return (int) Math.floor(coord + 0.5f);
+    }
+
+    // xorshift64，结果可复现，不分配对象
+    private int nextInt(int bound) {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 33) % bound);
+    }
+}
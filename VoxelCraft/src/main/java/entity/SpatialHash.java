@@ -0,0 +1,155 @@
+package entity;
+
+/**
+ * 均匀网格的空间哈希：把水平面划分成 cellSize 见方的格子，每个实体按脚底中心落进一个格子，
+ * 查询一个矩形范围时只遍历它覆盖的格子，邻居查询是 O(k) 而不是遍历全部实体的 O(n)。
+ * <p>
+ * 每 tick 整体重建一次 (实体每 tick 都在动，增量维护反而更贵)，两趟计数排序：
+ * 1. 给每个实体算出格子，格子坐标打包成 long 在开放寻址表里找到 / 占用一个槽，计数
+ * 2. 按槽的计数求前缀和得到起点，再把实体下标按格子连续填进 sorted
+ * 哈希表用"纪元"标记代替清空：槽的 stamp 不等于当前 epoch 就视为空，重建不需要 fill 整张表。
+ * 稳定之后 (容量够用) 重建和查询都不分配对象。
+ * <p>
+ * 只用 x/z 两个维度：世界只有 Chunk.HEIGHT 高，竖直方向再分格收益很小。
+ */
+public class SpatialHash {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final float invCellSize;
+
+    // 开放寻址表：格子键、纪元标记、该格子的实体数 / 填充游标、在 sorted 中的起点
+    private long[] keys;
+    private int[] stamps;
+    private int[] counts;
+    private int[] starts;
+    private int mask;
+    private int shift;
+    private int epoch;
+
+    // 本次重建用到的槽，求前缀和时只遍历这些
+    private int[] usedSlots;
+    private int usedCount;
+
+    // 按格子分组后的实体下标，以及每个实体所在的槽
+    private int[] sorted;
+    private int[] entitySlot;
+    private int entityCount;
+
+    public SpatialHash(float cellSize) {
+        this.invCellSize = 1f / cellSize;
+        allocate(64);
+        sorted = new int[16];
+        entitySlot = new int[16];
+    }
+
+    /**
+     * 用 [0, count) 这些实体的水平坐标重建
+     */
+    public void build(float[] xs, float[] zs, int count) {
+        if (sorted.length < count) {
+            sorted = new int[count * 2];
+            entitySlot = new int[count * 2];
+        }
+        // 格子数不会超过实体数，负载因子保持在 1/2 以下
+        if (keys.length < count * 2) allocate(Integer.highestOneBit(count * 2 - 1) << 1);
+        epoch++;
+        usedCount = 0;
+        entityCount = count;
+
+        for (int i = 0; i < count; i++) {
+            int slot = findOrInsert(key(cell(xs[i]), cell(zs[i])));
+            counts[slot]++;
+            entitySlot[i] = slot;
+        }
+
+        int offset = 0;
+        for (int u = 0; u < usedCount; u++) {
+            int slot = usedSlots[u];
+            starts[slot] = offset;
+            offset += counts[slot];
+            counts[slot] = 0; // 接下来当作填充游标，填完又恢复成计数
+        }
+        for (int i = 0; i < count; i++) {
+            int slot = entitySlot[i];
+            sorted[starts[slot] + counts[slot]++] = i;
+        }
+    }
+
+    /**
+     * 找出脚底中心落在矩形 [minX, maxX] x [minZ, maxZ] 所覆盖格子里的实体 (粗筛，结果可能在矩形外，调用方自己精确判断)。
+     * 下标写入 out，返回找到的总数；总数超过 out.length 时只写入前 out.length 个，调用方可以换更大的数组重查。
+     */
+    public int query(float minX, float minZ, float maxX, float maxZ, int[] out) {
+        int cx0 = cell(minX), cx1 = cell(maxX);
+        int cz0 = cell(minZ), cz1 = cell(maxZ);
+        int found = 0;
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cz = cz0; cz <= cz1; cz++) {
+                int slot = find(key(cx, cz));
+                if (slot < 0) continue;
+                int start = starts[slot];
+                int end = start + counts[slot];
+                for (int s = start; s < end; s++) {
+                    if (found < out.length) out[found] = sorted[s];
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 最近一次重建中非空格子的数量
+     */
+    public int getCellCount() {
+        return usedCount;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    private int cell(float coord) {
+        return (int) Math.floor(coord * invCellSize);
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    private int find(long key) {
+        for (int i = slot(key); stamps[i] == epoch; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(long key) {
+        int i = slot(key);
+        while (stamps[i] == epoch) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        stamps[i] = epoch;
+        keys[i] = key;
+        counts[i] = 0;
+        usedSlots[usedCount++] = i;
+        return i;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        stamps = new int[capacity];
+        counts = new int[capacity];
+        starts = new int[capacity];
+        usedSlots = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        // 新表的 stamp 全是 0，epoch 从 1 往上加，不会把任何槽误认为有效
+        epoch = 1;
+    }
+}
@@ -0,0 +1,130 @@
+package gfx;
+
+import java.util.Arrays;
+
+/**
+ * 层次深度缓冲 (Hi-Z)：ZBuffer 的最大深度金字塔，用来快速判断一块屏幕矩形是否被已经画好的东西完全挡住。
+ * <p>
+ * 第 0 层每个纹素是 ZBuffer 里 BLOCK x BLOCK 个像素的最大深度，之后每层取下一层 2x2 的最大值，直到 1x1。
+ * 纹素的值是它覆盖的所有像素里最远的深度 (没画过的像素是 Float.MAX_VALUE，永远挡不住东西)，
+ * 所以一个物体的最近深度比矩形覆盖的每个纹素都远时，它在这些像素上一定通不过深度测试。
+ * 测试时选一层让矩形只覆盖几个纹素，再逐个比较，测试本身的开销和矩形大小无关。
+ * <p>
+ * 只在一个线程上使用 (渲染线程，在两次光栅化之间 build)。
+ */
+public class HiZBuffer {
+    private static final int BLOCK_BITS = 2; // 第 0 层的展开写法假定 BLOCK 为 4
+    private static final int BLOCK = 1 << BLOCK_BITS;
+    // 选层时矩形在每个方向上最多覆盖的纹素数
+    private static final int MAX_SPAN = 4;
+
+    private final int width, height;
+    private final float[][] levels;
+    private final int[] levelWidth, levelHeight;
+
+    public HiZBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int count = 1;
+        for (int w = (width + BLOCK - 1) >> BLOCK_BITS, h = (height + BLOCK - 1) >> BLOCK_BITS; w > 1 || h > 1; count++) {
+            w = (w + 1) >> 1;
+            h = (h + 1) >> 1;
+        }
+        levels = new float[count][];
+        levelWidth = new int[count];
+        levelHeight = new int[count];
+        int w = (width + BLOCK - 1) >> BLOCK_BITS, h = (height + BLOCK - 1) >> BLOCK_BITS;
+        for (int l = 0; l < count; l++) {
+            levels[l] = new float[w * h];
+            levelWidth[l] = w;
+            levelHeight[l] = h;
+            w = (w + 1) >> 1;
+            h = (h + 1) >> 1;
+        }
+    }
+
+    /**
+     * 从 ZBuffer (尺寸必须相同) 重新建立整个金字塔
+     */
+    public void build(ZBuffer zBuffer) {
+        float[] depth = zBuffer.getData();
+        float[] base = levels[0];
+        int w0 = levelWidth[0];
+        // 第 0 层：每行纹素由 BLOCK 行像素逐行并入，每次读连续的 BLOCK 个像素
+        int fullWidth = width & ~(BLOCK - 1);
+        for (int ty = 0, out = 0; ty < levelHeight[0]; ty++, out += w0) {
+            Arrays.fill(base, out, out + w0, -Float.MAX_VALUE);
+            for (int y = ty << BLOCK_BITS, yEnd = Math.min(y + BLOCK, height); y < yEnd; y++) {
+                int i = y * width;
+                int texel = out;
+                for (int end = i + fullWidth; i < end; i += BLOCK, texel++) {
+                    float max = base[texel];
+                    float a = depth[i], b = depth[i + 1], c = depth[i + 2], d = depth[i + 3];
+                    if (a > max) max = a;
+                    if (b > max) max = b;
+                    if (c > max) max = c;
+                    if (d > max) max = d;
+                    base[texel] = max;
+                }
+                // 宽度不是 BLOCK 的倍数时最后一个纹素不满
+                for (int end = y * width + width; i < end; i++) {
+                    if (depth[i] > base[texel]) base[texel] = depth[i];
+                }
+            }
+        }
+
+        // 之后每层取上一层 2x2 的最大值，边缘只有 1 个的方向重复取同一个
+        for (int l = 1; l < levels.length; l++) {
+            float[] src = levels[l - 1], dst = levels[l];
+            int sw = levelWidth[l - 1], sh = levelHeight[l - 1];
+            int dw = levelWidth[l], dh = levelHeight[l];
+            for (int y = 0; y < dh; y++) {
+                int y0 = (y << 1) * sw;
+                int y1 = Math.min((y << 1) + 1, sh - 1) * sw;
+                for (int x = 0; x < dw; x++) {
+                    int x0 = x << 1;
+                    int x1 = Math.min(x0 + 1, sw - 1);
+                    float max = src[y0 + x0];
+                    if (src[y0 + x1] > max) max = src[y0 + x1];
+                    if (src[y1 + x0] > max) max = src[y1 + x0];
+                    if (src[y1 + x1] > max) max = src[y1 + x1];
+                    dst[y * dw + x] = max;
+                }
+            }
+        }
+    }
+
+    /**
+     * 像素矩形 [x0, x1] x [y0, y1] (含边界，可以超出屏幕) 里的每个像素是否都已经比 minZ 更近。
+     * 矩形完全在屏幕外时返回 true (画不出任何像素)
+     */
+    public boolean isOccluded(int x0, int y0, int x1, int y1, float minZ) {
+        if (x0 < 0) x0 = 0;
+        if (y0 < 0) y0 = 0;
+        if (x1 >= width) x1 = width - 1;
+        if (y1 >= height) y1 = height - 1;
+        if (x0 > x1 || y0 > y1) return true;
+
+        int l = 0;
+        x0 >>= BLOCK_BITS;
+        y0 >>= BLOCK_BITS;
+        x1 >>= BLOCK_BITS;
+        y1 >>= BLOCK_BITS;
+        while ((x1 - x0 >= MAX_SPAN || y1 - y0 >= MAX_SPAN) && l + 1 < levels.length) {
+            l++;
+            x0 >>= 1;
+            y0 >>= 1;
+            x1 >>= 1;
+            y1 >>= 1;
+        }
+
+        float[] level = levels[l];
+        int w = levelWidth[l];
+        for (int y = y0; y <= y1; y++) {
+            for (int i = y * w + x0, end = y * w + x1; i <= end; i++) {
+                if (level[i] >= minZ) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -17,6 +17,22 @@ public class ZBuffer {
         Arrays.fill(buffer, Float.MAX_VALUE);
     }
 
+    /**
+     * 只清理矩形区域 [x0, x1] x [y0, y1] (含边界)，供分 Tile 并行渲染时各自清理自己的区域
+     */
+    public void clear(int x0, int y0, int x1, int y1) {
+        for (int y = y0; y <= y1; y++) {
+            Arrays.fill(buffer, x0 + y * width, x1 + 1 + y * width, Float.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 直接访问底层数组 (下标 x + y * width)，供光栅化内循环使用
+     */
+    public float[] getData() {
+        return buffer;
+    }
+
     /**
      * 深度测试与写入
      *
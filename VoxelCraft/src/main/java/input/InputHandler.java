@@ -1,5 +1,6 @@
 package input;
 
+import perf.PerfOverlay;
 import render.Camera;
 import world.World;
 
@@ -10,17 +11,20 @@ import java.awt.image.BufferedImage;
 public class InputHandler implements KeyListener, MouseListener, MouseMotionListener {
     private Camera camera;
     private World world;
+    private PerfOverlay overlay; // F3 切换，性能统计关闭时为 null
 
-    // 按键状态
-    private boolean w, a, s, d;
-    private boolean space, shift;
+    // 按键状态：EDT 写入，模拟线程在 update 中读取
+    private volatile boolean w, a, s, d;
+    private volatile boolean space, shift;
+    // 两次 update 之间累积的鼠标转动，由 update 在模拟线程上一次性应用到相机
+    private float pendingPitch, pendingYaw;
 
     // --- 修改点 1: 大幅降低灵敏度 ---
     // Y轴(Pitch)更低，符合人眼对垂直运动更敏感的习惯
     private float mouseSensitivityX = 0.0010f; // 降低了一半
     private float mouseSensitivityY = 0.0005f; // 降低了原来的3/4
 
-    private float moveSpeed = 0.15f;
+    private float moveSpeed = 0.15f; // 每 tick 移动的方块数
 
     private boolean isMouseLocked = false;
     private Component context;
@@ -37,6 +41,10 @@ public class InputHandler implements KeyListener, MouseListener, MouseMotionList
         }
     }
 
+    public void setOverlay(PerfOverlay overlay) {
+        this.overlay = overlay;
+    }
+
     public void initMouseLock(Component component) {
         this.context = component;
         if (component.isShowing()) {
@@ -70,7 +78,18 @@ public class InputHandler implements KeyListener, MouseListener, MouseMotionList
         robot.mouseMove(centerX, centerY);
     }
 
+    /**
+     * 每个模拟 tick 调用一次 (模拟线程)：先应用累积的鼠标转动，再按按键状态移动相机
+     */
     public void update() {
+        float turnPitch, turnYaw;
+        synchronized (this) {
+            turnPitch = pendingPitch;
+            turnYaw = pendingYaw;
+            pendingPitch = pendingYaw = 0f;
+        }
+        if (turnPitch != 0 || turnYaw != 0) camera.rotate(turnPitch, turnYaw, 0);
+
         float dx = 0;
         float dz = 0;
         float dy = 0;
@@ -154,7 +173,11 @@ public class InputHandler implements KeyListener, MouseListener, MouseMotionList
             // 如果你感觉上下也反了（比如想要“飞机拉杆”反转视角），可以在 deltaY 前面加负号
             float rotX = -deltaY * mouseSensitivityY;
 
-            camera.rotate(rotX, rotY, 0);
+            // 相机只在模拟线程上修改，这里先累积起来
+            synchronized (this) {
+                pendingPitch += rotX;
+                pendingYaw += rotY;
+            }
 
             centerMouse();
         }
@@ -175,6 +198,9 @@ public class InputHandler implements KeyListener, MouseListener, MouseMotionList
             case KeyEvent.VK_SPACE -> space = true;
             case KeyEvent.VK_SHIFT -> shift = true;
             case KeyEvent.VK_ESCAPE -> setMouseLocked(false);
+            case KeyEvent.VK_F3 -> {
+                if (overlay != null) overlay.toggle();
+            }
         }
     }
 
@@ -1,10 +1,74 @@
 package main;
 
+import core.Config;
 import core.GameEngine;
+import core.HeadlessRunner;
+import perf.PerfMetrics;
+import render.CameraPath;
+import render.FrameExporter;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
 
 public class Main {
-    public static void main(String[] args) {
-        GameEngine engine = new GameEngine();
-        engine.run();
+    /**
+     * 不带参数时打开窗口正常游戏。无显示设备或带 --headless 时无窗口渲染，可选参数：
+     * --path 文件     相机路径 (格式见 CameraPath)，默认绕出生点飞一圈
+     * --frames 帧数   默认为整条路径的时长 x fps
+     * --fps 帧率      路径时间每帧推进 1 / fps 秒，默认 30
+     * --out 目录      把每一帧写到该目录，不指定则只渲染不输出
+     * --format png|raw
+     * 两种模式都可以用 --perf-csv 文件 把每帧的分阶段耗时和计数导出成 CSV
+     */
+    public static void main(String[] args) throws IOException {
+        boolean headless = GraphicsEnvironment.isHeadless();
+        Path pathFile = null, outDir = null, perfCsv = null;
+        int frames = -1;
+        float fps = 30f;
+        FrameExporter.Format format = FrameExporter.Format.PNG;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless" -> headless = true;
+                case "--path" -> pathFile = Path.of(value(args, ++i));
+                case "--frames" -> frames = Integer.parseInt(value(args, ++i));
+                case "--fps" -> fps = Float.parseFloat(value(args, ++i));
+                case "--out" -> outDir = Path.of(value(args, ++i));
+                case "--format" -> format = FrameExporter.Format.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                case "--perf-csv" -> perfCsv = Path.of(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (!headless) {
+            GameEngine engine = new GameEngine();
+            if (perfCsv != null) {
+                if (engine.getMetrics() != null) engine.getMetrics().startCsv(perfCsv);
+                else System.err.println("Config.PERF_METRICS is off, --perf-csv ignored");
+            }
+            engine.run();
+            return;
+        }
+
+        CameraPath path = pathFile != null ? CameraPath.load(pathFile) : CameraPath.orbit(64f, 64f, 40f, 28f, 10f);
+        if (frames < 0) frames = (int) (path.getDuration() * fps) + 1;
+        FrameExporter exporter = outDir != null ? new FrameExporter(outDir, format) : null;
+        HeadlessRunner runner = new HeadlessRunner(Config.SCREEN_WIDTH, Config.SCREEN_HEIGHT, path, fps);
+        PerfMetrics metrics = null;
+        if (perfCsv != null) {
+            metrics = new PerfMetrics();
+            metrics.startCsv(perfCsv);
+            runner.setMetrics(metrics);
+        }
+        runner.run(frames, exporter);
+        if (metrics != null) metrics.closeCsv();
+        // 渲染和 Chunk 加载的后台线程都是守护线程，这里直接退出即可
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
     }
 }
@@ -0,0 +1,210 @@
+package perf;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 每帧的分阶段耗时和计数。
+ * <p>
+ * 每个阶段一个环形缓冲，保留最近 WINDOW 个样本，取百分位数时拷贝一份排序 (只在显示 / 导出时做)。
+ * 每个阶段只由一个线程写入 (渲染线程：清屏、变换、光栅化、整帧；显示线程：显示；模拟线程：tick、重建)，
+ * 写入就是一次数组赋值，不加锁；读取端是统计用途，容忍和写入端轻微的不一致。
+ * <p>
+ * 关闭统计时不创建本对象，各处的埋点只剩一次 null 判断 (见 Config.PERF_METRICS)。
+ */
+public class PerfMetrics implements PerfMetricsMXBean {
+    // 阶段
+    public static final int CLEAR = 0;      // 清空颜色 / 深度缓冲 (Tile 模式下为各线程清屏时间之和)
+    public static final int TRANSFORM = 1;  // 视锥 / 遮挡剔除 (含建立 Hi-Z)、顶点变换、裁剪、提交三角形
+    public static final int RASTERIZE = 2;  // 光栅化 (Tile 模式下包含各 Tile 的清屏)
+    public static final int PRESENT = 3;    // 把帧缓冲画到屏幕上
+    public static final int TICK = 4;       // 一个模拟 tick
+    public static final int REMESH = 5;     // 每个 tick 内后台线程构建网格花费的时间
+    public static final int FRAME = 6;      // 渲染线程相邻两帧的间隔
+    public static final int PHASES = 7;
+    private static final String[] PHASE_NAMES = {"clear", "transform", "rasterize", "present", "tick", "remesh", "frame"};
+
+    // 最近一帧的计数
+    public static final int FACES_SUBMITTED = 0; // 通过视锥剔除、送去变换的面
+    public static final int FACES_CULLED = 1;    // 被视锥剔除 (Chunk / Section 级) 的面
+    public static final int TRIANGLES_DRAWN = 2; // 裁剪和背面剔除后实际光栅化的三角形
+    public static final int PIXELS_SHADED = 3;   // 通过深度测试、写入颜色的像素
+    public static final int FACES_OCCLUDED = 4;  // 被 Hi-Z 遮挡剔除 (Chunk / Section 级) 的面
+    public static final int COUNTERS = 5;
+    private static final String[] COUNTER_NAMES = {"faces_submitted", "faces_culled", "triangles_drawn", "pixels_shaded",
+            "faces_occluded"};
+
+    private static final int WINDOW = 512; // 2 的幂
+
+    private final long[][] samples = new long[PHASES][WINDOW];
+    private final long[] sampleCount = new long[PHASES];
+    private final long[] counters = new long[COUNTERS];
+    private final long[] scratch = new long[WINDOW];
+
+    private BufferedWriter csv;
+
+    public void record(int phase, long nanos) {
+        long n = sampleCount[phase];
+        samples[phase][(int) (n & (WINDOW - 1))] = nanos;
+        sampleCount[phase] = n + 1;
+    }
+
+    public void count(int counter, long value) {
+        counters[counter] = value;
+    }
+
+    public long getCounter(int counter) {
+        return counters[counter];
+    }
+
+    /**
+     * 最近一个样本 (纳秒)，还没有样本时返回 0
+     */
+    public long last(int phase) {
+        long n = sampleCount[phase];
+        return n == 0 ? 0 : samples[phase][(int) ((n - 1) & (WINDOW - 1))];
+    }
+
+    /**
+     * 最近 WINDOW 个样本的第 p (0~1) 百分位数 (纳秒)，还没有样本时返回 0
+     */
+    public synchronized long percentile(int phase, double p) {
+        int n = (int) Math.min(sampleCount[phase], WINDOW);
+        if (n == 0) return 0;
+        System.arraycopy(samples[phase], 0, scratch, 0, n);
+        Arrays.sort(scratch, 0, n);
+        return scratch[Math.min(n - 1, (int) (p * n))];
+    }
+
+    public static String phaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    public static String counterName(int counter) {
+        return COUNTER_NAMES[counter];
+    }
+
+    // --- 导出 ---
+
+    /**
+     * 注册为平台 MBean (voxelcraft:type=PerfMetrics)，可以用 JConsole / VisualVM 查看。已注册过时忽略
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("voxelcraft:type=PerfMetrics"));
+        } catch (InstanceAlreadyExistsException e) {
+            // 同一进程里已经有一份 (比如 benchmark 里创建了多次)，沿用先注册的
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register PerfMetrics MBean", e);
+        }
+    }
+
+    /**
+     * 开始把每帧的数据追加到 CSV 文件 (每行一帧：各阶段最近一次的微秒数 + 各计数)
+     */
+    public void startCsv(Path file) throws IOException {
+        csv = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder();
+        for (int p = 0; p < PHASES; p++) header.append(PHASE_NAMES[p]).append("_us,");
+        for (int c = 0; c < COUNTERS; c++) header.append(COUNTER_NAMES[c]).append(c + 1 < COUNTERS ? "," : "");
+        csv.write(header.toString());
+        csv.newLine();
+    }
+
+    /**
+     * 一帧结束 (渲染线程调用)：开启了 CSV 时写一行
+     */
+    public void endFrame() {
+        if (csv == null) return;
+        try {
+            for (int p = 0; p < PHASES; p++) {
+                csv.write(Long.toString(last(p) / 1000));
+                csv.write(',');
+            }
+            for (int c = 0; c < COUNTERS; c++) {
+                csv.write(Long.toString(counters[c]));
+                if (c + 1 < COUNTERS) csv.write(',');
+            }
+            csv.newLine();
+        } catch (IOException e) {
+            // 导出失败不影响游戏，停止导出
+            System.err.println("Perf CSV export stopped: " + e);
+            closeCsv();
+        }
+    }
+
+    public void closeCsv() {
+        if (csv == null) return;
+        try {
+            csv.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close perf CSV: " + e);
+        }
+        csv = null;
+    }
+
+    // --- PerfMetricsMXBean ---
+
+    @Override
+    public double getFrameTimeP50Millis() {
+        return percentile(FRAME, 0.5) / 1e6;
+    }
+
+    @Override
+    public double getFrameTimeP99Millis() {
+        return percentile(FRAME, 0.99) / 1e6;
+    }
+
+    @Override
+    public double getTickTimeP99Millis() {
+        return percentile(TICK, 0.99) / 1e6;
+    }
+
+    @Override
+    public double getRasterizeP50Millis() {
+        return percentile(RASTERIZE, 0.5) / 1e6;
+    }
+
+    @Override
+    public double getTransformP50Millis() {
+        return percentile(TRANSFORM, 0.5) / 1e6;
+    }
+
+    @Override
+    public double getPresentP50Millis() {
+        return percentile(PRESENT, 0.5) / 1e6;
+    }
+
+    @Override
+    public long getFacesSubmitted() {
+        return counters[FACES_SUBMITTED];
+    }
+
+    @Override
+    public long getFacesCulled() {
+        return counters[FACES_CULLED];
+    }
+
+    @Override
+    public long getFacesOccluded() {
+        return counters[FACES_OCCLUDED];
+    }
+
+    @Override
+    public long getTrianglesDrawn() {
+        return counters[TRIANGLES_DRAWN];
+    }
+
+    @Override
+    public long getPixelsShaded() {
+        return counters[PIXELS_SHADED];
+    }
+}
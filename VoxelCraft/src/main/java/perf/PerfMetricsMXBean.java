@@ -0,0 +1,28 @@
+package perf;
+
+/**
+ * 通过 JMX 暴露的性能数据 (百分位数基于最近 512 个样本)
+ */
+public interface PerfMetricsMXBean {
+    double getFrameTimeP50Millis();
+
+    double getFrameTimeP99Millis();
+
+    double getTickTimeP99Millis();
+
+    double getRasterizeP50Millis();
+
+    double getTransformP50Millis();
+
+    double getPresentP50Millis();
+
+    long getFacesSubmitted();
+
+    long getFacesCulled();
+
+    long getFacesOccluded();
+
+    long getTrianglesDrawn();
+
+    long getPixelsShaded();
+}
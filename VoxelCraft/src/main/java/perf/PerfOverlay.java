@@ -0,0 +1,54 @@
+package perf;
+
+import java.awt.*;
+
+/**
+ * 画在画面左上角的性能面板：整帧 p50 / p99、各阶段的中位数、面 / 像素计数。F3 切换显示 (见 InputHandler)。
+ * 在显示线程上画到 BufferStrategy 的后台缓冲，不进入渲染器的帧缓冲，截图 / 导出的帧里不会有它。
+ */
+public class PerfOverlay {
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int LINE_HEIGHT = 14;
+
+    private final PerfMetrics metrics;
+    private volatile boolean visible;
+
+    public PerfOverlay(PerfMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void toggle() {
+        visible = !visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void draw(Graphics g) {
+        if (!visible) return;
+        PerfMetrics m = metrics;
+        String[] lines = new String[PerfMetrics.PHASES + PerfMetrics.COUNTERS + 1];
+        int n = 0;
+        lines[n++] = String.format("frame  p50 %6.2f ms  p99 %6.2f ms  (%.0f FPS)",
+                m.percentile(PerfMetrics.FRAME, 0.5) / 1e6, m.percentile(PerfMetrics.FRAME, 0.99) / 1e6,
+                1e9 / Math.max(1, m.percentile(PerfMetrics.FRAME, 0.5)));
+        for (int p = 0; p < PerfMetrics.PHASES; p++) {
+            if (p == PerfMetrics.FRAME) continue;
+            lines[n++] = String.format("%-10s p50 %6.2f ms  p99 %6.2f ms", PerfMetrics.phaseName(p),
+                    m.percentile(p, 0.5) / 1e6, m.percentile(p, 0.99) / 1e6);
+        }
+        for (int c = 0; c < PerfMetrics.COUNTERS; c++) {
+            lines[n++] = String.format("%-16s %,d", PerfMetrics.counterName(c), m.getCounter(c));
+        }
+
+        g.setFont(FONT);
+        g.setColor(BACKGROUND);
+        g.fillRect(4, 4, 330, n * LINE_HEIGHT + 8);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < n; i++) {
+            g.drawString(lines[i], 10, 4 + (i + 1) * LINE_HEIGHT);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package physics;
+
+/**
+ * 轴对齐包围盒，可变，供碰撞计算反复复用
+ */
+public class AABB {
+    public float minX, minY, minZ;
+    public float maxX, maxY, maxZ;
+
+    public AABB set(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        return this;
+    }
+
+    public AABB set(AABB other) {
+        return set(other.minX, other.minY, other.minZ, other.maxX, other.maxY, other.maxZ);
+    }
+
+    public AABB offset(float dx, float dy, float dz) {
+        minX += dx;
+        minY += dy;
+        minZ += dz;
+        maxX += dx;
+        maxY += dy;
+        maxZ += dz;
+        return this;
+    }
+
+    // 按轴下标取值：0 = X, 1 = Y, 2 = Z
+    public float min(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    public float max(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    public AABB offset(int axis, float d) {
+        if (axis == 0) return offset(d, 0, 0);
+        if (axis == 1) return offset(0, d, 0);
+        return offset(0, 0, d);
+    }
+}
@@ -0,0 +1,158 @@
+package physics;
+
+import world.BlockAccess;
+
+/**
+ * 一个受方块碰撞约束的物体 (玩家、怪物、掉落物……)：脚底中心的位置 + 宽高组成的 AABB。
+ * <p>
+ * move 按 Y、X、Z 的顺序逐轴扫掠，撞上方块就贴着表面停下、其余轴继续滑动；
+ * 站在地面上水平方向被挡住时，尝试抬高 stepHeight 越过台阶。tick 在此基础上加入速度和重力。
+ * 整个过程不分配对象。
+ */
+public class PhysicsBody {
+    private float halfWidth, height;
+    private float x, y, z; // 脚底中心
+
+    private float velocityX, velocityY, velocityZ; // 方块 / 秒
+    private float gravity;    // 方块 / 秒²，0 表示不受重力 (飞行)
+    private float stepHeight; // 能直接走上去的台阶高度，0 表示不自动上台阶
+
+    private boolean onGround;
+    // 最近一次 move 中各轴是否被方块挡住
+    private boolean blockedX, blockedY, blockedZ;
+
+    private final AABB box = new AABB();
+    private final AABB start = new AABB();
+    private final AABB stepped = new AABB();
+
+    public PhysicsBody(float width, float height) {
+        this.halfWidth = width / 2f;
+        this.height = height;
+    }
+
+    /**
+     * 按当前速度前进 dt 秒，先施加重力；落地或顶到天花板时竖直速度清零，撞墙时对应的水平速度清零
+     */
+    public void tick(BlockAccess world, float dt) {
+        velocityY -= gravity * dt;
+        move(world, velocityX * dt, velocityY * dt, velocityZ * dt);
+        if (blockedX) velocityX = 0f;
+        if (blockedY) velocityY = 0f;
+        if (blockedZ) velocityZ = 0f;
+    }
+
+    /**
+     * 直接位移 (dx, dy, dz)，遇到方块时贴着表面停下，其余方向继续滑动
+     */
+    public void move(BlockAccess world, float dx, float dy, float dz) {
+        box.set(x - halfWidth, y, z - halfWidth, x + halfWidth, y + height, z + halfWidth);
+        start.set(box);
+        boolean wasOnGround = onGround;
+
+        float my = VoxelCollider.sweep(world, box, 1, dy);
+        box.offset(0, my, 0);
+        float mx = VoxelCollider.sweep(world, box, 0, dx);
+        box.offset(mx, 0, 0);
+        float mz = VoxelCollider.sweep(world, box, 2, dz);
+        box.offset(0, 0, mz);
+
+        blockedX = mx != dx;
+        blockedY = my != dy;
+        blockedZ = mz != dz;
+        boolean landed = dy < 0 && blockedY;
+
+        // 台阶：从起点抬高、水平移动、再落下，走得更远就采用这个结果
+        if ((blockedX || blockedZ) && stepHeight > 0f && (wasOnGround || landed)) {
+            stepped.set(start);
+            float up = VoxelCollider.sweep(world, stepped, 1, stepHeight);
+            stepped.offset(0, up, 0);
+            float sx = VoxelCollider.sweep(world, stepped, 0, dx);
+            stepped.offset(sx, 0, 0);
+            float sz = VoxelCollider.sweep(world, stepped, 2, dz);
+            stepped.offset(0, 0, sz);
+            stepped.offset(0, VoxelCollider.sweep(world, stepped, 1, -up), 0);
+            if (sx * sx + sz * sz > mx * mx + mz * mz) {
+                box.set(stepped);
+                blockedX = sx != dx;
+                blockedZ = sz != dz;
+            }
+        }
+
+        x = (box.minX + box.maxX) * 0.5f;
+        y = box.minY;
+        z = (box.minZ + box.maxZ) * 0.5f;
+        // 脚下紧贴着实心方块即为着地 (只检查脚底那一层)
+        onGround = VoxelCollider.sweep(world, box, 1, -0.01f) == 0f;
+    }
+
+    /**
+     * 改变碰撞箱尺寸。同一个 PhysicsBody 可以作为求解器，依次装入多个实体的状态 (见 entity.EntitySystem)
+     */
+    public void setSize(float width, float height) {
+        this.halfWidth = width / 2f;
+        this.height = height;
+    }
+
+    public void setPosition(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    public void setVelocity(float vx, float vy, float vz) {
+        this.velocityX = vx;
+        this.velocityY = vy;
+        this.velocityZ = vz;
+    }
+
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    public float getVelocityY() {
+        return velocityY;
+    }
+
+    public float getVelocityZ() {
+        return velocityZ;
+    }
+
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+
+    public void setStepHeight(float stepHeight) {
+        this.stepHeight = stepHeight;
+    }
+
+    public boolean isOnGround() {
+        return onGround;
+    }
+
+    public void setOnGround(boolean onGround) {
+        this.onGround = onGround;
+    }
+
+    public boolean isCollidedHorizontally() {
+        return blockedX || blockedZ;
+    }
+
+    /**
+     * 当前的碰撞箱 (最近一次 move 之后的位置)
+     */
+    public AABB getBox() {
+        return box;
+    }
+}
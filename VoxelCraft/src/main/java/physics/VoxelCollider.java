@@ -0,0 +1,68 @@
+package physics;
+
+import world.BlockAccess;
+
+/**
+ * AABB 与方块网格的扫掠碰撞。
+ * <p>
+ * 沿一个轴移动距离 d 时，只检查盒子前端面扫过的那几层方块，并且只取盒子在另外两个轴上覆盖到的格子；
+ * 由近到远逐层检查，第一层有实心方块就返回恰好贴上该方块表面的距离。移动再快也不会穿过方块。
+ * 坐标约定与渲染一致：方块 (x, y, z) 占据 [x - 0.5, x + 0.5]。
+ * <p>
+ * 起始时已经和盒子重叠的方块不在前方，不会挡住移动，卡进方块里的物体总能自己出来。
+ */
+public final class VoxelCollider {
+    // 贴着表面时的容差：浮点误差让盒子停在 x.4999999 或 x.5000001 都应当视为刚好接触
+    private static final float EPSILON = 1e-4f;
+
+    private VoxelCollider() {
+    }
+
+    /**
+     * 盒子沿 axis 轴 (0 = X, 1 = Y, 2 = Z) 移动 d，返回实际能移动的距离 (与 d 同号，绝对值不超过 d)。不修改 box
+     */
+    public static float sweep(BlockAccess world, AABB box, int axis, float d) {
+        if (d == 0f) return 0f;
+        int u = axis == 0 ? 1 : axis == 1 ? 2 : 0;
+        int v = axis == 0 ? 2 : axis == 1 ? 0 : 1;
+        // 盒子在另外两个轴上覆盖的方块范围 (仅接触不算覆盖)
+        int u0 = (int) Math.floor(box.min(u) + 0.5f + EPSILON);
+        int u1 = (int) Math.ceil(box.max(u) + 0.5f - EPSILON) - 1;
+        int v0 = (int) Math.floor(box.min(v) + 0.5f + EPSILON);
+        int v1 = (int) Math.ceil(box.max(v) + 0.5f - EPSILON) - 1;
+
+        if (d > 0) {
+            float face = box.max(axis);
+            // 近面在前端面之前 (或正好贴着) 的第一层，到移动终点所能碰到的最后一层
+            int first = (int) Math.ceil(face + 0.5f - EPSILON);
+            int last = (int) Math.ceil(face + d + 0.5f) - 1;
+            for (int i = first; i <= last; i++) {
+                if (layerSolid(world, axis, i, u0, u1, v0, v1)) return Math.max(0f, Math.min(d, i - 0.5f - face));
+            }
+        } else {
+            float face = box.min(axis);
+            int first = (int) Math.floor(face - 0.5f + EPSILON);
+            int last = (int) Math.floor(face + d - 0.5f) + 1;
+            for (int i = first; i >= last; i--) {
+                if (layerSolid(world, axis, i, u0, u1, v0, v1)) return Math.min(0f, Math.max(d, i + 0.5f - face));
+            }
+        }
+        return d;
+    }
+
+    /**
+     * 垂直于 axis、坐标为 i 的一层方块中，[u0, u1] x [v0, v1] 范围内是否有实心方块
+     */
+    private static boolean layerSolid(BlockAccess world, int axis, int i, int u0, int u1, int v0, int v1) {
+        for (int a = u0; a <= u1; a++) {
+            for (int b = v0; b <= v1; b++) {
+                boolean solid;
+                if (axis == 0) solid = world.isSolid(i, a, b);
+                else if (axis == 1) solid = world.isSolid(b, i, a);
+                else solid = world.isSolid(a, b, i);
+                if (solid) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package render;
 
+import physics.PhysicsBody;
 import render.math.Matrix4f;
 import render.math.Vector3f;
 import world.World;
@@ -8,22 +9,38 @@ public class Camera {
     // 玩家的碰撞箱尺寸
     private final float PLAYER_WIDTH = 0.4f; // 半径
     private final float PLAYER_HEIGHT = 1.8f;
+    private static final float EYE_HEIGHT = 1.6f; // 眼睛离脚底的高度
+    private static final float STEP_HEIGHT = 1.0f; // 贴地移动时能直接跨上的台阶高度 (只有整格方块，取 1 格)
     private Vector3f position;
     private Vector3f rotation;
+    // getViewMatrix(dest) 用的临时矩阵，避免每帧分配
+    private final Matrix4f rotXTemp = new Matrix4f();
+    private final Matrix4f rotYTemp = new Matrix4f();
+    private final Matrix4f translationTemp = new Matrix4f();
+
+    // 玩家的碰撞体
+    private final PhysicsBody body = new PhysicsBody(PLAYER_WIDTH * 2, PLAYER_HEIGHT);
 
     public Camera() {
         this.position = new Vector3f(16.0f, 40.0f, 16.0f); // 默认高处
         this.rotation = new Vector3f(0.0f, 0.0f, 0.0f);
+        body.setStepHeight(STEP_HEIGHT);
     }
 
     // ... getViewMatrix, getPosition, Setter 等保持不变 ...
 
     public Matrix4f getViewMatrix() {
-        // ... (保持之前的实现)
-        Matrix4f negativeTranslation = Matrix4f.translation(-position.x, -position.y, -position.z);
-        Matrix4f negativeRotX = Matrix4f.rotationX(-rotation.x);
-        Matrix4f negativeRotY = Matrix4f.rotationY(-rotation.y);
-        return negativeRotX.mul(negativeRotY).mul(negativeTranslation);
+        return getViewMatrix(new Matrix4f());
+    }
+
+    /**
+     * 把视图矩阵写入 dest 并返回，不分配新对象 (渲染循环每帧调用)
+     */
+    public Matrix4f getViewMatrix(Matrix4f dest) {
+        translationTemp.setTranslation(-position.x, -position.y, -position.z);
+        rotXTemp.setRotationX(-rotation.x);
+        rotYTemp.setRotationY(-rotation.y);
+        return dest.mul(rotXTemp, rotYTemp).mul(dest, translationTemp);
     }
 
     /**
@@ -42,69 +59,41 @@ public class Camera {
     }
 
     /**
-     * 解决问题 1：带碰撞检测的移动
-     * 采用“分离轴”逻辑：先尝试X移动，如果不撞则应用；再尝试Z...
+     * 带碰撞检测的移动：玩家碰撞箱沿各轴扫掠，撞上方块时贴着表面停下，其余方向继续滑动 (飞行模式，不受重力)
      */
     public void moveWithCollision(float dx, float dy, float dz, World world) {
-        // 1. 尝试 X 轴移动
-        if (dx != 0) {
-            float nextX = position.x + dx;
-            if (!checkCollision(world, nextX, position.y, position.z)) {
-                position.x = nextX;
-            }
-        }
-
-        // 2. 尝试 Z 轴移动
-        if (dz != 0) {
-            float nextZ = position.z + dz;
-            if (!checkCollision(world, position.x, position.y, nextZ)) {
-                position.z = nextZ;
-            }
-        }
-
-        // 3. 尝试 Y 轴移动 (飞行模式)
-        if (dy != 0) {
-            float nextY = position.y + dy;
-            if (!checkCollision(world, position.x, nextY, position.z)) {
-                position.y = nextY;
-            }
-        }
+        // position 是眼睛位置，碰撞箱从脚底算起
+        body.setPosition(position.x, position.y - EYE_HEIGHT, position.z);
+        body.move(world, dx, dy, dz);
+        position.x = body.getX();
+        position.y = body.getY() + EYE_HEIGHT;
+        position.z = body.getZ();
     }
 
     /**
-     * 检测以 (x,y,z) 为中心的玩家包围盒是否碰到 World 中的方块
+     * 复制另一个相机的位置和朝向 (模拟线程发布状态快照用)
      */
-    private boolean checkCollision(World world, float x, float y, float z) {
-        // 简化的 AABB 检测：检查玩家包围盒的 4个角 + 头部中心 + 脚部中心
-        // 实际上只要检查: (x±r, y, z±r) 和 (x±r, y-h, z±r)
-
-        float r = PLAYER_WIDTH;
-
-        // 检查身体四周（比如脚踝高度）
-        // 偏移量 -1.5f 大概是眼睛高度减去身体高度，或者我们简化，认为Camera是头顶，往下检查
-        // 假设 Position 是眼睛位置。脚底是 y - 1.6
-        float footY = y - 1.6f;
-        float headY = y - 0.1f;
-
-        // 我们需要检查脚底和头顶所在的层
-        // 这里的逻辑：如果在 target 位置的【任何一个角】碰到了 solid block，就返回 true
-
-        if (isBlocked(world, x - r, footY, z - r)) return true;
-        if (isBlocked(world, x + r, footY, z - r)) return true;
-        if (isBlocked(world, x - r, footY, z + r)) return true;
-        if (isBlocked(world, x + r, footY, z + r)) return true;
-
-        // 也要检查头部高度（防止穿墙）
-        if (isBlocked(world, x - r, headY, z - r)) return true;
-        if (isBlocked(world, x + r, headY, z - r)) return true;
-        if (isBlocked(world, x - r, headY, z + r)) return true;
-        if (isBlocked(world, x + r, headY, z + r)) return true;
-
-        return false;
+    public void set(Camera other) {
+        position.x = other.position.x;
+        position.y = other.position.y;
+        position.z = other.position.z;
+        rotation.x = other.rotation.x;
+        rotation.y = other.rotation.y;
+        rotation.z = other.rotation.z;
     }
 
-    private boolean isBlocked(World world, float x, float y, float z) {
-        return world.isSolid(x, y, z);
+    /**
+     * 取 previous 和 current 两个 tick 之间 alpha (0~1) 处的位置和朝向，渲染线程每帧调用，不分配对象
+     */
+    public void interpolate(Camera previous, Camera current, float alpha) {
+        Vector3f p0 = previous.position, p1 = current.position;
+        Vector3f r0 = previous.rotation, r1 = current.rotation;
+        position.x = p0.x + (p1.x - p0.x) * alpha;
+        position.y = p0.y + (p1.y - p0.y) * alpha;
+        position.z = p0.z + (p1.z - p0.z) * alpha;
+        rotation.x = r0.x + (r1.x - r0.x) * alpha;
+        rotation.y = r0.y + (r1.y - r0.y) * alpha;
+        rotation.z = r0.z + (r1.z - r0.z) * alpha;
     }
 
     // Getter/Setter 补充
@@ -0,0 +1,107 @@
+package render;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 脚本化的相机路径：一串按时间排序的关键帧 (时间、位置、俯仰、偏航)，任意时刻的相机在相邻两个关键帧之间线性插值。
+ * 无窗口渲染、自动化 benchmark 和图像回归测试用它代替键鼠输入，同一条路径每次渲染出的画面都相同。
+ * <p>
+ * 文本格式：每行一个关键帧 "秒 x y z 俯仰(度) 偏航(度)"，空行和 # 开头的注释行忽略。俯仰为负表示向下看。
+ */
+public class CameraPath {
+    private float[] times = new float[8];
+    private float[] xs = new float[8], ys = new float[8], zs = new float[8];
+    private float[] pitches = new float[8], yaws = new float[8]; // 弧度
+    private int count;
+
+    /**
+     * 追加一个关键帧，时间必须大于前一个关键帧。角度单位为弧度
+     */
+    public CameraPath add(float time, float x, float y, float z, float pitch, float yaw) {
+        if (count > 0 && time <= times[count - 1]) {
+            throw new IllegalArgumentException("Keyframe times must increase: " + time + " after " + times[count - 1]);
+        }
+        if (count == times.length) {
+            int capacity = count * 2;
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            zs = Arrays.copyOf(zs, capacity);
+            pitches = Arrays.copyOf(pitches, capacity);
+            yaws = Arrays.copyOf(yaws, capacity);
+        }
+        times[count] = time;
+        xs[count] = x;
+        ys[count] = y;
+        zs[count] = z;
+        pitches[count] = pitch;
+        yaws[count] = yaw;
+        count++;
+        return this;
+    }
+
+    public static CameraPath load(Path file) throws IOException {
+        CameraPath path = new CameraPath();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\s+");
+            if (f.length != 6) throw new IOException(file + ":" + (n + 1) + ": expected 6 values, got " + f.length);
+            try {
+                path.add(Float.parseFloat(f[0]), Float.parseFloat(f[1]), Float.parseFloat(f[2]), Float.parseFloat(f[3]),
+                        (float) Math.toRadians(Float.parseFloat(f[4])), (float) Math.toRadians(Float.parseFloat(f[5])));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ":" + (n + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        if (path.count == 0) throw new IOException(file + ": no keyframes");
+        return path;
+    }
+
+    /**
+     * 默认路径：在 (centerX, centerZ) 上空绕一圈，始终朝向圆心、略微向下看
+     */
+    public static CameraPath orbit(float centerX, float centerZ, float radius, float height, float seconds) {
+        CameraPath path = new CameraPath();
+        int steps = 32;
+        for (int i = 0; i <= steps; i++) {
+            double angle = Math.PI * 2 * i / steps;
+            float x = centerX + (float) Math.sin(angle) * radius;
+            float z = centerZ + (float) Math.cos(angle) * radius;
+            // 相机前方是 (-sin(yaw), -cos(yaw))，指向圆心时 yaw 就等于当前的角度
+            path.add(seconds * i / steps, x, height, z, -0.35f, (float) angle);
+        }
+        return path;
+    }
+
+    /**
+     * 最后一个关键帧的时间
+     */
+    public float getDuration() {
+        return times[count - 1];
+    }
+
+    /**
+     * 把 time 秒时的位置和朝向写入 camera (超出范围时停在首尾关键帧)，不分配对象
+     */
+    public void apply(float time, Camera camera) {
+        int i = 0;
+        while (i < count - 2 && time >= times[i + 1]) i++;
+        int j = Math.min(i + 1, count - 1);
+        float t = j == i ? 0f : (time - times[i]) / (times[j] - times[i]);
+        t = Math.max(0f, Math.min(1f, t));
+
+        camera.getPosition().x = xs[i] + (xs[j] - xs[i]) * t;
+        camera.getPosition().y = ys[i] + (ys[j] - ys[i]) * t;
+        camera.getPosition().z = zs[i] + (zs[j] - zs[i]) * t;
+        camera.getRotation().x = pitches[i] + (pitches[j] - pitches[i]) * t;
+        camera.getRotation().y = yaws[i] + (yaws[j] - yaws[i]) * t;
+        camera.getRotation().z = 0f;
+    }
+}
@@ -0,0 +1,52 @@
+package render;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 在渲染线程和显示线程之间轮转的一组帧缓冲。
+ * <p>
+ * 每张帧缓冲依次经过：空闲 -> (渲染线程 acquire 后渲染) -> submit 进入待显示 -> (显示线程 takeReady 后显示) -> release 回到空闲。
+ * 两张就是双缓冲：渲染第 N+1 帧的同时显示第 N 帧；三张时渲染线程还能再领先一帧，偶尔的显示卡顿不会让渲染停下来。
+ * 所有帧缓冲都在构造时创建，运行中不分配；两边谁快谁就在队列上阻塞等待对方，不空转。
+ */
+public class FrameBufferPool {
+    private final BlockingQueue<BufferedImage> free;
+    private final BlockingQueue<BufferedImage> ready;
+
+    public FrameBufferPool(Renderer renderer, int count) {
+        if (count < 2) throw new IllegalArgumentException("Need at least 2 frame buffers, got " + count);
+        free = new ArrayBlockingQueue<>(count);
+        ready = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) free.add(renderer.createFrameBuffer());
+    }
+
+    /**
+     * 取一张空闲的帧缓冲来渲染，全部都在使用中时等待显示线程归还
+     */
+    public BufferedImage acquire() throws InterruptedException {
+        return free.take();
+    }
+
+    /**
+     * 渲染完成，交给显示线程
+     */
+    public void submit(BufferedImage frame) {
+        ready.add(frame);
+    }
+
+    /**
+     * 取下一张渲染好的帧 (按渲染顺序)，没有时等待
+     */
+    public BufferedImage takeReady() throws InterruptedException {
+        return ready.take();
+    }
+
+    /**
+     * 显示完毕，帧缓冲回到空闲
+     */
+    public void release(BufferedImage frame) {
+        free.add(frame);
+    }
+}
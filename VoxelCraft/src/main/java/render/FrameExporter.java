@@ -0,0 +1,73 @@
+package render;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 把渲染好的帧写到文件，不需要显示设备。
+ * <p>
+ * - PNG：无损，适合人工查看和图像回归比对
+ * - RAW：每像素 3 字节 RGB，逐行从上到下，没有文件头 (宽高由调用方记录)，
+ *   可以直接交给 ffmpeg (-f rawvideo -pixel_format rgb24) 之类的工具，写入也比 PNG 编码快得多
+ */
+public class FrameExporter {
+    public enum Format {
+        PNG("png"), RAW("rgb");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Path directory;
+    private final Format format;
+    private byte[] rgb; // RAW 格式的行缓冲，所有帧复用
+
+    public FrameExporter(Path directory, Format format) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.format = format;
+    }
+
+    /**
+     * 写出第 index 帧，文件名为 frame_00000.png / frame_00000.rgb，返回写入的文件
+     */
+    public Path write(BufferedImage frame, int index) throws IOException {
+        Path file = directory.resolve(String.format("frame_%05d.%s", index, format.getExtension()));
+        if (format == Format.PNG) {
+            ImageIO.write(frame, "png", file.toFile());
+        } else {
+            writeRaw(frame, file);
+        }
+        return file;
+    }
+
+    private void writeRaw(BufferedImage frame, Path file) throws IOException {
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        int width = frame.getWidth();
+        if (rgb == null || rgb.length != width * 3) rgb = new byte[width * 3];
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int row = 0; row < frame.getHeight(); row++) {
+                int offset = row * width;
+                for (int x = 0, b = 0; x < width; x++) {
+                    int p = pixels[offset + x];
+                    rgb[b++] = (byte) (p >> 16);
+                    rgb[b++] = (byte) (p >> 8);
+                    rgb[b++] = (byte) p;
+                }
+                out.write(rgb);
+            }
+        }
+    }
+}
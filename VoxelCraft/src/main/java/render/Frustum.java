@@ -0,0 +1,41 @@
+package render;
+
+import render.math.Matrix4f;
+
+/**
+ * 视锥体：从 MVP 矩阵直接提取 6 个裁剪平面 (Gribb-Hartmann 方法)，
+ * 用于在变换任何顶点之前，整块剔除 Chunk / Section 的包围盒。
+ */
+public class Frustum {
+    // 6 个平面 (左、右、下、上、近、远)，每个 a, b, c, d：a*x + b*y + c*z + d >= 0 表示在内侧
+    private final float[] planes = new float[24];
+
+    /**
+     * 对行主序的 clip = M * v：左 = 第4行 + 第1行，右 = 第4行 - 第1行，依此类推
+     */
+    public void update(Matrix4f mvp) {
+        float[] m = mvp.m;
+        for (int axis = 0; axis < 3; axis++) {
+            int row = axis * 4;
+            for (int k = 0; k < 4; k++) {
+                planes[(axis * 2) * 4 + k] = m[12 + k] + m[row + k];
+                planes[(axis * 2 + 1) * 4 + k] = m[12 + k] - m[row + k];
+            }
+        }
+    }
+
+    /**
+     * 轴对齐包围盒是否 (可能) 与视锥体相交。
+     * 对每个平面只测试包围盒在法线方向上最远的那个角 (p-vertex)，若它都在外侧则整个盒子在外侧。
+     */
+    public boolean intersectsBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int p = 0; p < 24; p += 4) {
+            float a = planes[p], b = planes[p + 1], c = planes[p + 2], d = planes[p + 3];
+            float x = a >= 0 ? maxX : minX;
+            float y = b >= 0 ? maxY : minY;
+            float z = c >= 0 ? maxZ : minZ;
+            if (a * x + b * y + c * z + d < 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+package render;
+
+import render.math.Vector3f;
+import world.Chunk;
+import world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 遮挡剔除的固定场景：山谷里贴地平视 (附近的山挡住后面)、地下洞穴里 (四周的岩石挡住几乎一切)、高处俯视 (几乎挡不住)。
+ * render.OcclusionCullingTest 检查这些场景下开关剔除的画面相同，bench.OcclusionReport 测量同一批场景的开销，
+ * 两边用的场景总是一致。每个场景朝 DIRECTIONS 个方向各看一次。
+ */
+public final class OcclusionScenes {
+    public static final int DIRECTIONS = 4;
+    // 世界中心 (出生点) 和在它周围搜索山谷、洞穴的范围
+    public static final float CENTER = 4 * Chunk.SIZE;
+    private static final int SEARCH_RADIUS = 48;
+
+    private OcclusionScenes() {
+    }
+
+    /**
+     * 一个场景：摄像机位置和俯仰角
+     */
+    public static final class Scene {
+        public final String name;
+        private final float x, y, z, pitch;
+
+        Scene(String name, float x, float y, float z, float pitch) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.pitch = pitch;
+        }
+
+        /**
+         * 以摄像机为中心重新流式加载，渲染列表由摄像机所在的 Chunk 由近到远排序
+         */
+        public void load(World world) {
+            world.update(x, z);
+            world.awaitLoaded();
+        }
+
+        /**
+         * 朝第 direction 个方向 (0 .. DIRECTIONS - 1) 看的摄像机
+         */
+        public Camera camera(int direction) {
+            Camera camera = new Camera();
+            camera.setPosition(new Vector3f(x, y, z));
+            camera.setRotation(new Vector3f(pitch, direction * (float) Math.PI * 0.5f + 0.3f, 0f));
+            return camera;
+        }
+
+        @Override
+        public String toString() {
+            return name + " at " + x + "," + y + "," + z;
+        }
+    }
+
+    /**
+     * 在以 CENTER 为中心加载好的 world 里找出各个场景：地表最低的一列 (山谷)、头顶有厚岩层的一格空气 (洞穴，找不到时省略)
+     */
+    public static List<Scene> find(World world) {
+        int valleyX = 0, valleyZ = 0, valleyY = Chunk.HEIGHT;
+        int caveX = 0, caveY = -1, caveZ = 0;
+        for (int x = (int) CENTER - SEARCH_RADIUS; x <= CENTER + SEARCH_RADIUS; x++) {
+            for (int z = (int) CENTER - SEARCH_RADIUS; z <= CENTER + SEARCH_RADIUS; z++) {
+                int surface = surfaceY(world, x, z);
+                if (surface > 0 && surface < valleyY) {
+                    valleyX = x;
+                    valleyZ = z;
+                    valleyY = surface;
+                }
+                for (int y = 2; y + 6 < surface && caveY < 0; y++) {
+                    if (isCave(world, x, y, z)) {
+                        caveX = x;
+                        caveY = y;
+                        caveZ = z;
+                    }
+                }
+            }
+        }
+
+        List<Scene> scenes = new ArrayList<>();
+        scenes.add(new Scene("valley", valleyX, valleyY + 1.6f, valleyZ, 0.1f));
+        if (caveY >= 0) scenes.add(new Scene("cave", caveX, caveY + 0.6f, caveZ, 0f));
+        scenes.add(new Scene("above", CENTER, Chunk.HEIGHT + 24f, CENTER, -0.6f));
+        return scenes;
+    }
+
+    // 最高的实心方块 y，整列都是空气时返回 -1
+    private static int surfaceY(World world, int x, int z) {
+        for (int y = Chunk.HEIGHT - 1; y >= 0; y--) {
+            if (world.isSolid(x, y, z)) return y;
+        }
+        return -1;
+    }
+
+    // 两格高的空气，前后左右至少一边也是空气 (洞穴通道而不是封闭的空腔)
+    private static boolean isCave(World world, int x, int y, int z) {
+        if (world.isSolid(x, y, z) || world.isSolid(x, y + 1, z)) return false;
+        return !world.isSolid(x + 1, y, z) || !world.isSolid(x - 1, y, z)
+                || !world.isSolid(x, y, z + 1) || !world.isSolid(x, y, z - 1);
+    }
+}
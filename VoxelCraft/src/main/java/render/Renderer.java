@@ -1,23 +1,94 @@
 package render;
 
+import core.Config;
+import gfx.HiZBuffer;
 import gfx.Lighting;
 import gfx.ZBuffer;
+import perf.PerfMetrics;
 import render.math.Matrix4f;
 import render.math.Vector3f;
 import world.Chunk;
+import world.ChunkMesh;
+import world.Mesh;
 import world.World;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Renderer {
     private int width, height;
     private BufferedImage buffer;
-    private int[] pixels;
+    private int[] pixels; // 当前渲染目标的像素，默认是 buffer，也可以是外部传入的帧缓冲
     private ZBuffer zBuffer;
     private Matrix4f projectionMatrix;
+    // 每帧复用的矩阵，避免在渲染循环里分配对象
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Matrix4f mvp = new Matrix4f();
+    private final Frustum frustum = new Frustum();
+    private boolean frustumCulling = Config.FRUSTUM_CULLING;
+    // 上一帧实际送入顶点变换的面数 (剔除效果统计)
+    private int lastFrameFaces;
+    private int lastFrameCulled; // 上一帧被视锥剔除的面数
+    // 遮挡剔除：先画摄像机附近的 Chunk，用它们的深度建立 Hi-Z，再剔除被完全挡住的远处 Chunk / Section
+    private boolean occlusionCulling = Config.OCCLUSION_CULLING;
+    private final HiZBuffer hiZ;
+    private int lastFrameOccluded; // 上一帧被遮挡剔除的面数
+    // 投影出来的包围盒最近深度要比 Hi-Z 再远这么多才算被挡住，抵消和光栅化深度插值之间的浮点误差
+    private static final float OCCLUSION_DEPTH_BIAS = 1e-6f;
+    private long frameClearNanos; // 本帧各次光栅化的清屏时间之和
+    // 性能统计，null 表示关闭 (只剩 null 判断的开销)
+    private PerfMetrics metrics;
+    // Tile 模式下各线程累加的清屏时间和着色像素数
+    private final AtomicLong tileClearNanos = new AtomicLong();
+    private final AtomicLong shadedPixels = new AtomicLong();
+
+    // --- Tile 分箱光栅化 ---
+    // 变换后的三角形先进入 triangles，再按屏幕 Tile 分箱；每个 Tile 独占自己那块颜色/深度缓冲，
+    // 所以多个线程可以无锁地并行光栅化，且结果与单线程逐个绘制逐像素一致
+    private static final int SKY_COLOR = 0xFF87CEEB;
+    // 屏幕坐标的定点精度：1 像素 = 16 个子像素
+    static final int SUBPIXEL_BITS = 4;
+    static final int SUBPIXEL = 1 << SUBPIXEL_BITS;
+    private final TriangleBuffer triangles = new TriangleBuffer(4096);
+    private final int tileSize = Config.TILE_SIZE;
+    private final int tilesX, tilesY;
+    private final int[][] tileBins;   // 每个 Tile 覆盖到的三角形下标，按提交顺序排列
+    private final int[] tileBinCounts;
+    private final AtomicInteger nextTile = new AtomicInteger();
+    private final int rasterThreads;
+    private TileWorkerPool rasterPool;
+    private final Runnable drainTilesTask = this::drainTiles;
+    private boolean tiled = Config.TILED_RENDERING;
+    private boolean clearTiles; // 本次 Tile 光栅化是否先清理各 Tile (遮挡剔除的第二遍接着第一遍画，不清理)
+
+    // 批量变换后的齐次裁剪坐标 (SoA)，容量按最大网格增长，稳定后不再分配
+    private float[] clipX = new float[4096];
+    private float[] clipY = new float[4096];
+    private float[] clipZ = new float[4096];
+    private float[] clipW = new float[4096];
+
+    // 每个朝向的光照系数只和法线有关，预先算好
+    private final float[] shadeByDir = new float[6];
+
+    // 当前面片 (裁剪后最多 4 + 6 个顶点) 的屏幕坐标 (复用，避免每个面 new 数组)，x/y 为带 4 位小数的定点数
+    private static final int MAX_POLYGON = 16;
+    private final int[] faceX = new int[MAX_POLYGON];
+    private final int[] faceY = new int[MAX_POLYGON];
+    private final float[] faceZ = new float[MAX_POLYGON];
+
+    // 裁剪用的两组乒乓缓冲 (齐次坐标)
+    private final float[][] polyX = new float[2][MAX_POLYGON];
+    private final float[][] polyY = new float[2][MAX_POLYGON];
+    private final float[][] polyZ = new float[2][MAX_POLYGON];
+    private final float[][] polyW = new float[2][MAX_POLYGON];
+    // Guard Band 为屏幕的几倍：超出才在 x/y 方向裁剪
+    private final float guardBand = Config.GUARD_BAND;
+    private final float halfWidth, halfHeight;
 
     public Renderer(int width, int height) {
         this.width = width;
@@ -25,7 +96,63 @@ public class Renderer {
         buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         pixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
         zBuffer = new ZBuffer(width, height);
+        hiZ = new HiZBuffer(width, height);
+        halfWidth = width * 0.5f;
+        halfHeight = height * 0.5f;
         updateProjectionMatrix();
+
+        tilesX = (width + tileSize - 1) / tileSize;
+        tilesY = (height + tileSize - 1) / tileSize;
+        tileBins = new int[tilesX * tilesY][256];
+        tileBinCounts = new int[tilesX * tilesY];
+        rasterThreads = Config.RENDER_THREADS > 0 ? Config.RENDER_THREADS : Runtime.getRuntime().availableProcessors();
+
+        for (int dir = 0; dir < 6; dir++) {
+            shadeByDir[dir] = Lighting.getShadingFactor(Mesh.NORMALS[dir]);
+        }
+    }
+
+    /**
+     * 切换单线程 / 多线程 Tile 光栅化，两者输出逐像素相同
+     */
+    public void setTiledRendering(boolean tiled) {
+        this.tiled = tiled;
+    }
+
+    public boolean isTiledRendering() {
+        return tiled;
+    }
+
+    /**
+     * 开关视锥剔除 (Chunk 级 + Section 级)
+     */
+    public void setFrustumCulling(boolean frustumCulling) {
+        this.frustumCulling = frustumCulling;
+    }
+
+    /**
+     * 开关 Hi-Z 遮挡剔除，开关前后画面相同
+     */
+    public void setOcclusionCulling(boolean occlusionCulling) {
+        this.occlusionCulling = occlusionCulling;
+    }
+
+    public int getLastFrameFaces() {
+        return lastFrameFaces;
+    }
+
+    /**
+     * 上一帧被遮挡剔除的面数
+     */
+    public int getLastFrameOccluded() {
+        return lastFrameOccluded;
+    }
+
+    /**
+     * 每帧把清屏 / 变换 / 光栅化耗时和面、像素计数写入 metrics，传 null 关闭
+     */
+    public void setMetrics(PerfMetrics metrics) {
+        this.metrics = metrics;
     }
 
     private void updateProjectionMatrix() {
@@ -38,72 +165,397 @@ public class Renderer {
     }
 
     public void render(Graphics g, World world, Camera camera) {
-        // 天空色设为淡淡的蓝色
-        clear(0xFF87CEEB);
+        g.drawImage(renderFrame(world, camera), 0, 0, null);
+    }
+
+    /**
+     * 只渲染到内部的帧缓冲并返回它，不做显示。下一次调用会覆盖同一张图
+     */
+    public BufferedImage renderFrame(World world, Camera camera) {
+        return renderFrame(world, camera, buffer);
+    }
 
-        Matrix4f viewMatrix = camera.getViewMatrix();
-        Matrix4f mvp = projectionMatrix.mul(viewMatrix);
-        float halfWidth = width * 0.5f;
-        float halfHeight = height * 0.5f;
+    /**
+     * 渲染到指定的帧缓冲 (必须由 createFrameBuffer 创建)。显示线程可以同时读取另一张帧缓冲，互不干扰
+     */
+    public BufferedImage renderFrame(World world, Camera camera, BufferedImage target) {
+        PerfMetrics m = metrics;
+        long start = m != null ? System.nanoTime() : 0L;
+        pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        triangles.clear();
 
-        for (Chunk chunk : world.getChunks()) {
-            // 获取带法线的网格
-            List<Chunk.RenderFace> mesh = chunk.getMesh();
+        camera.getViewMatrix(viewMatrix);
+        mvp.mul(projectionMatrix, viewMatrix);
+        frustum.update(mvp);
+        lastFrameFaces = 0;
+        lastFrameCulled = 0;
+        lastFrameOccluded = 0;
+        frameClearNanos = 0;
 
-            for (Chunk.RenderFace face : mesh) {
+        // 1. 遮挡物：渲染列表由近到远，开头离摄像机最近的几圈 Chunk 先照常提交、光栅化
+        List<Chunk> chunks = world.getChunks();
+        int occluders = occlusionCulling ? countOccluders(chunks, camera) : chunks.size();
+        if (occluders == 0) occluders = chunks.size(); // 附近没有 Chunk，没有东西能挡住后面
+        submitChunks(chunks, 0, occluders, false);
+        long transformed = m != null ? System.nanoTime() : 0L;
+        long shaded = rasterize(true);
+        int trianglesDrawn = triangles.count;
+        long rasterized = m != null ? System.nanoTime() : 0L;
 
-                // 1. 光照计算 (使用上一轮优化过的柔和光照)
-                float shadeFactor = Lighting.getShadingFactor(face.normal);
+        // 2. 其余的 Chunk：用已经画好的深度建立 Hi-Z，包围盒完全被挡住的不再提交，剩下的接着画。
+        // 提交顺序和不剔除时相同，而被剔除的一个像素都画不出来，所以画面逐像素不变
+        long occludedStart = rasterized, occludedTransformed = rasterized;
+        if (occluders < chunks.size()) {
+            triangles.clear();
+            hiZ.build(zBuffer);
+            submitChunks(chunks, occluders, chunks.size(), true);
+            occludedTransformed = m != null ? System.nanoTime() : 0L;
+            shaded += rasterize(false);
+            trianglesDrawn += triangles.count;
+        }
 
-                // 2. 颜色获取 [核心修改]
-                // 之前：基于法线猜测颜色 if (normal.y > 0.5) ...
-                // 现在：直接读取 Chunk 生成好的正确颜色
-                int baseColor = face.color;
+        if (m != null) {
+            long end = System.nanoTime();
+            long rasterNanos = (rasterized - transformed) + (end - occludedTransformed);
+            m.record(PerfMetrics.TRANSFORM, (transformed - start) + (occludedTransformed - occludedStart));
+            m.record(PerfMetrics.CLEAR, frameClearNanos);
+            m.record(PerfMetrics.RASTERIZE, rasterNanos - (tiled && rasterThreads > 1 ? 0 : frameClearNanos));
+            m.count(PerfMetrics.FACES_SUBMITTED, lastFrameFaces);
+            m.count(PerfMetrics.FACES_CULLED, lastFrameCulled);
+            m.count(PerfMetrics.FACES_OCCLUDED, lastFrameOccluded);
+            m.count(PerfMetrics.TRIANGLES_DRAWN, trianglesDrawn);
+            m.count(PerfMetrics.PIXELS_SHADED, shaded);
+        }
+        return target;
+    }
 
-                // 应用光照
-                int finalColor = Lighting.applyLighting(baseColor, shadeFactor);
+    /**
+     * 视锥剔除 (和 occlusion 为 true 时的遮挡剔除) 后，把 chunks[from, to) 的网格提交到三角形缓冲
+     */
+    private void submitChunks(List<Chunk> chunks, int from, int to, boolean occlusion) {
+        for (int c = from; c < to; c++) {
+            Chunk chunk = chunks.get(c);
+            // 网格可能随时被后台构建的新网格替换，这一帧只取一次快照
+            ChunkMesh chunkMesh = chunk.getChunkMesh();
+            if (chunkMesh == null || chunkMesh.getFaceCount() == 0) continue;
 
-                // 2. 顶点变换流水线
-                Vertex[] verts = new Vertex[4];
-                boolean safe = true;
+            // 0. 视锥剔除：整个 Chunk 的包围盒在视锥体外，一个面都不用碰
+            if (frustumCulling && !frustum.intersectsBox(chunk.getMinX(), chunkMesh.getMinY(), chunk.getMinZ(),
+                    chunk.getMaxX(), chunkMesh.getMaxY(), chunk.getMaxZ())) {
+                lastFrameCulled += chunkMesh.getFaceCount();
+                continue;
+            }
+            // 遮挡剔除同样先测整个 Chunk
+            if (occlusion && isBoxOccluded(chunk.getMinX(), chunkMesh.getMinY(), chunk.getMinZ(),
+                    chunk.getMaxX(), chunkMesh.getMaxY(), chunk.getMaxZ())) {
+                lastFrameOccluded += chunkMesh.getFaceCount();
+                continue;
+            }
 
-                for (int i = 0; i < 4; i++) {
-                    Vector3f ndc = mvp.transform(face.vertices[i]);
-                    if (ndc.z < -1.0f || ndc.z > 1.0f) {
-                        safe = false;
-                        break;
-                    }
+            for (int section = 0; section < Chunk.SECTIONS; section++) {
+                // 获取结构化数组形式的网格
+                Mesh mesh = chunkMesh.getSection(section);
+                if (mesh.getFaceCount() == 0) continue;
 
-                    int screenX = (int) ((ndc.x + 1.0f) * halfWidth);
-                    // 屏幕Y坐标修正
-                    int screenY = (int) ((1.0f - ndc.y) * halfHeight);
-                    verts[i] = new Vertex(screenX, screenY, ndc.z);
+                // 再按竖直分段的网格包围盒剔除一次
+                if (frustumCulling && !frustum.intersectsBox(mesh.getMinX(), mesh.getMinY(), mesh.getMinZ(),
+                        mesh.getMaxX(), mesh.getMaxY(), mesh.getMaxZ())) {
+                    lastFrameCulled += mesh.getFaceCount();
+                    continue;
                 }
+                if (occlusion && isBoxOccluded(mesh.getMinX(), mesh.getMinY(), mesh.getMinZ(),
+                        mesh.getMaxX(), mesh.getMaxY(), mesh.getMaxZ())) {
+                    lastFrameOccluded += mesh.getFaceCount();
+                    continue;
+                }
+                renderMesh(mesh);
+            }
+        }
+    }
+
+    /**
+     * 渲染列表开头有多少个 Chunk 在摄像机所在 Chunk 的 OCCLUDER_DISTANCE 半径以内 (用作遮挡物)。
+     * 列表按玩家所在 Chunk 由近到远排序，摄像机在别处时前缀可能为空，这一帧就不做遮挡剔除
+     */
+    private static int countOccluders(List<Chunk> chunks, Camera camera) {
+        Vector3f pos = camera.getPosition();
+        // 方块中心在整数坐标上，Chunk 从 chunkX * SIZE - 0.5 开始
+        int cameraX = (int) Math.floor((pos.x + 0.5f) / Chunk.SIZE);
+        int cameraZ = (int) Math.floor((pos.z + 0.5f) / Chunk.SIZE);
+        int radius = Config.OCCLUDER_DISTANCE;
+        int n = 0;
+        while (n < chunks.size()) {
+            Chunk chunk = chunks.get(n);
+            int dx = chunk.getChunkX() - cameraX, dz = chunk.getChunkZ() - cameraZ;
+            if (dx * dx + dz * dz > radius * radius) break;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 轴对齐包围盒是否被 Hi-Z 里已经画好的东西完全挡住：8 个角投影到屏幕，取外接矩形 (多留 1 像素) 和最近的深度。
+     * 有角越过近平面时投影不可靠，当作可见
+     */
+    private boolean isBoxOccluded(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float[] m = mvp.m;
+        float left = Float.MAX_VALUE, top = Float.MAX_VALUE, right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+        float nearest = Float.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) == 0 ? minX : maxX;
+            float y = (i & 2) == 0 ? minY : maxY;
+            float z = (i & 4) == 0 ? minZ : maxZ;
+            float cx = m[0] * x + m[1] * y + m[2] * z + m[3];
+            float cy = m[4] * x + m[5] * y + m[6] * z + m[7];
+            float cz = m[8] * x + m[9] * y + m[10] * z + m[11];
+            float cw = m[12] * x + m[13] * y + m[14] * z + m[15];
+            if (!(cz >= -cw)) return false;
 
-                if (!safe) continue;
+            // 和 projectVertex 相同的视口变换 (像素坐标，不取定点数)
+            float invW = 1.0f / cw;
+            float sx = (cx * invW + 1.0f) * halfWidth;
+            float sy = (1.0f - cy * invW) * halfHeight;
+            float sz = cz * invW;
+            if (sx < left) left = sx;
+            if (sx > right) right = sx;
+            if (sy < top) top = sy;
+            if (sy > bottom) bottom = sy;
+            if (sz < nearest) nearest = sz;
+        }
+        // NDC 深度 z / w 随距离单调递增，盒子里最近的点一定是某个角
+        return hiZ.isOccluded((int) left - 1, (int) top - 1, (int) right + 1, (int) bottom + 1,
+                nearest - OCCLUSION_DEPTH_BIAS);
+    }
+
+    /**
+     * 光栅化三角形缓冲里的所有三角形，clear 为 true 时先清屏。返回着色的像素数，清屏时间累加到 frameClearNanos
+     */
+    private long rasterize(boolean clear) {
+        // 光栅化：单线程直接整屏绘制，多线程则按 Tile 分箱后并行
+        if (tiled && rasterThreads > 1) {
+            tileClearNanos.set(0);
+            shadedPixels.set(0);
+            clearTiles = clear;
+            rasterizeTiled();
+            frameClearNanos += tileClearNanos.get();
+            return shadedPixels.get();
+        }
+        if (clear) {
+            long clearStart = metrics != null ? System.nanoTime() : 0L;
+            // 天空色设为淡淡的蓝色
+            clear(SKY_COLOR);
+            if (metrics != null) frameClearNanos += System.nanoTime() - clearStart;
+        }
+        long shaded = 0;
+        for (int t = 0; t < triangles.count; t++) {
+            shaded += drawTriangleOptimized(t, 0, 0, width - 1, height - 1);
+        }
+        return shaded;
+    }
+
+    /**
+     * 和屏幕同样大小、格式的帧缓冲，用作 renderFrame 的目标
+     */
+    public BufferedImage createFrameBuffer() {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * 变换一个网格的所有面，裁剪、背面剔除后提交到三角形缓冲
+     */
+    private void renderMesh(Mesh mesh) {
+        int faceCount = mesh.getFaceCount();
+        lastFrameFaces += faceCount;
+
+        // 1. 顶点变换流水线：整个网格的顶点一次性批量变换到裁剪空间
+        int vertexCount = mesh.getVertexCount();
+        ensureClipCapacity(vertexCount);
+        mvp.transformPoints(mesh.getX(), mesh.getY(), mesh.getZ(), 0, vertexCount, clipX, clipY, clipZ, clipW);
 
-                // 3. 绘制两个三角形并进行 [背面剔除 Optimization]
-                // 顺序: 0-1-2 和 2-3-0
-                drawTriangleOptimized(verts[0], verts[1], verts[2], finalColor);
-                drawTriangleOptimized(verts[0], verts[2], verts[3], finalColor);
+        for (int f = 0; f < faceCount; f++) {
+            // 2. 在齐次裁剪空间里给 4 个顶点打区域码，整个面都在同一个平面外侧就直接丢弃
+            int base = f * 4;
+            int codeOr = 0;
+            int codeAnd = ~0;
+            for (int i = 0; i < 4; i++) {
+                int code = outcode(clipX[base + i], clipY[base + i], clipZ[base + i], clipW[base + i]);
+                codeOr |= code;
+                codeAnd &= code;
             }
+            if (codeAnd != 0) continue;
+
+            // 3. 颜色获取：Chunk 生成好的颜色 + 按朝向预计算的柔和光照
+            int finalColor = Lighting.applyLighting(mesh.getColor(f), shadeByDir[mesh.getDir(f)]);
+
+            // 4. 完全在内侧的面走快速路径；跨越近平面 / Guard Band 的面用 Sutherland-Hodgman 裁剪成多边形
+            int n;
+            if (codeOr == 0) {
+                for (int i = 0; i < 4; i++) {
+                    projectVertex(i, clipX[base + i], clipY[base + i], clipZ[base + i], clipW[base + i]);
+                }
+                n = 4;
+            } else {
+                n = clipPolygon(base, codeOr);
+            }
+
+            // 5. 扇形三角化并提交，同时进行 [背面剔除 Optimization]
+            // 四边形时顺序为: 0-1-2 和 0-2-3，与裁剪前一致
+            for (int i = 1; i + 1 < n; i++) {
+                submitTriangle(0, i, i + 1, finalColor);
+            }
+        }
+    }
+
+    // --- 齐次裁剪空间裁剪 ---
+
+    /**
+     * 区域码：每一位代表顶点在某个裁剪平面的外侧。
+     * 近/远平面是真正的裁剪面；x/y 方向只在超出 Guard Band 时才裁剪，
+     * 屏幕外但在 Guard Band 内的部分交给光栅化的包围盒去截断，省掉大部分裁剪工作。
+     */
+    private int outcode(float x, float y, float z, float w) {
+        int code = 0;
+        if (z < -w) code |= 1;      // 近平面
+        if (z > w) code |= 2;       // 远平面
+        float g = guardBand * w;
+        if (x < -g) code |= 4;
+        if (x > g) code |= 8;
+        if (y < -g) code |= 16;
+        if (y > g) code |= 32;
+        return code;
+    }
+
+    // 顶点到第 plane 个裁剪平面的有向距离，>= 0 为内侧
+    private float planeDistance(int plane, float x, float y, float z, float w) {
+        switch (plane) {
+            case 0: return z + w;
+            case 1: return w - z;
+            case 2: return x + guardBand * w;
+            case 3: return guardBand * w - x;
+            case 4: return y + guardBand * w;
+            default: return guardBand * w - y;
+        }
+    }
+
+    /**
+     * Sutherland-Hodgman：把第 base 个顶点开始的四边形依次对 codeOr 中涉及的平面裁剪，
+     * 结果投影到 faceX / faceY / faceZ，返回多边形顶点数 (少于 3 表示完全被裁掉)
+     */
+    private int clipPolygon(int base, int codeOr) {
+        float[] inX = polyX[0], inY = polyY[0], inZ = polyZ[0], inW = polyW[0];
+        for (int i = 0; i < 4; i++) {
+            inX[i] = clipX[base + i];
+            inY[i] = clipY[base + i];
+            inZ[i] = clipZ[base + i];
+            inW[i] = clipW[base + i];
+        }
+        int n = 4;
+        int src = 0;
+
+        for (int plane = 0; plane < 6 && n >= 3; plane++) {
+            if ((codeOr & (1 << plane)) == 0) continue;
+
+            float[] sx = polyX[src], sy = polyY[src], sz = polyZ[src], sw = polyW[src];
+            float[] dx = polyX[1 - src], dy = polyY[1 - src], dz = polyZ[1 - src], dw = polyW[1 - src];
+            int out = 0;
+
+            int prev = n - 1;
+            float dPrev = planeDistance(plane, sx[prev], sy[prev], sz[prev], sw[prev]);
+            for (int cur = 0; cur < n; cur++) {
+                float dCur = planeDistance(plane, sx[cur], sy[cur], sz[cur], sw[cur]);
+                if ((dPrev >= 0) != (dCur >= 0)) {
+                    // 这条边穿过平面，输出交点
+                    float t = dPrev / (dPrev - dCur);
+                    dx[out] = sx[prev] + (sx[cur] - sx[prev]) * t;
+                    dy[out] = sy[prev] + (sy[cur] - sy[prev]) * t;
+                    dz[out] = sz[prev] + (sz[cur] - sz[prev]) * t;
+                    dw[out] = sw[prev] + (sw[cur] - sw[prev]) * t;
+                    out++;
+                }
+                if (dCur >= 0) {
+                    dx[out] = sx[cur];
+                    dy[out] = sy[cur];
+                    dz[out] = sz[cur];
+                    dw[out] = sw[cur];
+                    out++;
+                }
+                prev = cur;
+                dPrev = dCur;
+            }
+            n = out;
+            src = 1 - src;
+        }
+
+        for (int i = 0; i < n; i++) {
+            projectVertex(i, polyX[src][i], polyY[src][i], polyZ[src][i], polyW[src][i]);
         }
-        g.drawImage(buffer, 0, 0, null);
+        return n;
+    }
+
+    /**
+     * 透视除法与视口变换，结果写入第 i 个屏幕顶点。调用前已保证 w > 0
+     */
+    private void projectVertex(int i, float x, float y, float z, float w) {
+        float invW = 1.0f / w;
+        // 屏幕坐标 (28.4 定点数)
+        faceX[i] = Math.round((x * invW + 1.0f) * halfWidth * SUBPIXEL);
+        // 屏幕Y坐标修正
+        faceY[i] = Math.round((1.0f - y * invW) * halfHeight * SUBPIXEL);
+        faceZ[i] = z * invW;
+    }
+
+    /**
+     * 直接绘制一个屏幕空间三角形 (像素坐标，z 为 NDC 深度)，不经过顶点变换和 Tile 分箱。
+     * 主要给光栅化基准测试使用；背面 (按屏幕坐标顺时针以外的绕序) 会被剔除。
+     */
+    public void drawTriangle(float x1, float y1, float z1, float x2, float y2, float z2,
+                             float x3, float y3, float z3, int color) {
+        faceX[0] = Math.round(x1 * SUBPIXEL);
+        faceY[0] = Math.round(y1 * SUBPIXEL);
+        faceZ[0] = z1;
+        faceX[1] = Math.round(x2 * SUBPIXEL);
+        faceY[1] = Math.round(y2 * SUBPIXEL);
+        faceZ[1] = z2;
+        faceX[2] = Math.round(x3 * SUBPIXEL);
+        faceY[2] = Math.round(y3 * SUBPIXEL);
+        faceZ[2] = z3;
+
+        triangles.clear();
+        long crossProduct = (long) (faceX[1] - faceX[0]) * (faceY[2] - faceY[0]) - (long) (faceY[1] - faceY[0]) * (faceX[2] - faceX[0]);
+        if (crossProduct <= 0) return;
+        int t = triangles.add(faceX[0], faceY[0], z1, faceX[1], faceY[1], z2, faceX[2], faceY[2], z3, color);
+        drawTriangleOptimized(t, 0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * 用天空色清空颜色缓冲和深度缓冲
+     */
+    public void clearFrame() {
+        clear(SKY_COLOR);
+    }
+
+    private void ensureClipCapacity(int vertexCount) {
+        if (clipX.length >= vertexCount) return;
+        int n = Math.max(vertexCount, clipX.length * 2);
+        clipX = new float[n];
+        clipY = new float[n];
+        clipZ = new float[n];
+        clipW = new float[n];
     }
 
     private void clear(int color) {
-        for (int i = 0; i < pixels.length; i++) pixels[i] = color;
+        Arrays.fill(pixels, color);
         zBuffer.clear();
     }
 
     /**
-     * 带背面剔除 (Back-face Culling) 的三角形绘制
+     * 背面剔除后把三角形放进本帧的三角形缓冲
      */
-    private void drawTriangleOptimized(Vertex v1, Vertex v2, Vertex v3, int color) {
+    private void submitTriangle(int a, int b, int c, int color) {
         // --- 核心优化: 背面剔除 ---
         // 计算三角形在屏幕空间的二维叉积 (z分量)
         // (x2-x1)(y3-y1) - (y2-y1)(x3-x1)
-        float crossProduct = (v2.x - v1.x) * (v3.y - v1.y) - (v2.y - v1.y) * (v3.x - v1.x);
+        long crossProduct = (long) (faceX[b] - faceX[a]) * (faceY[c] - faceY[a]) - (long) (faceY[b] - faceY[a]) * (faceX[c] - faceX[a]);
 
         // 如果叉积 < 0 (或 > 0，取决于坐标系和顶点绕序)，说明是背面
         // 通常 NDC 坐标系下，顺时针(CW) 可能为正，逆时针(CCW)为负
@@ -113,54 +565,190 @@ public class Renderer {
             return;
         }
 
-        // --- 以下是常规光栅化逻辑 ---
-        int minX = Math.max(0, Math.min(v1.x, Math.min(v2.x, v3.x)));
-        int maxX = Math.min(width - 1, Math.max(v1.x, Math.max(v2.x, v3.x)));
-        int minY = Math.max(0, Math.min(v1.y, Math.min(v2.y, v3.y)));
-        int maxY = Math.min(height - 1, Math.max(v1.y, Math.max(v2.y, v3.y)));
-
-        float area = crossProduct; // 刚好这就是上面的叉积，就是面积
-
-        // 简单的优化：如果面积太小，也不画
-        if (area == 0) return;
-
-        // 包围盒遍历
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                // 重心坐标算法优化：将公共项提取
-                // P = (x,y)
-                // W0 edge from v2 to v3
-                float w0 = (v3.x - v2.x) * (y - v2.y) - (v3.y - v2.y) * (x - v2.x);
-                // W1 edge from v3 to v1
-                float w1 = (v1.x - v3.x) * (y - v3.y) - (v1.y - v3.y) * (x - v3.x);
-                // W2 edge from v1 to v2
-                float w2 = (v2.x - v1.x) * (y - v1.y) - (v2.y - v1.y) * (x - v1.x);
-
-                // 检查是否在三角形内
-                // 注意：如果剔除了背面，这里的符号应该是一致的，不需要都 check >=0
-                // 这里的符号判断要和剔除方向一致
-                if (w0 >= 0 && w1 >= 0 && w2 >= 0) {
-                    w0 /= area;
-                    w1 /= area;
-                    w2 /= area;
-
-                    float z = w0 * v1.z + w1 * v2.z + w2 * v3.z;
-                    if (zBuffer.testAndSet(x, y, z)) {
-                        pixels[x + y * width] = color;
-                    }
+        int t = triangles.add(faceX[a], faceY[a], faceZ[a], faceX[b], faceY[b], faceZ[b], faceX[c], faceY[c], faceZ[c], color);
+        if (tiled && rasterThreads > 1) binTriangle(t);
+    }
+
+    // --- Tile 分箱与并行光栅化 ---
+
+    private void binTriangle(int t) {
+        TriangleBuffer tri = triangles;
+        // 保守的像素包围盒 (定点数向下取整)
+        int minX = Math.max(0, Math.min(tri.x1[t], Math.min(tri.x2[t], tri.x3[t])) >> SUBPIXEL_BITS);
+        int maxX = Math.min(width - 1, Math.max(tri.x1[t], Math.max(tri.x2[t], tri.x3[t])) >> SUBPIXEL_BITS);
+        int minY = Math.max(0, Math.min(tri.y1[t], Math.min(tri.y2[t], tri.y3[t])) >> SUBPIXEL_BITS);
+        int maxY = Math.min(height - 1, Math.max(tri.y1[t], Math.max(tri.y2[t], tri.y3[t])) >> SUBPIXEL_BITS);
+        if (minX > maxX || minY > maxY) return; // 完全在屏幕外
+
+        for (int ty = minY / tileSize; ty <= maxY / tileSize; ty++) {
+            for (int tx = minX / tileSize; tx <= maxX / tileSize; tx++) {
+                int tile = tx + ty * tilesX;
+                int n = tileBinCounts[tile];
+                if (n == tileBins[tile].length) tileBins[tile] = Arrays.copyOf(tileBins[tile], n * 2);
+                tileBins[tile][n] = t;
+                tileBinCounts[tile] = n + 1;
+            }
+        }
+    }
+
+    private void rasterizeTiled() {
+        if (rasterPool == null) {
+            rasterPool = new TileWorkerPool(rasterThreads - 1);
+        }
+
+        nextTile.set(0);
+        // 当前线程也参与干活，所有 Tile 画完才返回
+        rasterPool.runOnAll(drainTilesTask);
+        Arrays.fill(tileBinCounts, 0);
+    }
+
+    private void drainTiles() {
+        boolean timed = metrics != null;
+        long clearNanos = 0;
+        long shaded = 0;
+        int tileCount = tileBinCounts.length;
+        int tile;
+        while ((tile = nextTile.getAndIncrement()) < tileCount) {
+            int x0 = (tile % tilesX) * tileSize;
+            int y0 = (tile / tilesX) * tileSize;
+            int x1 = Math.min(width, x0 + tileSize) - 1;
+            int y1 = Math.min(height, y0 + tileSize) - 1;
+
+            // 每个 Tile 只清理自己的那块颜色和深度
+            if (clearTiles) {
+                long clearStart = timed ? System.nanoTime() : 0L;
+                for (int y = y0; y <= y1; y++) {
+                    Arrays.fill(pixels, x0 + y * width, x1 + 1 + y * width, SKY_COLOR);
                 }
+                zBuffer.clear(x0, y0, x1, y1);
+                if (timed) clearNanos += System.nanoTime() - clearStart;
+            }
+
+            int[] bin = tileBins[tile];
+            int n = tileBinCounts[tile];
+            for (int i = 0; i < n; i++) {
+                shaded += drawTriangleOptimized(bin[i], x0, y0, x1, y1);
             }
         }
+        // 每个线程每帧只汇总一次
+        tileClearNanos.addAndGet(clearNanos);
+        shadedPixels.addAndGet(shaded);
     }
 
-    private static class Vertex {
-        int x, y;
-        float z;
+    /**
+     * 光栅化第 t 个三角形，只写入 [clipMinX, clipMaxX] x [clipMinY, clipMaxY] 范围内的像素。
+     * 背面剔除已经在 submitTriangle 里完成。
+     * <p>
+     * 顶点是 28.4 定点数，在像素中心采样。三条边函数 E = a*x + b*y + c 都是整数，
+     * 逐行只需加上 b 的步长；每行再用整数除法直接解出三条边同时 >= 0 的 [xs, xe] 区间，
+     * 区间外的像素完全不访问，区间内每个像素只剩深度的一次加法和一次比较。
+     * 共享边按 Top-Left 规则归属，相邻三角形既不重复绘制也不留缝。
+     * 返回通过深度测试、写入颜色的像素数。
+     */
+    int drawTriangleOptimized(int t, int clipMinX, int clipMinY, int clipMaxX, int clipMaxY) {
+        TriangleBuffer tri = triangles;
+        int x1 = tri.x1[t], y1 = tri.y1[t];
+        int x2 = tri.x2[t], y2 = tri.y2[t];
+        int x3 = tri.x3[t], y3 = tri.y3[t];
+        float z1 = tri.z1[t], z2 = tri.z2[t], z3 = tri.z3[t];
+        int color = tri.color[t];
+
+        // 包围盒 (像素)：像素中心 = x * SUBPIXEL + SUBPIXEL / 2
+        int half = SUBPIXEL / 2;
+        int minX = Math.max(clipMinX, (Math.min(x1, Math.min(x2, x3)) - half + SUBPIXEL - 1) >> SUBPIXEL_BITS);
+        int maxX = Math.min(clipMaxX, (Math.max(x1, Math.max(x2, x3)) - half) >> SUBPIXEL_BITS);
+        int minY = Math.max(clipMinY, (Math.min(y1, Math.min(y2, y3)) - half + SUBPIXEL - 1) >> SUBPIXEL_BITS);
+        int maxY = Math.min(clipMaxY, (Math.max(y1, Math.max(y2, y3)) - half) >> SUBPIXEL_BITS);
+        if (minX > maxX || minY > maxY) return 0;
 
-        public Vertex(int x, int y, float z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
+        // 面积就是背面剔除时的那个叉积
+        long area = (long) (x2 - x1) * (y3 - y1) - (long) (y2 - y1) * (x3 - x1);
+        if (area <= 0) return 0;
+
+        // 边函数系数：E0 边 v2->v3，E1 边 v3->v1，E2 边 v1->v2 (与重心坐标 w0/w1/w2 对应)
+        long a0 = y2 - y3, b0 = x3 - x2;
+        long a1 = y3 - y1, b1 = x1 - x3;
+        long a2 = y1 - y2, b2 = x2 - x1;
+        // Top-Left 规则：不是上边/左边的边，恰好落在边上的像素不算 (等价于要求 E >= 1)
+        long c0 = -(a0 * x2 + b0 * y2) - (isTopLeft(a0, b0) ? 0 : 1);
+        long c1 = -(a1 * x3 + b1 * y3) - (isTopLeft(a1, b1) ? 0 : 1);
+        long c2 = -(a2 * x1 + b2 * y1) - (isTopLeft(a2, b2) ? 0 : 1);
+
+        // 每移动一个像素，边函数的变化量
+        long stepX0 = a0 << SUBPIXEL_BITS, stepX1 = a1 << SUBPIXEL_BITS, stepX2 = a2 << SUBPIXEL_BITS;
+        long stepY0 = b0 << SUBPIXEL_BITS, stepY1 = b1 << SUBPIXEL_BITS, stepY2 = b2 << SUBPIXEL_BITS;
+
+        // 深度平面 z(x, y) = zOrigin + zdx * x + zdy * y (x, y 为像素坐标)
+        float invArea = 1.0f / area;
+        float zdx = (a0 * z1 + a1 * z2 + a2 * z3) * SUBPIXEL * invArea;
+        float zdy = (b0 * z1 + b1 * z2 + b2 * z3) * SUBPIXEL * invArea;
+        float zOrigin = z1 - zdx * ((float) x1 / SUBPIXEL - 0.5f) - zdy * ((float) y1 / SUBPIXEL - 0.5f);
+
+        // 第一行第一个像素中心处的边函数值
+        long px = ((long) minX << SUBPIXEL_BITS) + half;
+        long py = ((long) minY << SUBPIXEL_BITS) + half;
+        long e0Row = a0 * px + b0 * py + c0;
+        long e1Row = a1 * px + b1 * py + c1;
+        long e2Row = a2 * px + b2 * py + c2;
+
+        float[] depth = zBuffer.getData();
+        int[] pixels = this.pixels;
+        int shaded = 0;
+
+        for (int y = minY; y <= maxY; y++, e0Row += stepY0, e1Row += stepY1, e2Row += stepY2) {
+            // 直接解出本行覆盖的像素区间，空行立即跳过
+            int span = maxX - minX;
+            int from = 0, to = span;
+            from = Math.max(from, spanStart(e0Row, stepX0));
+            from = Math.max(from, spanStart(e1Row, stepX1));
+            from = Math.max(from, spanStart(e2Row, stepX2));
+            to = Math.min(to, spanEnd(e0Row, stepX0, span));
+            to = Math.min(to, spanEnd(e1Row, stepX1, span));
+            to = Math.min(to, spanEnd(e2Row, stepX2, span));
+            if (from > to) continue;
+
+            int xs = minX + from;
+            int xe = minX + to;
+            int row = y * width;
+            float zRow = zOrigin + zdy * y;
+
+            // 深度增量插值；在 Tile 边界处重新由平面方程求值，
+            // 保证单线程整屏绘制和分 Tile 绘制得到完全相同的浮点结果
+            for (int segStart = xs; segStart <= xe; ) {
+                int segEnd = Math.min(xe, (segStart / tileSize + 1) * tileSize - 1);
+                float z = zRow + zdx * segStart;
+                for (int i = row + segStart, end = row + segEnd; i <= end; i++, z += zdx) {
+                    if (z < depth[i]) {
+                        depth[i] = z;
+                        pixels[i] = color;
+                        shaded++;
+                    }
+                }
+                segStart = segEnd + 1;
+            }
         }
+        return shaded;
+    }
+
+    /**
+     * 边的法线 (a, b) 指向三角形内部。屏幕 y 朝下时：
+     * 左边 = 内部在右侧 (a > 0)；上边 = 水平且内部在下方 (a == 0 && b > 0)
+     */
+    private static boolean isTopLeft(long a, long b) {
+        return a > 0 || (a == 0 && b > 0);
+    }
+
+    // 满足 e + step * k >= 0 的最小 k (k >= 0)，无解时返回一个超出范围的值
+    private static int spanStart(long e, long step) {
+        if (e >= 0) return 0;
+        if (step <= 0) return Integer.MAX_VALUE;
+        return (int) Math.min(Integer.MAX_VALUE, (-e + step - 1) / step);
+    }
+
+    // 满足 e + step * k >= 0 的最大 k (k <= span)
+    private static int spanEnd(long e, long step, int span) {
+        if (step >= 0) return e + step * span >= 0 ? span : -1;
+        if (e < 0) return -1;
+        return (int) Math.min(span, e / -step);
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package render;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 常驻的光栅化线程池：每帧把同一个任务广播给所有工作线程，调用线程也一起干活，全部完成后返回。
+ * <p>
+ * 与 ExecutorService + CountDownLatch 不同，这里每帧不创建任何对象 (没有任务队列节点、没有新的 Latch)，
+ * 线程之间只靠一个帧序号和一个剩余计数器协作，空闲时 park，不占 CPU。
+ * <p>
+ * 任务抛出的异常不会让工作线程退出 (否则下一帧永远等不到它)：记下第一个异常，等所有线程都执行完再在调用线程上重新抛出，
+ * 保证 runOnAll 返回 / 抛出时没有线程还在写共享的缓冲区。
+ */
+class TileWorkerPool {
+    private final Thread[] workers;
+    private final AtomicInteger remaining = new AtomicInteger();
+    private volatile Runnable task;
+    private volatile int generation;
+    private volatile Thread caller;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    TileWorkerPool(int workerCount) {
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::workerLoop, "raster-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * 在所有工作线程和当前线程上同时执行 task，等所有线程都执行完毕后返回。
+     * 任何线程上的 task 抛出异常时，同样等所有线程执行完毕，再抛出第一个异常
+     */
+    void runOnAll(Runnable task) {
+        this.task = task;
+        this.caller = Thread.currentThread();
+        remaining.set(workers.length);
+        generation++; // volatile 写：在此之前的 task / remaining 对工作线程可见
+        for (Thread worker : workers) LockSupport.unpark(worker);
+
+        try {
+            task.run();
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+
+        while (remaining.get() > 0) {
+            LockSupport.park(this);
+        }
+
+        Throwable t = failure.getAndSet(null);
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        if (t != null) throw new IllegalStateException("Raster task failed", t);
+    }
+
+    private void workerLoop() {
+        int seen = 0;
+        while (true) {
+            while (generation == seen) {
+                LockSupport.park(this);
+            }
+            seen = generation;
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // 线程继续留在池里，异常交给 runOnAll 在调用线程上抛出
+                failure.compareAndSet(null, t);
+            } finally {
+                if (remaining.decrementAndGet() == 0) LockSupport.unpark(caller);
+            }
+        }
+    }
+}
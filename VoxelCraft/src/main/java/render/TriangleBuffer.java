@@ -0,0 +1,61 @@
+package render;
+
+import java.util.Arrays;
+
+/**
+ * 一帧内所有待光栅化三角形的结构化数组 (Structure of Arrays)。
+ * 顶点变换完成后先存到这里，再按屏幕 Tile 分箱，交给多个线程并行光栅化。
+ */
+class TriangleBuffer {
+    int count;
+    int[] x1, y1, x2, y2, x3, y3;
+    float[] z1, z2, z3;
+    int[] color;
+
+    TriangleBuffer(int capacity) {
+        x1 = new int[capacity];
+        y1 = new int[capacity];
+        x2 = new int[capacity];
+        y2 = new int[capacity];
+        x3 = new int[capacity];
+        y3 = new int[capacity];
+        z1 = new float[capacity];
+        z2 = new float[capacity];
+        z3 = new float[capacity];
+        color = new int[capacity];
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    int add(int ax, int ay, float az, int bx, int by, float bz, int cx, int cy, float cz, int c) {
+        if (count == color.length) grow();
+        int i = count++;
+        x1[i] = ax;
+        y1[i] = ay;
+        z1[i] = az;
+        x2[i] = bx;
+        y2[i] = by;
+        z2[i] = bz;
+        x3[i] = cx;
+        y3[i] = cy;
+        z3[i] = cz;
+        color[i] = c;
+        return i;
+    }
+
+    private void grow() {
+        int n = color.length * 2;
+        x1 = Arrays.copyOf(x1, n);
+        y1 = Arrays.copyOf(y1, n);
+        x2 = Arrays.copyOf(x2, n);
+        y2 = Arrays.copyOf(y2, n);
+        x3 = Arrays.copyOf(x3, n);
+        y3 = Arrays.copyOf(y3, n);
+        z1 = Arrays.copyOf(z1, n);
+        z2 = Arrays.copyOf(z2, n);
+        z3 = Arrays.copyOf(z3, n);
+        color = Arrays.copyOf(color, n);
+    }
+}
@@ -1,7 +1,8 @@
 package render.math;
 
 public class Matrix4f {
-    public float[][] m = new float[4][4];
+    // 行主序的扁平数组：第 row 行第 col 列 = m[row * 4 + col]
+    public final float[] m = new float[16];
 
     //构造方法和单位矩阵
     public Matrix4f() {
@@ -9,101 +10,182 @@ public class Matrix4f {
     }
 
     public Matrix4f identity() {
-        for (int i = 0; i < 4; i++)
-            for (int j = 0; j < 4; j++)
-                m[i][j] = (i == j) ? 1f : 0f;
+        for (int i = 0; i < 16; i++) m[i] = 0f;
+        m[0] = m[5] = m[10] = m[15] = 1f;
         return this;
     }
 
-    // 矩阵乘法
+    public float get(int row, int col) {
+        return m[row * 4 + col];
+    }
+
+    public Matrix4f set(Matrix4f other) {
+        System.arraycopy(other.m, 0, m, 0, 16);
+        return this;
+    }
+
+    // 矩阵乘法 (返回新矩阵)
     public Matrix4f mul(Matrix4f other) {
-        Matrix4f result = new Matrix4f();
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                result.m[i][j] =
-                        m[i][0] * other.m[0][j] +
-                        m[i][1] * other.m[1][j] +
-                        m[i][2] * other.m[2][j] +
-                        m[i][3] * other.m[3][j];
-            }
-        }
-        return result;
+        return new Matrix4f().mul(this, other);
+    }
+
+    /**
+     * 原地乘法：this = a * b。a 或 b 可以就是 this 本身。
+     */
+    public Matrix4f mul(Matrix4f a, Matrix4f b) {
+        float[] x = a.m, y = b.m;
+        float r00 = x[0] * y[0] + x[1] * y[4] + x[2] * y[8] + x[3] * y[12];
+        float r01 = x[0] * y[1] + x[1] * y[5] + x[2] * y[9] + x[3] * y[13];
+        float r02 = x[0] * y[2] + x[1] * y[6] + x[2] * y[10] + x[3] * y[14];
+        float r03 = x[0] * y[3] + x[1] * y[7] + x[2] * y[11] + x[3] * y[15];
+        float r10 = x[4] * y[0] + x[5] * y[4] + x[6] * y[8] + x[7] * y[12];
+        float r11 = x[4] * y[1] + x[5] * y[5] + x[6] * y[9] + x[7] * y[13];
+        float r12 = x[4] * y[2] + x[5] * y[6] + x[6] * y[10] + x[7] * y[14];
+        float r13 = x[4] * y[3] + x[5] * y[7] + x[6] * y[11] + x[7] * y[15];
+        float r20 = x[8] * y[0] + x[9] * y[4] + x[10] * y[8] + x[11] * y[12];
+        float r21 = x[8] * y[1] + x[9] * y[5] + x[10] * y[9] + x[11] * y[13];
+        float r22 = x[8] * y[2] + x[9] * y[6] + x[10] * y[10] + x[11] * y[14];
+        float r23 = x[8] * y[3] + x[9] * y[7] + x[10] * y[11] + x[11] * y[15];
+        float r30 = x[12] * y[0] + x[13] * y[4] + x[14] * y[8] + x[15] * y[12];
+        float r31 = x[12] * y[1] + x[13] * y[5] + x[14] * y[9] + x[15] * y[13];
+        float r32 = x[12] * y[2] + x[13] * y[6] + x[14] * y[10] + x[15] * y[14];
+        float r33 = x[12] * y[3] + x[13] * y[7] + x[14] * y[11] + x[15] * y[15];
+
+        m[0] = r00; m[1] = r01; m[2] = r02; m[3] = r03;
+        m[4] = r10; m[5] = r11; m[6] = r12; m[7] = r13;
+        m[8] = r20; m[9] = r21; m[10] = r22; m[11] = r23;
+        m[12] = r30; m[13] = r31; m[14] = r32; m[15] = r33;
+        return this;
     }
 
     //旋转矩阵
     public static Matrix4f rotationX(float angle) {
-        Matrix4f mat = new Matrix4f();
+        return new Matrix4f().setRotationX(angle);
+    }
+
+    public static Matrix4f rotationY(float angle) {
+        return new Matrix4f().setRotationY(angle);
+    }
+
+    public static Matrix4f rotationZ(float angle) {
+        return new Matrix4f().setRotationZ(angle);
+    }
+
+    public Matrix4f setRotationX(float angle) {
+        identity();
         float c = (float)Math.cos(angle);
         float s = (float)Math.sin(angle);
-        mat.m[1][1] = c;
-        mat.m[1][2] = -s;
-        mat.m[2][1] = s;
-        mat.m[2][2] = c;
-        return mat;
+        m[5] = c;
+        m[6] = -s;
+        m[9] = s;
+        m[10] = c;
+        return this;
     }
 
-    public static Matrix4f rotationY(float angle) {
-        Matrix4f mat = new Matrix4f();
+    public Matrix4f setRotationY(float angle) {
+        identity();
         float c = (float)Math.cos(angle);
         float s = (float)Math.sin(angle);
-        mat.m[0][0] = c;
-        mat.m[0][2] = s;
-        mat.m[2][0] = -s;
-        mat.m[2][2] = c;
-        return mat;
+        m[0] = c;
+        m[2] = s;
+        m[8] = -s;
+        m[10] = c;
+        return this;
     }
 
-    public static Matrix4f rotationZ(float angle) {
-        Matrix4f mat = new Matrix4f();
+    public Matrix4f setRotationZ(float angle) {
+        identity();
         float c = (float)Math.cos(angle);
         float s = (float)Math.sin(angle);
-        mat.m[0][0] = c;
-        mat.m[0][1] = -s;
-        mat.m[1][0] = s;
-        mat.m[1][1] = c;
-        return mat;
+        m[0] = c;
+        m[1] = -s;
+        m[4] = s;
+        m[5] = c;
+        return this;
     }
 
     //平移 / 缩放矩阵
     public static Matrix4f translation(float x, float y, float z) {
-        Matrix4f mat = new Matrix4f();
-        mat.m[0][3] = x;
-        mat.m[1][3] = y;
-        mat.m[2][3] = z;
-        return mat;
+        return new Matrix4f().setTranslation(x, y, z);
     }
 
     public static Matrix4f scale(float sx, float sy, float sz) {
-        Matrix4f mat = new Matrix4f();
-        mat.m[0][0] = sx;
-        mat.m[1][1] = sy;
-        mat.m[2][2] = sz;
-        return mat;
+        return new Matrix4f().setScale(sx, sy, sz);
+    }
+
+    public Matrix4f setTranslation(float x, float y, float z) {
+        identity();
+        m[3] = x;
+        m[7] = y;
+        m[11] = z;
+        return this;
+    }
+
+    public Matrix4f setScale(float sx, float sy, float sz) {
+        identity();
+        m[0] = sx;
+        m[5] = sy;
+        m[10] = sz;
+        return this;
     }
 
     //透视投影矩阵
     public static Matrix4f perspective(float fov, float aspect, float near, float far) {
-        Matrix4f mat = new Matrix4f();
+        return new Matrix4f().setPerspective(fov, aspect, near, far);
+    }
+
+    public Matrix4f setPerspective(float fov, float aspect, float near, float far) {
+        identity();
         float f = 1.0f / (float)Math.tan(fov / 2.0f);
-        mat.m[0][0] = f / aspect;
-        mat.m[1][1] = f;
-        mat.m[2][2] = (far + near) / (near - far);
-        mat.m[2][3] = (2 * far * near) / (near - far);
-        mat.m[3][2] = -1f;
-        mat.m[3][3] = 0f;
-        return mat;
+        m[0] = f / aspect;
+        m[5] = f;
+        m[10] = (far + near) / (near - far);
+        m[11] = (2 * far * near) / (near - far);
+        m[14] = -1f;
+        m[15] = 0f;
+        return this;
     }
 
-    //向量变换
+    //向量变换 (含透视除法，返回新向量)
     public Vector3f transform(Vector3f v) {
-        float x = v.x * m[0][0] + v.y * m[0][1] + v.z * m[0][2] + m[0][3];
-        float y = v.x * m[1][0] + v.y * m[1][1] + v.z * m[1][2] + m[1][3];
-        float z = v.x * m[2][0] + v.y * m[2][1] + v.z * m[2][2] + m[2][3];
-        float w = v.x * m[3][0] + v.y * m[3][1] + v.z * m[3][2] + m[3][3];
+        return transform(v, new Vector3f());
+    }
+
+    /**
+     * 变换并做透视除法，结果写入 dest (可以就是 v 本身)
+     */
+    public Vector3f transform(Vector3f v, Vector3f dest) {
+        float x = v.x * m[0] + v.y * m[1] + v.z * m[2] + m[3];
+        float y = v.x * m[4] + v.y * m[5] + v.z * m[6] + m[7];
+        float z = v.x * m[8] + v.y * m[9] + v.z * m[10] + m[11];
+        float w = v.x * m[12] + v.y * m[13] + v.z * m[14] + m[15];
 
         if (w != 0f) {
             x /= w; y /= w; z /= w;
         }
-        return new Vector3f(x, y, z);
+        dest.x = x;
+        dest.y = y;
+        dest.z = z;
+        return dest;
+    }
+
+    /**
+     * 批量变换点 (w = 1)，输入和输出都是结构化数组 (SoA)。
+     * 输出为齐次裁剪坐标 (x, y, z, w)，不做透视除法；不分配任何对象。
+     */
+    public void transformPoints(float[] xs, float[] ys, float[] zs, int from, int count,
+                                float[] outX, float[] outY, float[] outZ, float[] outW) {
+        float m00 = m[0], m01 = m[1], m02 = m[2], m03 = m[3];
+        float m10 = m[4], m11 = m[5], m12 = m[6], m13 = m[7];
+        float m20 = m[8], m21 = m[9], m22 = m[10], m23 = m[11];
+        float m30 = m[12], m31 = m[13], m32 = m[14], m33 = m[15];
+
+        for (int i = 0; i < count; i++) {
+            float x = xs[from + i], y = ys[from + i], z = zs[from + i];
+            outX[i] = x * m00 + y * m01 + z * m02 + m03;
+            outY[i] = x * m10 + y * m11 + z * m12 + m13;
+            outZ[i] = x * m20 + y * m21 + z * m22 + m23;
+            outW[i] = x * m30 + y * m31 + z * m32 + m33;
+        }
     }
 }
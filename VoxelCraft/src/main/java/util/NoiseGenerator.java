@@ -1,16 +1,33 @@
 package util;
 
+import core.Config;
+
+import java.util.Arrays;
 import java.util.Random;
 
+/**
+ * Perlin 噪声。noise / noise2D 每次算一个采样；fill* 一次填满一整块网格 (一个 Chunk 的高度图、3D 密度场)，
+ * 沿 x 方向成行计算，有 jdk.incubator.vector 模块时按 SIMD 通道并行 (见 NoiseRowKernel)。
+ * 批量接口的结果和逐个调用 noise 相同。
+ */
 public class NoiseGenerator {
     private final int[] p = new int[512];
     private final int[] permutation = new int[256];
+    private final NoiseRowKernel kernel;
 
     public NoiseGenerator() {
         this(new Random().nextLong());
     }
 
     public NoiseGenerator(long seed) {
+        this(seed, Config.VECTOR_NOISE);
+    }
+
+    /**
+     * vectorized 为 true 时尽量使用 Vector API，运行时没有加 --add-modules jdk.incubator.vector 则退回标量实现
+     */
+    public NoiseGenerator(long seed, boolean vectorized) {
+        this.kernel = vectorized ? createVectorKernel() : new ScalarNoiseKernel();
         Random random = new Random(seed);
 
         // 初始化排列表
@@ -68,6 +85,87 @@ public class NoiseGenerator {
         return noise(x, 0, z);
     }
 
+    /**
+     * 是否在使用 Vector API 实现
+     */
+    public boolean isVectorized() {
+        return !(kernel instanceof ScalarNoiseKernel);
+    }
+
+    // --- 批量接口 ---
+    // 坐标都是世界坐标：第 i 列的 x 为 (x0 + i * step) * frequency，x0、step 为整数时和逐个调用
+    // noise(worldX * frequency, ...) 完全一致。out 按 x 最快、其次 z、最后 y 的顺序存放 (与 Chunk.index 相同)
+
+    /**
+     * out[j * nx + i] = noise2D((x0 + i * step) * frequency, (z0 + j * step) * frequency)
+     */
+    public void fillNoise2D(double x0, double z0, double step, double frequency, int nx, int nz, double[] out) {
+        fillFbm2D(x0, z0, step, frequency, 1, 2, 0.5, nx, nz, out);
+    }
+
+    /**
+     * 分形布朗运动 (fBm)：octaves 层噪声叠加，每层频率乘 lacunarity、振幅乘 gain，再除以振幅之和，
+     * 结果和单层噪声在同一个范围内。octaves 为 1 时等同于 fillNoise2D
+     */
+    public void fillFbm2D(double x0, double z0, double step, double frequency, int octaves, double lacunarity,
+                          double gain, int nx, int nz, double[] out) {
+        int count = nx * nz;
+        Arrays.fill(out, 0, count, 0);
+        double[] scratch = new double[NoiseRowKernel.SCRATCH];
+        double f = frequency, amplitude = 1, total = 0;
+        for (int o = 0; o < octaves; o++) {
+            for (int j = 0; j < nz; j++) {
+                kernel.addRow(p, x0, step, f, 0, (z0 + j * step) * f, nx, amplitude, out, j * nx, scratch);
+            }
+            total += amplitude;
+            f *= lacunarity;
+            amplitude *= gain;
+        }
+        scale(out, count, total);
+    }
+
+    /**
+     * 3D fBm：out[(k * nz + j) * nx + i] 为点 (x0 + i * step, y0 + k * stepY, z0 + j * step) 处的值，
+     * 竖直方向可以用不同的采样间距 (地形通常在 y 方向压扁)
+     */
+    public void fillFbm3D(double x0, double y0, double z0, double step, double stepY, double frequency, int octaves,
+                          double lacunarity, double gain, int nx, int ny, int nz, double[] out) {
+        int count = nx * ny * nz;
+        Arrays.fill(out, 0, count, 0);
+        double[] scratch = new double[NoiseRowKernel.SCRATCH];
+        double f = frequency, amplitude = 1, total = 0;
+        for (int o = 0; o < octaves; o++) {
+            for (int k = 0; k < ny; k++) {
+                double y = (y0 + k * stepY) * f;
+                for (int j = 0; j < nz; j++) {
+                    kernel.addRow(p, x0, step, f, y, (z0 + j * step) * f, nx, amplitude, out, (k * nz + j) * nx, scratch);
+                }
+            }
+            total += amplitude;
+            f *= lacunarity;
+            amplitude *= gain;
+        }
+        scale(out, count, total);
+    }
+
+    private static void scale(double[] out, int count, double total) {
+        if (total == 1) return;
+        double inv = 1 / total;
+        for (int i = 0; i < count; i++) out[i] *= inv;
+    }
+
+    private static NoiseRowKernel createVectorKernel() {
+        // 类里直接引用了 jdk.incubator.vector，模块不存在时连加载都会失败，所以先检查再反射创建
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (NoiseRowKernel) Class.forName("util.VectorNoiseKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar noise: " + e);
+            }
+        }
+        return new ScalarNoiseKernel();
+    }
+
     private double fade(double t) {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
@@ -0,0 +1,72 @@
+package util;
+
+/**
+ * 批量噪声的内层循环：沿 x 方向的一行采样 (y、z 固定)。
+ * <p>
+ * 一行里 y、z 的格子、相对坐标和缓和曲线只算一次；每个格子 8 个角的梯度只和 x 有关的部分是 gx * x，
+ * 其余 (y、z 两项) 在这一行上是常数，换格子时才重新查表。两种实现的浮点运算顺序和 NoiseGenerator.noise 一致，
+ * 结果逐位相同 (只有 ±0 的符号可能不同)，切换实现不会改变生成的地形。
+ */
+interface NoiseRowKernel {
+    // 一个格子的梯度分量占 CELL 个元素：[0, 8) 为 8 个角的 gx，[8, 16) 为 8 个角的常数项
+    int CELL = 16;
+    // scratch 的长度：能放下 4 个格子 (向量实现一组最多处理 4 个格子)
+    int SCRATCH = 4 * CELL;
+
+    /**
+     * out[offset + i] += amplitude * noise((x0 + i * step) * frequency, y, z)，i = 0 .. n - 1。
+     * y、z 是已经乘过频率的噪声空间坐标；scratch 至少 SCRATCH 个元素，由调用方提供以免每行分配
+     */
+    void addRow(int[] p, double x0, double step, double frequency, double y, double z,
+                int n, double amplitude, double[] out, int offset, double[] scratch);
+
+    /**
+     * 查出格子 X (已取模 256) 在这一行上 8 个角的梯度分量，写到 scratch[base, base + CELL)。
+     * 角的编号：第 0 位 x + 1，第 1 位 y + 1，第 2 位 z + 1。y、z 是格子内的相对坐标
+     */
+    static void cellGradients(int[] p, int X, int Y, int Z, double y, double z, double[] scratch, int base) {
+        int A = p[X] + Y, AA = p[A] + Z, AB = p[A + 1] + Z;
+        int B = p[X + 1] + Y, BA = p[B] + Z, BB = p[B + 1] + Z;
+        corner(p[AA], y, z, base, scratch);
+        corner(p[BA], y, z, base + 1, scratch);
+        corner(p[AB], y - 1, z, base + 2, scratch);
+        corner(p[BB], y - 1, z, base + 3, scratch);
+        corner(p[AA + 1], y, z - 1, base + 4, scratch);
+        corner(p[BA + 1], y, z - 1, base + 5, scratch);
+        corner(p[AB + 1], y - 1, z - 1, base + 6, scratch);
+        corner(p[BB + 1], y - 1, z - 1, base + 7, scratch);
+    }
+
+    /**
+     * 把 NoiseGenerator.grad 拆成 gx * x + (gy * y + gz * z)：grad 取 x、y、z 中的两个加上符号，
+     * 选中的分量系数为 ±1，没选中的为 0 (加上 ±0 不改变结果)。查表代替分支，哈希是随机的，分支几乎总是预测失败
+     */
+    private static void corner(int hash, double y, double z, int k, double[] scratch) {
+        int h = hash & 15;
+        scratch[k] = Gradients.X[h];
+        scratch[k + 8] = Gradients.Y[h] * y + Gradients.Z[h] * z;
+    }
+
+    /**
+     * 16 种哈希对应的梯度分量 (接口里不能有私有字段，放在嵌套类里)
+     */
+    final class Gradients {
+        static final double[] X = new double[16], Y = new double[16], Z = new double[16];
+
+        static {
+            for (int h = 0; h < 16; h++) {
+                double su = (h & 1) == 0 ? 1 : -1;
+                double sv = (h & 2) == 0 ? 1 : -1;
+                // 和 NoiseGenerator.grad 相同：u = h < 8 ? x : y，v = h < 4 ? y : (h == 12 || h == 14 ? x : z)
+                if (h < 8) X[h] = su;
+                else Y[h] = su;
+                if (h < 4) Y[h] = sv;
+                else if (h == 12 || h == 14) X[h] = sv;
+                else Z[h] = sv;
+            }
+        }
+
+        private Gradients() {
+        }
+    }
+}
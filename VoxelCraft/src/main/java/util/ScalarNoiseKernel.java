@@ -0,0 +1,54 @@
+package util;
+
+/**
+ * 标量实现：没有 jdk.incubator.vector 模块时使用，也处理向量实现剩下的尾部
+ */
+class ScalarNoiseKernel implements NoiseRowKernel {
+    @Override
+    public void addRow(int[] p, double x0, double step, double frequency, double y, double z,
+                       int n, double amplitude, double[] out, int offset, double[] scratch) {
+        addRange(p, x0, step, frequency, y, z, 0, n, amplitude, out, offset, scratch);
+    }
+
+    /**
+     * 只处理第 from 到 to - 1 个采样，会覆盖 scratch
+     */
+    static void addRange(int[] p, double x0, double step, double frequency, double y, double z,
+                         int from, int to, double amplitude, double[] out, int offset, double[] scratch) {
+        double fy = Math.floor(y), fz = Math.floor(z);
+        int Y = (int) fy & 255, Z = (int) fz & 255;
+        y -= fy;
+        z -= fz;
+        double v = fade(y), w = fade(z);
+
+        int cell = -1;
+        // 下标另用一个 double 计数：每次把 int 转成 double (cvtsi2sd) 会和上一轮的结果产生寄存器依赖，
+        // 整个循环被串行化，慢好几倍。(double) i == di，结果不变
+        double di = from;
+        for (int i = from; i < to; i++, di++) {
+            double x = (x0 + di * step) * frequency;
+            double fx = Math.floor(x);
+            int X = (int) fx & 255;
+            if (X != cell) {
+                NoiseRowKernel.cellGradients(p, X, Y, Z, y, z, scratch, 0);
+                cell = X;
+            }
+            x -= fx;
+            double x1 = x - 1;
+            double u = fade(x);
+            double value = lerp(w, lerp(v, lerp(u, scratch[0] * x + scratch[8], scratch[1] * x1 + scratch[9]),
+                            lerp(u, scratch[2] * x + scratch[10], scratch[3] * x1 + scratch[11])),
+                    lerp(v, lerp(u, scratch[4] * x + scratch[12], scratch[5] * x1 + scratch[13]),
+                            lerp(u, scratch[6] * x + scratch[14], scratch[7] * x1 + scratch[15])));
+            out[offset + i] += amplitude * value;
+        }
+    }
+
+    static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+}
@@ -0,0 +1,113 @@
+package util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 用 jdk.incubator.vector 一次算 SPECIES.length() 个相邻采样 (AVX2 上 4 个，AVX-512 上 8 个)。
+ * <p>
+ * 同一组里的采样通常只落在一两个格子里：每个格子的梯度分量广播到所有通道算一遍，再按通道所在的格子合并。
+ * 查表仍是标量的，只在换格子时做。频率很高、一组跨过太多格子时，这一组交给标量实现。
+ * <p>
+ * 只能通过 NoiseGenerator 反射加载：编译和运行都需要 --add-modules jdk.incubator.vector，
+ * 没有这个模块时 NoiseGenerator 退回 ScalarNoiseKernel。
+ */
+class VectorNoiseKernel implements NoiseRowKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // 一组跨过的格子数超过这个值就改用标量 (scratch 能放下的格子数)
+    private static final int MAX_CELLS = SCRATCH / CELL;
+    private static final double ROUND = 0x1.8p52;
+    private static final DoubleVector IOTA;
+
+    static {
+        double[] lanes = new double[SPECIES.length()];
+        for (int i = 0; i < lanes.length; i++) lanes[i] = i;
+        IOTA = DoubleVector.fromArray(SPECIES, lanes, 0);
+    }
+
+    @Override
+    public void addRow(int[] p, double x0, double step, double frequency, double y, double z,
+                       int n, double amplitude, double[] out, int offset, double[] scratch) {
+        int lanes = SPECIES.length();
+        // 只处理 x 递增、且整行都在 floor 的有效范围内的情况，其余交给标量实现
+        double xEnd = (x0 + (n - 1) * step) * frequency;
+        boolean vectorizable = step > 0 && frequency > 0 && Math.abs(x0 * frequency) < ROUND / 3 && Math.abs(xEnd) < ROUND / 3;
+        int bound = vectorizable ? SPECIES.loopBound(n) : 0;
+
+        double fy = Math.floor(y), fz = Math.floor(z);
+        int Y = (int) fy & 255, Z = (int) fz & 255;
+        double ry = y - fy, rz = z - fz;
+        double v = ScalarNoiseKernel.fade(ry), w = ScalarNoiseKernel.fade(rz);
+
+        int cached = -1; // scratch 第 0 组里是哪个格子的梯度
+        int i = 0;
+        double di = 0; // 同 ScalarNoiseKernel，避免循环里的 int -> double 转换
+        for (; i < bound; i += lanes, di += lanes) {
+            // 这一组首尾两个采样所在的格子 (和向量里的 floor 结果相同)
+            double first = Math.floor((x0 + di * step) * frequency);
+            double last = Math.floor((x0 + (di + lanes - 1) * step) * frequency);
+            int cells = (int) (last - first) + 1;
+            if (cells > MAX_CELLS) {
+                ScalarNoiseKernel.addRange(p, x0, step, frequency, y, z, i, i + lanes, amplitude, out, offset, scratch);
+                cached = -1;
+                continue;
+            }
+
+            // 查表是标量的，放在单独的方法里，调用时没有存活的向量 (向量跨方法调用会被装箱)
+            cached = lookupCells(p, first, cells, Y, Z, ry, rz, scratch, cached);
+
+            DoubleVector x = IOTA.add(di).mul(step).add(x0).mul(frequency);
+            // JDK 17 的 Vector API 没有 FLOOR，D2L 转换在 x86 上也没有内联 (比标量还慢)：加减 1.5 * 2^52 把 x 舍入到
+            // 最近的整数，再把比原值大的通道减 1。|x| < 2^51 时和 Math.floor 相同
+            DoubleVector fx = x.add(ROUND).sub(ROUND);
+            fx = fx.sub(1, fx.compare(VectorOperators.GT, x));
+            DoubleVector rx = x.sub(fx);
+            DoubleVector rx1 = rx.sub(1);
+            DoubleVector u = rx.mul(rx).mul(rx).mul(rx.mul(rx.mul(6).sub(15)).add(10));
+
+            // 每个格子用广播的梯度分量算一遍整组，再按 "通道所在格子 == 该格子" 合并。
+            // 逐个分量按掩码混合要 16 次 blend，比多算一遍还慢
+            DoubleVector value = DoubleVector.zero(SPECIES);
+            for (int c = 0, b = 0; c < cells; c++, b += CELL) {
+                // 8 个角的梯度：gx * rx + 常数项
+                DoubleVector g0 = rx.mul(scratch[b]).add(scratch[b + 8]);
+                DoubleVector g1 = rx1.mul(scratch[b + 1]).add(scratch[b + 9]);
+                DoubleVector g2 = rx.mul(scratch[b + 2]).add(scratch[b + 10]);
+                DoubleVector g3 = rx1.mul(scratch[b + 3]).add(scratch[b + 11]);
+                DoubleVector g4 = rx.mul(scratch[b + 4]).add(scratch[b + 12]);
+                DoubleVector g5 = rx1.mul(scratch[b + 5]).add(scratch[b + 13]);
+                DoubleVector g6 = rx.mul(scratch[b + 6]).add(scratch[b + 14]);
+                DoubleVector g7 = rx1.mul(scratch[b + 7]).add(scratch[b + 15]);
+                // lerp(t, a, b) = a + t * (b - a)，顺序和 NoiseGenerator.noise 一致
+                DoubleVector l01 = g0.add(u.mul(g1.sub(g0)));
+                DoubleVector l23 = g2.add(u.mul(g3.sub(g2)));
+                DoubleVector l45 = g4.add(u.mul(g5.sub(g4)));
+                DoubleVector l67 = g6.add(u.mul(g7.sub(g6)));
+                DoubleVector ly0 = l01.add(l23.sub(l01).mul(v));
+                DoubleVector ly1 = l45.add(l67.sub(l45).mul(v));
+                DoubleVector cell = ly0.add(ly1.sub(ly0).mul(w));
+                value = cells == 1 ? cell : value.blend(cell, fx.eq(first + c));
+            }
+            DoubleVector.fromArray(SPECIES, out, offset + i).add(value.mul(amplitude)).intoArray(out, offset + i);
+        }
+        if (i < n) {
+            ScalarNoiseKernel.addRange(p, x0, step, frequency, y, z, i, n, amplitude, out, offset, scratch);
+        }
+    }
+
+    /**
+     * 查出格子 first 到 first + cells - 1 的梯度，第 c 个放在 scratch 的第 c 组。cached 为第 0 组里已有的格子，返回新的值
+     */
+    private static int lookupCells(int[] p, double first, int cells, int Y, int Z, double ry, double rz,
+                                   double[] scratch, int cached) {
+        int X = (int) first & 255;
+        if (X != cached) {
+            NoiseRowKernel.cellGradients(p, X, Y, Z, ry, rz, scratch, 0);
+        }
+        for (int c = 1; c < cells; c++) {
+            NoiseRowKernel.cellGradients(p, (int) (first + c) & 255, Y, Z, ry, rz, scratch, c * CELL);
+        }
+        return X;
+    }
+}
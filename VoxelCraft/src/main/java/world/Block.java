@@ -7,8 +7,10 @@ public class Block {
     public static final byte GRASS = 1;
     public static final byte DIRT = 2;
     public static final byte STONE = 3;
+    public static final byte SAND = 4;
+    public static final byte COAL_ORE = 5;
+    public static final byte IRON_ORE = 6;
 
-    private byte id;
     // --- 更加自然的调色板 (Minecraft 风格) ---
     // 1. 草顶绿色：稍微暗淡一点的森林绿，不要太荧光
     private static final int COLOR_GRASS_TOP = 0xFF5D9438;
@@ -16,10 +18,11 @@ public class Block {
     private static final int COLOR_DIRT = 0xFF866043;
     // 3. 石头灰色：标准的灰
     private static final int COLOR_STONE = 0xFF7D7D7D;
-
-    public Block(byte id) {
-        this.id = id;
-    }
+    // 4. 沙子：偏暖的浅黄
+    private static final int COLOR_SAND = 0xFFD8C98E;
+    // 5. 矿石：整面一个颜色，煤矿深灰、铁矿带锈色
+    private static final int COLOR_COAL_ORE = 0xFF4B4B4B;
+    private static final int COLOR_IRON_ORE = 0xFFA88B72;
 
     public static int getColor(byte id, int dir) {
         switch (id) {
@@ -34,76 +37,85 @@ public class Block {
             case STONE:
                 return COLOR_STONE;
 
+            case SAND:
+                return COLOR_SAND;
+
+            case COAL_ORE:
+                return COLOR_COAL_ORE;
+
+            case IRON_ORE:
+                return COLOR_IRON_ORE;
+
             default:
                 return 0xFFFFFFFF; // 白色作为缺省错误色
         }
     }
 
-    public boolean isActive() {
-        return id != AIR;
-    }
-
-    public byte getId() {
-        return id;
-    }
     /**
      * 获取面的顶点。
      * 关键修正：统一所有面的绕序（Winding Order），确保所有朝外的面都被算作“正面”。
      */
     public static Vector3f[] getFaceVertices(int faceDir, float x, float y, float z) {
         float size = 0.5f;
+        return getBoxFaceVertices(faceDir, x - size, y - size, z - size, x + size, y + size, z + size);
+    }
 
+    /**
+     * 获取任意长方体 [x0,x1]x[y0,y1]x[z0,z1] 某个面的 4 个顶点，绕序与单个方块的面一致。
+     * Greedy Meshing 合并出来的大面也走这里。
+     */
+    public static Vector3f[] getBoxFaceVertices(int faceDir, float x0, float y0, float z0, float x1, float y1, float z1) {
         switch (faceDir) {
             case 0: // Front (Z+)
                 // 之前导致透明是因为逆时针/顺时针反了，现在调整顺序
                 return new Vector3f[]{
-                        new Vector3f(x - size, y + size, z + size), // 左上
-                        new Vector3f(x + size, y + size, z + size), // 右上
-                        new Vector3f(x + size, y - size, z + size), // 右下
-                        new Vector3f(x - size, y - size, z + size)  // 左下
+                        new Vector3f(x0, y1, z1), // 左上
+                        new Vector3f(x1, y1, z1), // 右上
+                        new Vector3f(x1, y0, z1), // 右下
+                        new Vector3f(x0, y0, z1)  // 左下
                 };
 
             case 1: // Back (Z-)
                 // 同样反转顺序
                 return new Vector3f[]{
-                        new Vector3f(x + size, y + size, z - size), // 右上 (相对Back视角的左上)
-                        new Vector3f(x - size, y + size, z - size),
-                        new Vector3f(x - size, y - size, z - size),
-                        new Vector3f(x + size, y - size, z - size)
+                        new Vector3f(x1, y1, z0), // 右上 (相对Back视角的左上)
+                        new Vector3f(x0, y1, z0),
+                        new Vector3f(x0, y0, z0),
+                        new Vector3f(x1, y0, z0)
                 };
 
             case 2: // Left (X-)
                 return new Vector3f[]{
-                        new Vector3f(x - size, y + size, z - size),
-                        new Vector3f(x - size, y + size, z + size),
-                        new Vector3f(x - size, y - size, z + size),
-                        new Vector3f(x - size, y - size, z - size)
+                        new Vector3f(x0, y1, z0),
+                        new Vector3f(x0, y1, z1),
+                        new Vector3f(x0, y0, z1),
+                        new Vector3f(x0, y0, z0)
                 };
 
             case 3: // Right (X+)
                 return new Vector3f[]{
-                        new Vector3f(x + size, y + size, z + size),
-                        new Vector3f(x + size, y + size, z - size),
-                        new Vector3f(x + size, y - size, z - size),
-                        new Vector3f(x + size, y - size, z + size)
+                        new Vector3f(x1, y1, z1),
+                        new Vector3f(x1, y1, z0),
+                        new Vector3f(x1, y0, z0),
+                        new Vector3f(x1, y0, z1)
                 };
 
             case 4: // Top (Y+)
                 // 你反馈这个面之前是能看到的，所以保持你现在的代码逻辑
                 // 这里用的是我推测能让你看到的那个正确版本
                 return new Vector3f[]{
-                        new Vector3f(x - size, y + size, z + size), // 左前
-                        new Vector3f(x - size, y + size, z - size), // 左后
-                        new Vector3f(x + size, y + size, z - size), // 右后
-                        new Vector3f(x + size, y + size, z + size)  // 右前
+                        new Vector3f(x0, y1, z1), // 左前
+                        new Vector3f(x0, y1, z0), // 左后
+                        new Vector3f(x1, y1, z0), // 右后
+                        new Vector3f(x1, y1, z1)  // 右前
                 };
 
             case 5: // Bottom (Y-)
                 return new Vector3f[]{
-                        new Vector3f(x - size, y - size, z - size),
-                        new Vector3f(x - size, y - size, z + size),
-                        new Vector3f(x + size, y - size, z + size),
-                        new Vector3f(x + size, y - size, z - size)
+                        new Vector3f(x0, y0, z0),
+                        new Vector3f(x0, y0, z1),
+                        new Vector3f(x1, y0, z1),
+                        new Vector3f(x1, y0, z0)
                 };
 
             default:
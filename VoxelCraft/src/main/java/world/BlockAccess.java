@@ -0,0 +1,18 @@
+package world;
+
+/**
+ * 只读的方块查询接口，构建网格时通过它拿到邻居 Chunk 的方块。
+ * World 是最直接的实现；后台线程构建网格时用 ChunkNeighbourhood，只访问预先取好的几个 Chunk。
+ */
+public interface BlockAccess {
+    /**
+     * 世界方块坐标处是否是实体方块，范围外视为空气
+     */
+    boolean isSolid(int blockX, int blockY, int blockZ);
+
+    /**
+     * Chunk (chunkX, chunkZ) 的方块存储，不可访问或还没生成时返回 null (视为全是空气)。
+     * 调用方只读，用于整列拷贝邻居的方块 (见 PaddedSection)
+     */
+    ChunkStorage getStorage(int chunkX, int chunkZ);
+}
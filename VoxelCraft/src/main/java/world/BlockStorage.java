@@ -0,0 +1,316 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * Chunk 一个竖直分段 (见 ChunkStorage) 的体素存储：一维原始数组 + 下标运算，取代 Block[][][] 对象数组。
+ * <p>
+ * 两种模式：
+ * 1. 平铺模式 (flat)：每个方块 1 字节，byte[volume]
+ * 2. 调色板模式 (paletted)：方块种类很少时，只存调色板下标，按 0/1/2/4 bit 紧凑打包进 long[]
+ * <p>
+ * 种类超过 16 种时自动退回平铺模式。下标由调用方计算 (见 Chunk.index)。
+ */
+public class BlockStorage {
+    // 调色板模式最多支持 4 bit (16 种方块)，再多就不如直接存字节
+    private static final int MAX_PALETTE_BITS = 4;
+
+    private final int volume;
+
+    // 平铺模式数据 (调色板模式下为 null)
+    private byte[] data;
+
+    // 调色板模式数据
+    private byte[] palette;
+    private int paletteSize;
+    private int bitsPerEntry; // 0 表示整块只有一种方块，不需要 words
+    private long[] words;
+
+    public BlockStorage(int volume) {
+        this.volume = volume;
+        // 默认全是空气：单值调色板，不分配任何体素数组
+        this.palette = new byte[]{Block.AIR};
+        this.paletteSize = 1;
+        this.bitsPerEntry = 0;
+    }
+
+    /**
+     * 按已知的调色板分配一个存储 (ChunkCodec 解码用)：palette 的前 paletteSize 个为用到的方块，
+     * 之后用 putDecoded 逐个写入，不经过平铺数组。种类超过 16 种时为平铺模式
+     */
+    static BlockStorage withPalette(int volume, byte[] palette, int paletteSize) {
+        BlockStorage s = new BlockStorage(volume);
+        int bits = bitsFor(paletteSize);
+        if (bits > MAX_PALETTE_BITS) {
+            s.setAll(new byte[volume]);
+            return s;
+        }
+        s.palette = Arrays.copyOf(palette, 1 << bits);
+        s.paletteSize = paletteSize;
+        s.bitsPerEntry = bits;
+        s.words = bits == 0 ? null : new long[s.wordCount(bits)];
+        return s;
+    }
+
+    /**
+     * 写入 withPalette 分配的存储：id 是调色板里的第 paletteIndex 种方块
+     */
+    void putDecoded(int index, int paletteIndex, byte id) {
+        if (data != null) {
+            data[index] = id;
+        } else {
+            writeBits(index, paletteIndex);
+        }
+    }
+
+    public byte get(int index) {
+        if (data != null) return data[index];
+        if (bitsPerEntry == 0) return palette[0];
+
+        int bitIndex = index * bitsPerEntry;
+        long word = words[bitIndex >>> 6];
+        return palette[(int) (word >>> (bitIndex & 63)) & ((1 << bitsPerEntry) - 1)];
+    }
+
+    public void set(int index, byte id) {
+        if (data != null) {
+            data[index] = id;
+            return;
+        }
+
+        int paletteIndex = indexOf(id);
+        if (paletteIndex < 0) {
+            paletteIndex = addToPalette(id);
+            // 调色板装不下了，已经转成平铺模式
+            if (data != null) {
+                data[index] = id;
+                return;
+            }
+        }
+        writeBits(index, paletteIndex);
+    }
+
+    /**
+     * 直接接管一个平铺数组 (长度必须等于 volume)，通常紧接着调用 compact()。
+     * 地形生成一次写满整个 Chunk，先写字节数组比逐个 set 触发调色板扩容要快。
+     */
+    public void setAll(byte[] flat) {
+        if (flat.length != volume) throw new IllegalArgumentException("Expected " + volume + " blocks, got " + flat.length);
+        this.data = flat;
+        this.palette = null;
+        this.words = null;
+    }
+
+    /**
+     * 按下标顺序把所有方块解码到 out (长度至少 volume)。调色板模式下每个 long 只读一次，比逐个 get 快得多
+     */
+    public void copyTo(byte[] out) {
+        copyTo(0, out, 0, volume);
+    }
+
+    /**
+     * 把下标 [from, from + length) 的方块按顺序解码到 out[offset, offset + length)，用于只取几层 (见 PaddedSection)
+     */
+    public void copyTo(int from, byte[] out, int offset, int length) {
+        if (data != null) {
+            System.arraycopy(data, from, out, offset, length);
+            return;
+        }
+        if (bitsPerEntry == 0) {
+            Arrays.fill(out, offset, offset + length, palette[0]);
+            return;
+        }
+        int perWord = 64 / bitsPerEntry;
+        int mask = (1 << bitsPerEntry) - 1;
+        int end = offset + length;
+        // 第一个 long 可能从中间开始
+        int w = from / perWord;
+        int k = from % perWord;
+        for (int i = offset; i < end; w++, k = 0) {
+            long word = words[w] >>> (k * bitsPerEntry);
+            int n = Math.min(perWord - k, end - i);
+            for (int j = 0; j < n; j++) {
+                out[i + j] = palette[(int) word & mask];
+                word >>>= bitsPerEntry;
+            }
+            i += n;
+        }
+    }
+
+    /**
+     * 批量生成后调用：统计实际用到的方块种类，选择最省内存的模式重新编码。
+     */
+    public void compact() {
+        boolean[] used = new boolean[256];
+        int distinct = 0;
+        for (int i = 0; i < volume; i++) {
+            int id = get(i) & 0xFF;
+            if (!used[id]) {
+                used[id] = true;
+                distinct++;
+            }
+        }
+
+        int bits = bitsFor(distinct);
+        if (bits > MAX_PALETTE_BITS) {
+            toFlat();
+            return;
+        }
+
+        byte[] newPalette = new byte[1 << bits];
+        int[] lookup = new int[256];
+        int n = 0;
+        for (int id = 0; id < 256; id++) {
+            if (used[id]) {
+                lookup[id] = n;
+                newPalette[n++] = (byte) id;
+            }
+        }
+
+        long[] newWords = bits == 0 ? null : new long[wordCount(bits)];
+        for (int i = 0; i < volume && bits > 0; i++) {
+            int bitIndex = i * bits;
+            newWords[bitIndex >>> 6] |= (long) lookup[get(i) & 0xFF] << (bitIndex & 63);
+        }
+
+        this.data = null;
+        this.palette = newPalette;
+        this.paletteSize = distinct;
+        this.bitsPerEntry = bits;
+        this.words = newWords;
+    }
+
+    /**
+     * 深拷贝。后台线程可能还在读旧的存储时，修改方块前先拷贝一份 (写时复制，见 Chunk.setBlockId)
+     */
+    public BlockStorage copy() {
+        BlockStorage c = new BlockStorage(volume);
+        c.data = data == null ? null : data.clone();
+        c.palette = palette == null ? null : palette.clone();
+        c.paletteSize = paletteSize;
+        c.bitsPerEntry = bitsPerEntry;
+        c.words = words == null ? null : words.clone();
+        return c;
+    }
+
+    /**
+     * 是否全是空气。调色板模式下整个 long 和全是空气下标的位模式比较，遇到第一个不是空气的方块就返回
+     */
+    public boolean isAllAir() {
+        if (data != null) {
+            for (byte id : data) {
+                if (id != Block.AIR) return false;
+            }
+            return true;
+        }
+        int air = indexOf(Block.AIR);
+        if (air < 0) return false;
+        if (bitsPerEntry == 0) return true;
+        long pattern = 0;
+        for (int shift = 0; shift < 64; shift += bitsPerEntry) pattern |= (long) air << shift;
+        int fullWords = volume * bitsPerEntry >>> 6;
+        for (int w = 0; w < fullWords; w++) {
+            if (words[w] != pattern) return false;
+        }
+        // 最后一个 long 可能没填满
+        for (int i = fullWords * 64 / bitsPerEntry; i < volume; i++) {
+            if (readBits(i) != air) return false;
+        }
+        return true;
+    }
+
+    public boolean isPaletted() {
+        return data == null;
+    }
+
+    public int getPaletteSize() {
+        return data == null ? paletteSize : -1;
+    }
+
+    public int getBitsPerEntry() {
+        return data == null ? bitsPerEntry : 8;
+    }
+
+    /**
+     * 估算存储占用的堆内存 (字节)。数组按 16 字节对象头计算，和 64 位 JVM 压缩指针下的实际值接近。
+     */
+    public int getFootprintBytes() {
+        int bytes = 16 + 4 * 4 + 4 * 3; // 对象头 + 字段
+        if (data != null) return bytes + arrayBytes(data.length);
+        bytes += arrayBytes(palette.length);
+        if (words != null) bytes += arrayBytes(words.length * 8);
+        return bytes;
+    }
+
+    // --- 内部实现 ---
+
+    private int indexOf(byte id) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private int addToPalette(byte id) {
+        if (paletteSize == (1 << bitsPerEntry)) {
+            int newBits = bitsPerEntry == 0 ? 1 : bitsPerEntry * 2;
+            if (newBits > MAX_PALETTE_BITS) {
+                toFlat();
+                return -1;
+            }
+            resize(newBits);
+        }
+        palette[paletteSize] = id;
+        return paletteSize++;
+    }
+
+    private void resize(int newBits) {
+        long[] newWords = new long[wordCount(newBits)];
+        for (int i = 0; i < volume; i++) {
+            int paletteIndex = bitsPerEntry == 0 ? 0 : readBits(i);
+            int bitIndex = i * newBits;
+            newWords[bitIndex >>> 6] |= (long) paletteIndex << (bitIndex & 63);
+        }
+        this.palette = Arrays.copyOf(palette, 1 << newBits);
+        this.bitsPerEntry = newBits;
+        this.words = newWords;
+    }
+
+    private void toFlat() {
+        byte[] flat = new byte[volume];
+        for (int i = 0; i < volume; i++) flat[i] = get(i);
+        this.data = flat;
+        this.palette = null;
+        this.words = null;
+    }
+
+    private int readBits(int index) {
+        int bitIndex = index * bitsPerEntry;
+        return (int) (words[bitIndex >>> 6] >>> (bitIndex & 63)) & ((1 << bitsPerEntry) - 1);
+    }
+
+    private void writeBits(int index, int value) {
+        if (bitsPerEntry == 0) return; // 单值调色板，写入的一定就是那唯一的值
+        int bitIndex = index * bitsPerEntry;
+        int shift = bitIndex & 63;
+        long mask = (long) ((1 << bitsPerEntry) - 1) << shift;
+        words[bitIndex >>> 6] = (words[bitIndex >>> 6] & ~mask) | ((long) value << shift);
+    }
+
+    private int wordCount(int bits) {
+        return (volume * bits + 63) >>> 6;
+    }
+
+    // 0/1/2/4/8: 只用能整除 64 的位宽，保证一个条目不会跨越两个 long
+    private static int bitsFor(int distinct) {
+        if (distinct <= 1) return 0;
+        if (distinct <= 2) return 1;
+        if (distinct <= 4) return 2;
+        if (distinct <= 16) return 4;
+        return 8;
+    }
+
+    private static int arrayBytes(int payload) {
+        return (16 + payload + 7) & ~7;
+    }
+}
@@ -1,136 +1,223 @@
 package world;
 
-import render.math.Vector3f;
-import util.NoiseGenerator;
-
-import java.util.ArrayList;
-import java.util.List;
+import core.Config;
 
 public class Chunk {
     public static final int SIZE = 16;
+    static final int SHIFT = 4; // log2(SIZE)，世界坐标 >> SHIFT 即 Chunk 坐标 (负数也向下取整)
     public static final int HEIGHT = 32;
-    private static final NoiseGenerator noiseGen = new NoiseGenerator(12345L);
-    private Block[][][] blocks;
-    private List<RenderFace> mesh; // 修改类型
-    private int chunkX, chunkZ;
-
-    public Chunk(int startX, int startZ) {
-        this.chunkX = startX;
-        this.chunkZ = startZ;
-        this.blocks = new Block[SIZE][HEIGHT][SIZE];
-        this.mesh = new ArrayList<>();
-
-        generateTerrain();
-    }
-
-    private void generateTerrain() {
-        // (保持原来的噪声生成逻辑不变...)
-        for (int x = 0; x < SIZE; x++) {
-            for (int z = 0; z < SIZE; z++) {
-                int worldX = chunkX * SIZE + x;
-                int worldZ = chunkZ * SIZE + z;
-
-                // 地形平缓一点，方便测试光照
-                double frequency = 0.05;
-                double amplitude = 8.0;
-                double noiseValue = noiseGen.noise2D(worldX * frequency, worldZ * frequency);
-                int surfaceHeight = (int) (10 + noiseValue * amplitude);
-
-                if (surfaceHeight < 1) surfaceHeight = 1;
-                if (surfaceHeight >= HEIGHT) surfaceHeight = HEIGHT - 1;
-
-                for (int y = 0; y < HEIGHT; y++) {
-                    if (y == surfaceHeight) blocks[x][y][z] = new Block(Block.GRASS);
-                    else if (y < surfaceHeight && y > surfaceHeight - 3) blocks[x][y][z] = new Block(Block.DIRT);
-                    else if (y <= surfaceHeight - 3) blocks[x][y][z] = new Block(Block.STONE);
-                    else blocks[x][y][z] = new Block(Block.AIR);
-                }
-            }
+    public static final int VOLUME = SIZE * HEIGHT * SIZE;
+    // 所有 Chunk 共用的地形生成器 (无状态，后台线程并发调用)
+    private static final TerrainGenerator generator = Config.DENSITY_TERRAIN
+            ? new DensityGenerator(Config.WORLD_SEED) : new HeightmapGenerator(Config.WORLD_SEED);
+    // 方块存储和网格都按 16 格高的竖直分段 (Section) 划分：空的分段不占内存、不构建网格，渲染时可以逐段做视锥剔除
+    public static final int SECTION_HEIGHT = 16;
+    public static final int SECTIONS = HEIGHT / SECTION_HEIGHT;
+    // dirtySections 等按位记录分段的 int 最多 32 个分段
+    static final int ALL_SECTIONS = -1 >>> (32 - SECTIONS);
+    private final int chunkX, chunkZ;
+    // 按分段存放的方块，下标见 index()。后台生成完成、由游戏线程装入之前为 null
+    private ChunkStorage blocks;
+    // 当前网格，构建完成后整体替换 (volatile 写即发布给渲染线程)。尚未构建过时为 null
+    private volatile ChunkMesh mesh;
+
+    // 流式加载 / 重建状态，只在游戏线程上由 World 读写
+    boolean taskInFlight;  // 有生成或网格任务在后台线程上排队 / 执行
+    int dirtySections;     // 需要 (重新) 构建网格的分段，按位对应 section
+    boolean remeshQueued;  // 已经在 World 的重建队列里
+    boolean unsaved;       // 新生成或修改过，还没交给 ChunkStore 保存
+    private boolean blocksShared; // 当前的 blocks 已经交给后台任务读取，再修改前要先拷贝
+    // ChunkCache 的 LRU 链表指针，只由 ChunkCache 维护
+    Chunk lruNewer, lruOlder;
+
+    /**
+     * 创建一个空的 Chunk 占位，方块数据由 generateTerrain 在后台生成后通过 setBlocks 装入
+     */
+    public Chunk(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    private Chunk(int chunkX, int chunkZ, ChunkStorage blocks) {
+        this(chunkX, chunkZ);
+        this.blocks = blocks;
+    }
+
+    /**
+     * 局部坐标 -> 一维下标。x 变化最快，同一水平层的 16x16 方块连续存放。
+     */
+    public static int index(int x, int y, int z) {
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    /**
+     * 用 Config 选择的生成器生成指定 Chunk 的地形。不碰任何 Chunk 对象，可以在任意线程上并发调用。
+     */
+    public static ChunkStorage generateTerrain(int chunkX, int chunkZ) {
+        return generateTerrain(generator, chunkX, chunkZ);
+    }
+
+    /**
+     * 用指定的生成器生成地形：先写进一个平铺数组，写完后再按分段压缩 (空的分段直接丢掉)
+     */
+    public static ChunkStorage generateTerrain(TerrainGenerator generator, int chunkX, int chunkZ) {
+        byte[] ids = new byte[VOLUME];
+        generator.generate(chunkX, chunkZ, ids);
+        return ChunkStorage.fromFlat(ids);
+    }
+
+    void setBlocks(ChunkStorage blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * 修改一个局部坐标的方块 (只在游戏线程上调用)，返回是否真的变了。
+     * 当前存储正被后台网格任务读取时先拷贝再改，后台线程看到的始终是提交任务那一刻的数据。
+     */
+    boolean setBlockId(int x, int y, int z, byte id) {
+        int i = index(x, y, z);
+        if (blocks.get(i) == id) return false;
+        if (blocksShared) {
+            blocks = blocks.copy();
+            blocksShared = false;
         }
+        blocks.set(i, id);
+        unsaved = true;
+        return true;
     }
 
-    // 辅助方法 (和之前一样)
-    public Block getBlock(int x, int y, int z) {
-        if (x < 0 || x >= SIZE || y < 0 || y >= HEIGHT || z < 0 || z >= SIZE) return null;
-        return blocks[x][y][z];
+    /**
+     * 把当前方块存储交给后台线程读取，之后的修改都会先拷贝
+     */
+    ChunkStorage shareBlocks() {
+        blocksShared = true;
+        return blocks;
     }
 
-    // (World isSolid 会用到这个逻辑的变体，这里保留给 Chunk 内部使用)
-    private boolean isVoid(int x, int y, int z) {
-        if (x < 0 || x >= SIZE || y < 0 || y >= HEIGHT || z < 0 || z >= SIZE) return true;
-        return !blocks[x][y][z].isActive();
+    /**
+     * 坐标相同、方块存储固定为当前这一份的副本，后台线程对它构建网格
+     */
+    Chunk snapshot() {
+        return new Chunk(chunkX, chunkZ, shareBlocks());
     }
 
-    // 新的 Mesh 构建方法，接收 World 以查询邻居
-    public void rebuildMesh(World world) {
-        mesh.clear();
-        for (int x = 0; x < SIZE; x++) {
-            for (int y = 0; y < HEIGHT; y++) {
-                for (int z = 0; z < SIZE; z++) {
-                    if (!blocks[x][y][z].isActive()) continue;
-
-                    // 获取方块 ID，以便查询颜色
-                    byte blockID = blocks[x][y][z].getId();
-                    // 计算全局坐标
-                    int worldX = chunkX * SIZE + x;
-                    int worldY = y;
-                    int worldZ = chunkZ * SIZE + z;
-
-                    // 这里直接问 World：我这个面的邻居是实心的吗？
-                    // 如果不是实心(是空气)，我就画出这个面
-                    // 将 blockID 传给 addFace
-                    if (!world.isSolid(worldX, worldY, worldZ + 1)) addFace(0, worldX, worldY, worldZ, blockID);
-                    if (!world.isSolid(worldX, worldY, worldZ - 1)) addFace(1, worldX, worldY, worldZ, blockID);
-                    if (!world.isSolid(worldX - 1, worldY, worldZ)) addFace(2, worldX, worldY, worldZ, blockID);
-                    if (!world.isSolid(worldX + 1, worldY, worldZ)) addFace(3, worldX, worldY, worldZ, blockID);
-                    if (!world.isSolid(worldX, worldY + 1, worldZ)) addFace(4, worldX, worldY, worldZ, blockID);
-                    if (!world.isSolid(worldX, worldY - 1, worldZ)) addFace(5, worldX, worldY, worldZ, blockID);
-                }
+    public boolean isGenerated() {
+        return blocks != null;
+    }
+
+    // 辅助方法：越界或尚未生成时返回空气
+    public byte getBlockId(int x, int y, int z) {
+        if (x < 0 || x >= SIZE || y < 0 || y >= HEIGHT || z < 0 || z >= SIZE) return Block.AIR;
+        if (blocks == null) return Block.AIR;
+        return blocks.get(index(x, y, z));
+    }
+
+    public ChunkStorage getStorage() {
+        return blocks;
+    }
+
+    /**
+     * 估算本 Chunk 占用的堆内存 (字节)：体素存储 + 网格
+     */
+    public int getFootprintBytes() {
+        int bytes = 48;
+        if (blocks != null) bytes += blocks.getFootprintBytes();
+        ChunkMesh m = mesh;
+        if (m != null) bytes += m.getFootprintBytes();
+        return bytes;
+    }
+
+    /**
+     * 构建所有分段的网格并返回，不修改本 Chunk。只读方块数据，可以在后台线程上调用。
+     * 具体的构建策略 (逐面 / Greedy) 由传入的 Mesher 决定，邻居通过 blocks 查询。
+     */
+    public ChunkMesh buildMesh(Mesher mesher, BlockAccess blocks) {
+        return buildMesh(mesher, blocks, ALL_SECTIONS, null);
+    }
+
+    /**
+     * 只重建 sectionMask 中的分段，其余分段直接沿用 base 里的网格 (Mesh 构建后只读，可以共享)。
+     * base 为 null 时全部重建。
+     */
+    public ChunkMesh buildMesh(Mesher mesher, BlockAccess blocks, int sectionMask, ChunkMesh base) {
+        Mesh[] sections = new Mesh[SECTIONS];
+        // 每个分段先拷贝成带一圈邻居的局部数据、算好可见面，Mesher 不再逐个面查询 blocks
+        PaddedSection padded = new PaddedSection();
+        for (int section = 0; section < SECTIONS; section++) {
+            if (base != null && (sectionMask & (1 << section)) == 0) {
+                sections[section] = base.getSection(section);
+                continue;
+            }
+            // 全是空气的分段不用拷贝就知道没有可见面
+            if (this.blocks.getSection(section) == null || !padded.fill(this, blocks, section)) {
+                sections[section] = ChunkMesh.EMPTY_SECTION;
+                continue;
             }
+            // 按可见面数分配，逐面构建时不用扩容，trim 也不用再拷贝
+            Mesh newMesh = new Mesh(padded.getVisibleFaceCount());
+            mesher.build(padded, newMesh);
+            newMesh.trim();
+            sections[section] = newMesh;
         }
+        return new ChunkMesh(sections);
+    }
+
+    /**
+     * 原子地换上新网格，渲染线程下一次 getChunkMesh 就会看到
+     */
+    public void setMesh(ChunkMesh mesh) {
+        this.mesh = mesh;
+    }
+
+    // 在当前线程上同步重建网格：使用 World 当前选择的 Mesher，直接向 World 查询邻居
+    public void rebuildMesh(World world) {
+        setMesh(buildMesh(world.getMesher(), world));
+    }
+
+    /**
+     * 是否已经有网格 (新生成的 Chunk 要等四周邻居都生成后才构建)
+     */
+    public boolean isMeshed() {
+        return mesh != null;
+    }
+
+    public int getChunkX() {
+        return chunkX;
     }
 
-    // --- 修改点：存 RenderFace 而不是 Vector3f[] ---
-    private void addFace(int dir, float x, float y, float z, byte id) {
-        // 调用 Block.getColor 获取正确的颜色 (例如：草的顶面绿，侧面褐)
-        int color = Block.getColor(id, dir);
-        mesh.add(new RenderFace(Block.getFaceVertices(dir, x, y, z), dir, color));
+    public int getChunkZ() {
+        return chunkZ;
     }
 
-    public List<RenderFace> getMesh() {
+    /**
+     * 当前网格的快照，尚未构建时为 null。渲染时每帧只取一次，避免中途被替换
+     */
+    public ChunkMesh getChunkMesh() {
         return mesh;
     }
 
-    // --- 新增：简单的数据结构用于传输渲染数据 ---
-    public static class RenderFace {
-        public Vector3f[] vertices;
-        public Vector3f normal;
-        public int color;
-
-        public RenderFace(Vector3f[] vertices, int dirIndex, int color) {
-            this.vertices = vertices;
-            this.color = color;
-            // 根据朝向索引快速生成法线向量 (简化计算)
-            switch (dirIndex) {
-                case 0:
-                    this.normal = new Vector3f(0, 0, 1);
-                    break;  // Front
-                case 1:
-                    this.normal = new Vector3f(0, 0, -1);
-                    break; // Back
-                case 2:
-                    this.normal = new Vector3f(-1, 0, 0);
-                    break; // Left
-                case 3:
-                    this.normal = new Vector3f(1, 0, 0);
-                    break;  // Right
-                case 4:
-                    this.normal = new Vector3f(0, 1, 0);
-                    break;  // Top
-                case 5:
-                    this.normal = new Vector3f(0, -1, 0);
-                    break; // Bottom
-            }
-        }
+    /**
+     * 所有 Section 的面数之和
+     */
+    public int getFaceCount() {
+        ChunkMesh m = mesh;
+        return m == null ? 0 : m.getFaceCount();
+    }
+
+    // 整个 Chunk 网格的包围盒 (渲染坐标，方块中心在整数上，所以 x/z 从 -0.5 开始)
+    public float getMinX() {
+        return chunkX * SIZE - 0.5f;
+    }
+
+    public float getMaxX() {
+        return chunkX * SIZE + SIZE - 0.5f;
+    }
+
+    public float getMinZ() {
+        return chunkZ * SIZE - 0.5f;
+    }
+
+    public float getMaxZ() {
+        return chunkZ * SIZE + SIZE - 0.5f;
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package world;
+
+/**
+ * 以 (chunkX, chunkZ) 打包成的 long 为键的 Chunk 缓存。
+ * <p>
+ * 哈希表是开放寻址 + 线性探测，键存在 long[] 里，不装箱、查找不分配对象；删除用向后移位，不留墓碑。
+ * 所有 Chunk 同时串在一条按访问时间排序的双向链表上 (链表指针直接放在 Chunk 里)，
+ * 最近使用的在表头，淘汰时从表尾取，touch / 淘汰都是 O(1)。
+ * <p>
+ * 非线程安全，只在游戏线程上访问。
+ */
+class ChunkCache {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private Chunk[] values; // null 表示空槽
+    private int mask;
+    private int shift;
+    private int size;
+
+    // LRU 链表：newest 最近使用，eldest 最久未用
+    private Chunk newest, eldest;
+
+    ChunkCache(int expectedChunks) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedChunks * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    Chunk get(int chunkX, int chunkZ) {
+        long key = key(chunkX, chunkZ);
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return null;
+    }
+
+    /**
+     * 加入一个新 Chunk (调用方保证坐标不重复)，并放到 LRU 表头
+     */
+    void put(Chunk chunk) {
+        if ((size + 1) * 2 > values.length) rehash(values.length * 2);
+        insert(key(chunk.getChunkX(), chunk.getChunkZ()), chunk);
+        size++;
+        linkFirst(chunk);
+    }
+
+    Chunk remove(int chunkX, int chunkZ) {
+        long key = key(chunkX, chunkZ);
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                Chunk chunk = values[i];
+                removeAt(i);
+                size--;
+                unlink(chunk);
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 标记为最近使用
+     */
+    void touch(Chunk chunk) {
+        if (newest == chunk) return;
+        unlink(chunk);
+        linkFirst(chunk);
+    }
+
+    /**
+     * 最近使用的 Chunk，沿 Chunk.lruOlder 可以遍历全部
+     */
+    Chunk newest() {
+        return newest;
+    }
+
+    /**
+     * 最久未使用的 Chunk，淘汰候选
+     */
+    Chunk eldest() {
+        return eldest;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    private void insert(long key, Chunk chunk) {
+        int i = slot(key);
+        while (values[i] != null) i = (i + 1) & mask;
+        keys[i] = key;
+        values[i] = chunk;
+    }
+
+    /**
+     * 向后移位删除：把后面探测链上"本该更靠前"的条目挪进空洞，保证查找不会提前遇到空槽
+     */
+    private void removeAt(int slot) {
+        int hole = slot;
+        for (int i = (slot + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Chunk[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Chunk[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) insert(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void linkFirst(Chunk chunk) {
+        chunk.lruNewer = null;
+        chunk.lruOlder = newest;
+        if (newest != null) newest.lruNewer = chunk;
+        newest = chunk;
+        if (eldest == null) eldest = chunk;
+    }
+
+    private void unlink(Chunk chunk) {
+        if (chunk.lruNewer != null) chunk.lruNewer.lruOlder = chunk.lruOlder;
+        else newest = chunk.lruOlder;
+        if (chunk.lruOlder != null) chunk.lruOlder.lruNewer = chunk.lruNewer;
+        else eldest = chunk.lruNewer;
+        chunk.lruNewer = chunk.lruOlder = null;
+    }
+}
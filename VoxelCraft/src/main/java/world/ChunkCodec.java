@@ -0,0 +1,235 @@
+package world;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * 一个 Chunk 方块数据的二进制格式 (存档用，也可以直接用于网络传输)：按分段 (Section) 各自的调色板 + 按列的游程编码。
+ * <p>
+ * 地形在竖直方向上是成段的石头 / 泥土 / 空气，一列通常只有几段，所以每个分段按列 (x 最快，其次 z) 从下往上做游程编码，
+ * 每段是 indexBits 位的调色板下标 + LENGTH_BITS 位的 (长度 - 1)，紧凑地打包成位流，游程不跨列也不跨分段。
+ * 全是空气的分段只占分段位图里的一位。
+ * <pre>
+ *   byte     版本 (VERSION)
+ *   byte     Chunk.SIZE
+ *   u16      Chunk.HEIGHT (大端)
+ *   byte     Chunk.SECTION_HEIGHT
+ *   byte[]   分段位图：(SECTIONS + 7) / 8 字节，第 s 位 (字节 s / 8 的第 s % 8 位) 为 1 表示第 s 个分段不是全空气
+ *   对每个非空分段，从下往上：
+ *     byte     调色板大小 - 1
+ *     byte[]   调色板：用到的方块 id，从小到大
+ *     位流     游程，从每个字节的最高位开始，最后一个字节不足的位补 0
+ * </pre>
+ * 一个游程占 runBits = indexBits + LENGTH_BITS 向上取整到 4 的倍数 (多出的高位补 0)，indexBits = ceil(log2(调色板大小))，
+ * 只有一种方块时为 0；LENGTH_BITS = ceil(log2(SECTION_HEIGHT))。游程按半字节对齐后重复的游程落在相同的位置上，
+ * 外面再套一层 Deflate 时压缩得好得多 (实测从 396 字节降到 234 字节，编码本身只大 15%)。
+ * 解码直接把调色板下标写进各分段 BlockStorage 的打包数组，不经过平铺的字节数组，得到的存储和 compact() 之后的相同。
+ * 版本 1 (整个 Chunk 一个调色板、游程跨越整列) 仍然可以解码。
+ * <p>
+ * encode 复用实例里的缓冲区，一个实例只能在一个线程上使用；decode 是静态的，可以并发调用。
+ */
+public class ChunkCodec {
+    public static final int VERSION = 2;
+    private static final int HEADER_BYTES = 5;
+    private static final int SECTION_MASK_BYTES = (Chunk.SECTIONS + 7) / 8;
+    private static final int LENGTH_BITS = bitsFor(Chunk.SECTION_HEIGHT);
+    private static final int LAYER = Chunk.SIZE * Chunk.SIZE;
+
+    private final byte[] flat = new byte[ChunkStorage.SECTION_VOLUME];
+    private final boolean[] used = new boolean[256];
+    private final int[] lookup = new int[256];
+    private byte[] out = new byte[1024];
+
+    /**
+     * 编码 blocks，返回恰好为编码长度的新数组
+     */
+    public byte[] encode(ChunkStorage blocks) {
+        int length = encodeToBuffer(blocks); // 先编码：缓冲区可能在编码时换成更大的数组
+        return Arrays.copyOf(out, length);
+    }
+
+    /**
+     * 编码 blocks 到内部缓冲区，返回长度。结果用 getBuffer() 读取，下一次编码前有效
+     */
+    public int encodeToBuffer(ChunkStorage blocks) {
+        int pos = HEADER_BYTES + SECTION_MASK_BYTES;
+        ensureCapacity(pos);
+        out[0] = VERSION;
+        out[1] = Chunk.SIZE;
+        out[2] = (byte) (Chunk.HEIGHT >>> 8);
+        out[3] = (byte) Chunk.HEIGHT;
+        out[4] = Chunk.SECTION_HEIGHT;
+        Arrays.fill(out, HEADER_BYTES, pos, (byte) 0);
+        for (int s = 0; s < Chunk.SECTIONS; s++) {
+            BlockStorage section = blocks.getSection(s);
+            if (section == null) continue;
+            out[HEADER_BYTES + (s >>> 3)] |= (byte) (1 << (s & 7));
+            section.copyTo(flat);
+            pos = encodeSection(pos);
+        }
+        return pos;
+    }
+
+    /**
+     * 内部缓冲区，前 encodeToBuffer 返回的长度个字节为编码结果
+     */
+    public byte[] getBuffer() {
+        return out;
+    }
+
+    /**
+     * 解码 bytes[offset, offset + length)，格式或尺寸不符时抛出 DataFormatException
+     */
+    public static ChunkStorage decode(byte[] bytes, int offset, int length) throws DataFormatException {
+        int end = offset + length;
+        if (length < HEADER_BYTES) throw new DataFormatException("Chunk data too short: " + length + " bytes");
+        int version = bytes[offset];
+        if (version == 1) return decodeVersion1(bytes, offset, length);
+        if (version != VERSION) throw new DataFormatException("Unsupported chunk format version " + version);
+        int size = bytes[offset + 1] & 0xFF;
+        int height = (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+        int sectionHeight = bytes[offset + 4] & 0xFF;
+        if (size != Chunk.SIZE || height != Chunk.HEIGHT || sectionHeight != Chunk.SECTION_HEIGHT) {
+            throw new DataFormatException("Chunk size " + size + "x" + height + "/" + sectionHeight + ", expected "
+                    + Chunk.SIZE + "x" + Chunk.HEIGHT + "/" + Chunk.SECTION_HEIGHT);
+        }
+        int mask = offset + HEADER_BYTES;
+        int pos = mask + SECTION_MASK_BYTES;
+        if (pos > end) throw new DataFormatException("Truncated section mask");
+
+        ChunkStorage blocks = new ChunkStorage();
+        for (int s = 0; s < Chunk.SECTIONS; s++) {
+            if ((bytes[mask + (s >>> 3)] >>> (s & 7) & 1) == 0) continue;
+            if (pos >= end) throw new DataFormatException("Truncated section " + s);
+            int paletteSize = (bytes[pos] & 0xFF) + 1;
+            int palette = pos + 1;
+            pos = palette + paletteSize;
+            if (pos > end) throw new DataFormatException("Truncated palette in section " + s);
+            BlockStorage section = BlockStorage.withPalette(ChunkStorage.SECTION_VOLUME,
+                    Arrays.copyOfRange(bytes, palette, pos), paletteSize);
+            pos = decodeRuns(bytes, pos, end, bytes, palette, paletteSize, Chunk.SECTION_HEIGHT,
+                    runBits(paletteSize), LENGTH_BITS, section, null);
+            blocks.setSection(s, section);
+        }
+        return blocks;
+    }
+
+    /**
+     * 把 flat 里的一个分段编码到 out[pos...]，返回新的 pos
+     */
+    private int encodeSection(int pos) {
+        // 调色板：用到的方块按 id 从小到大 (和 BlockStorage.compact 的顺序相同)
+        Arrays.fill(used, false);
+        for (byte id : flat) used[id & 0xFF] = true;
+        ensureCapacity(pos + 1 + 256);
+        int paletteSize = 0;
+        for (int id = 0; id < 256; id++) {
+            if (!used[id]) continue;
+            lookup[id] = paletteSize;
+            out[pos + 1 + paletteSize++] = (byte) id;
+        }
+        out[pos] = (byte) (paletteSize - 1);
+        pos += 1 + paletteSize;
+
+        int runBits = runBits(paletteSize);
+        long acc = 0; // 还没写出的位在低 accBits 位
+        int accBits = 0;
+        for (int column = 0; column < LAYER; column++) {
+            int y = 0;
+            while (y < Chunk.SECTION_HEIGHT) {
+                byte id = flat[column + y * LAYER];
+                int run = 1;
+                while (y + run < Chunk.SECTION_HEIGHT && flat[column + (y + run) * LAYER] == id) run++;
+                acc = acc << runBits | (long) lookup[id & 0xFF] << LENGTH_BITS | (run - 1);
+                accBits += runBits;
+                // 一段最多 12 位，攒满一个字节就写出，acc 里不会超过 19 位
+                if (pos + 2 > out.length) ensureCapacity(pos + 2);
+                while (accBits >= 8) {
+                    accBits -= 8;
+                    out[pos++] = (byte) (acc >>> accBits);
+                }
+                y += run;
+            }
+        }
+        if (accBits > 0) {
+            ensureCapacity(pos + 1);
+            out[pos++] = (byte) (acc << (8 - accBits));
+        }
+        return pos;
+    }
+
+    /**
+     * 从 bytes[pos, end) 解码 SIZE x SIZE 列、每列 height 格的游程 (调色板在 palette[paletteStart...])，
+     * 写进 section (putDecoded) 或 flat (按 Chunk.index)，返回位流结束后的 pos
+     */
+    private static int decodeRuns(byte[] bytes, int pos, int end, byte[] palette, int paletteStart, int paletteSize,
+                                  int height, int runBits, int lengthBits, BlockStorage section, byte[] flat)
+            throws DataFormatException {
+        int runMask = (1 << runBits) - 1, lengthMask = (1 << lengthBits) - 1;
+        long acc = 0;
+        int accBits = 0;
+        for (int column = 0; column < LAYER; column++) {
+            int y = 0;
+            while (y < height) {
+                while (accBits < runBits) {
+                    if (pos >= end) throw new DataFormatException("Truncated run data");
+                    acc = acc << 8 | bytes[pos++] & 0xFF;
+                    accBits += 8;
+                }
+                accBits -= runBits;
+                int run = (int) (acc >>> accBits) & runMask;
+                int p = run >>> lengthBits;
+                int top = y + (run & lengthMask) + 1;
+                if (p >= paletteSize || top > height) {
+                    throw new DataFormatException("Bad run at column " + (column % Chunk.SIZE) + "," + (column / Chunk.SIZE) + " y " + y);
+                }
+                byte id = palette[paletteStart + p];
+                if (section != null) {
+                    for (; y < top; y++) section.putDecoded(column + y * LAYER, p, id);
+                } else {
+                    for (; y < top; y++) flat[column + y * LAYER] = id;
+                }
+            }
+        }
+        // 剩下不足一个游程的位是补齐用的 0，已经在最后一个字节里
+        return pos;
+    }
+
+    /**
+     * 版本 1：整个 Chunk 一个调色板，游程覆盖整列。先解码到平铺数组再分段
+     */
+    private static ChunkStorage decodeVersion1(byte[] bytes, int offset, int length) throws DataFormatException {
+        int end = offset + length;
+        int size = bytes[offset + 1] & 0xFF;
+        int height = (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+        if (size != Chunk.SIZE || height != Chunk.HEIGHT) {
+            throw new DataFormatException("Chunk size " + size + "x" + height + ", expected " + Chunk.SIZE + "x" + Chunk.HEIGHT);
+        }
+        int paletteSize = (bytes[offset + 4] & 0xFF) + 1;
+        int pos = offset + HEADER_BYTES + paletteSize;
+        if (pos > end) throw new DataFormatException("Truncated palette");
+        byte[] flat = new byte[Chunk.VOLUME];
+        int lengthBits = bitsFor(Chunk.HEIGHT);
+        decodeRuns(bytes, pos, end, bytes, offset + HEADER_BYTES, paletteSize, Chunk.HEIGHT,
+                bitsFor(paletteSize) + lengthBits, lengthBits, null, flat);
+        return ChunkStorage.fromFlat(flat);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > out.length) out = Arrays.copyOf(out, Math.max(capacity, out.length * 2));
+    }
+
+    /**
+     * 版本 2 里调色板大小为 paletteSize 时一个游程的位数
+     */
+    private static int runBits(int paletteSize) {
+        return (bitsFor(paletteSize) + LENGTH_BITS + 3) & ~3;
+    }
+
+    /**
+     * 表示 0 .. n - 1 需要的位数
+     */
+    private static int bitsFor(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+}
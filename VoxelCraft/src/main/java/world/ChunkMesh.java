@@ -0,0 +1,60 @@
+package world;
+
+/**
+ * 一个 Chunk 所有竖直分段的网格，外加整体的 y 范围和总面数。
+ * <p>
+ * 构建完成后不可变：后台线程构建好一个新的 ChunkMesh，再通过 Chunk 上的一次 volatile 写整体替换，
+ * 渲染线程每帧取一次引用，看到的分段网格和包围盒总是同一次构建的结果，不需要加锁。
+ */
+public final class ChunkMesh {
+    static final Mesh EMPTY_SECTION = new Mesh(0);
+
+    private final Mesh[] sections;
+    private final int faceCount;
+    // 所有非空分段在 y 方向的范围，Chunk 级视锥剔除用
+    private final float minY, maxY;
+
+    ChunkMesh(Mesh[] sections) {
+        float lo = Float.MAX_VALUE;
+        float hi = -Float.MAX_VALUE;
+        int faces = 0;
+        for (int i = 0; i < sections.length; i++) {
+            Mesh m = sections[i];
+            if (m.getFaceCount() == 0) {
+                sections[i] = EMPTY_SECTION;
+                continue;
+            }
+            faces += m.getFaceCount();
+            lo = Math.min(lo, m.getMinY());
+            hi = Math.max(hi, m.getMaxY());
+        }
+        this.sections = sections;
+        this.faceCount = faces;
+        this.minY = lo;
+        this.maxY = hi;
+    }
+
+    public Mesh getSection(int section) {
+        return sections[section];
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public int getFootprintBytes() {
+        int bytes = 32 + 16 + sections.length * 4;
+        for (Mesh m : sections) {
+            if (m != EMPTY_SECTION) bytes += m.getFootprintBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,45 @@
+package world;
+
+/**
+ * 一个 Chunk 和它四周 4 个邻居的方块存储，在游戏线程上取好后交给后台线程构建网格。
+ * 网格构建只会用到本 Chunk 和紧挨着的一圈方块，不会碰到对角的 Chunk，也不需要访问 World 的哈希表。
+ * <p>
+ * 取出的存储之后如果被修改会先被拷贝 (见 Chunk.shareBlocks)，所以后台线程读到的是一份不会再变的数据。
+ */
+final class ChunkNeighbourhood implements BlockAccess {
+    final Chunk center; // 中心 Chunk 的快照，方块存储是提交任务那一刻的
+    private final ChunkStorage east, west, south, north;
+
+    ChunkNeighbourhood(Chunk center, Chunk east, Chunk west, Chunk south, Chunk north) {
+        this.center = center.snapshot();
+        this.east = east.shareBlocks();
+        this.west = west.shareBlocks();
+        this.south = south.shareBlocks();
+        this.north = north.shareBlocks();
+    }
+
+    @Override
+    public boolean isSolid(int blockX, int blockY, int blockZ) {
+        if (blockY < 0 || blockY >= Chunk.HEIGHT) return false;
+        int dx = (blockX >> Chunk.SHIFT) - center.getChunkX();
+        int dz = (blockZ >> Chunk.SHIFT) - center.getChunkZ();
+        int x = blockX & (Chunk.SIZE - 1);
+        int z = blockZ & (Chunk.SIZE - 1);
+        if (dx == 0 && dz == 0) return center.getBlockId(x, blockY, z) != Block.AIR;
+
+        ChunkStorage blocks;
+        if (dz == 0) blocks = dx == 1 ? east : dx == -1 ? west : null;
+        else if (dx == 0) blocks = dz == 1 ? south : dz == -1 ? north : null;
+        else blocks = null;
+        return blocks != null && blocks.get(Chunk.index(x, blockY, z)) != Block.AIR;
+    }
+
+    @Override
+    public ChunkStorage getStorage(int chunkX, int chunkZ) {
+        int dx = chunkX - center.getChunkX();
+        int dz = chunkZ - center.getChunkZ();
+        if (dz == 0) return dx == 0 ? center.getStorage() : dx == 1 ? east : dx == -1 ? west : null;
+        if (dx == 0) return dz == 1 ? south : dz == -1 ? north : null;
+        return null;
+    }
+}
@@ -0,0 +1,138 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * 一个 Chunk 的方块存储：按 SECTION_HEIGHT 格高的竖直分段 (Section) 各用一个 BlockStorage，下标仍然是 Chunk.index。
+ * <p>
+ * 全是空气的分段不分配任何对象 (为 null，挖空一个分段时也会释放)，整段只有一种方块的分段是单值调色板
+ * (见 BlockStorage，也没有体素数组)。地形集中在底部，上面的分段大多是空的，深处的分段大多是整块石头，
+ * 所以 Chunk.HEIGHT 加高以后内存开销基本只随有地表 / 洞穴的分段数增长。网格构建据此跳过空的分段 (见 Chunk.buildMesh)。
+ * <p>
+ * 因为 y 是下标的最高维，第 s 个分段正好是下标 [s * SECTION_VOLUME, (s + 1) * SECTION_VOLUME) 这一段。
+ */
+public class ChunkStorage {
+    public static final int SECTION_VOLUME = Chunk.SIZE * Chunk.SECTION_HEIGHT * Chunk.SIZE;
+    private static final int SECTION_SHIFT = Integer.numberOfTrailingZeros(SECTION_VOLUME);
+
+    private final BlockStorage[] sections;
+
+    /**
+     * 全是空气的存储
+     */
+    public ChunkStorage() {
+        this.sections = new BlockStorage[Chunk.SECTIONS];
+    }
+
+    /**
+     * 按 Chunk.index 顺序的平铺数组 (长度 Chunk.VOLUME) 建立存储：空的分段丢掉，其余分段各自压缩成最省内存的模式
+     */
+    public static ChunkStorage fromFlat(byte[] ids) {
+        if (ids.length != Chunk.VOLUME) throw new IllegalArgumentException("Expected " + Chunk.VOLUME + " blocks, got " + ids.length);
+        ChunkStorage storage = new ChunkStorage();
+        for (int s = 0; s < Chunk.SECTIONS; s++) {
+            int from = s * SECTION_VOLUME;
+            if (isAllAir(ids, from)) continue;
+            BlockStorage section = new BlockStorage(SECTION_VOLUME);
+            section.setAll(Arrays.copyOfRange(ids, from, from + SECTION_VOLUME));
+            section.compact();
+            storage.sections[s] = section;
+        }
+        return storage;
+    }
+
+    public byte get(int index) {
+        BlockStorage section = sections[index >>> SECTION_SHIFT];
+        return section == null ? Block.AIR : section.get(index & (SECTION_VOLUME - 1));
+    }
+
+    public void set(int index, byte id) {
+        int s = index >>> SECTION_SHIFT;
+        BlockStorage section = sections[s];
+        if (section == null) {
+            if (id == Block.AIR) return;
+            section = sections[s] = new BlockStorage(SECTION_VOLUME);
+        }
+        section.set(index & (SECTION_VOLUME - 1), id);
+        // 只有写入空气才可能把分段挖空：释放它，全是空气的分段始终为 null
+        if (id == Block.AIR && section.isAllAir()) sections[s] = null;
+    }
+
+    /**
+     * 第 s 个分段的存储，全是空气时为 null。调用方只读
+     */
+    public BlockStorage getSection(int s) {
+        return sections[s];
+    }
+
+    /**
+     * 按下标顺序把所有方块解码到 out (长度至少 Chunk.VOLUME)
+     */
+    public void copyTo(byte[] out) {
+        copyTo(0, out, 0, Chunk.VOLUME);
+    }
+
+    /**
+     * 把下标 [from, from + length) 的方块按顺序解码到 out[offset, offset + length)，可以跨越分段
+     */
+    public void copyTo(int from, byte[] out, int offset, int length) {
+        int end = from + length;
+        while (from < end) {
+            int s = from >>> SECTION_SHIFT;
+            int local = from & (SECTION_VOLUME - 1);
+            int n = Math.min(SECTION_VOLUME - local, end - from);
+            BlockStorage section = sections[s];
+            if (section == null) Arrays.fill(out, offset, offset + n, Block.AIR);
+            else section.copyTo(local, out, offset, n);
+            from += n;
+            offset += n;
+        }
+    }
+
+    /**
+     * 深拷贝 (写时复制，见 Chunk.setBlockId)
+     */
+    public ChunkStorage copy() {
+        ChunkStorage c = new ChunkStorage();
+        for (int s = 0; s < Chunk.SECTIONS; s++) {
+            if (sections[s] != null) c.sections[s] = sections[s].copy();
+        }
+        return c;
+    }
+
+    /**
+     * 装入解码好的分段 (ChunkCodec 用)，null 表示全是空气
+     */
+    void setSection(int s, BlockStorage section) {
+        sections[s] = section;
+    }
+
+    /**
+     * 非空的分段数
+     */
+    public int getSectionCount() {
+        int n = 0;
+        for (BlockStorage section : sections) {
+            if (section != null) n++;
+        }
+        return n;
+    }
+
+    /**
+     * 估算占用的堆内存 (字节)：分段数组 + 各个非空分段
+     */
+    public int getFootprintBytes() {
+        int bytes = 16 + ((16 + 4 * Chunk.SECTIONS + 7) & ~7);
+        for (BlockStorage section : sections) {
+            if (section != null) bytes += section.getFootprintBytes();
+        }
+        return bytes;
+    }
+
+    private static boolean isAllAir(byte[] ids, int from) {
+        // 按位或起来再判断，不在每个方块上分支
+        int any = 0;
+        for (int i = from; i < from + SECTION_VOLUME; i++) any |= ids[i];
+        return any == 0;
+    }
+}
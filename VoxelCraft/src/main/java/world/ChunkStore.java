@@ -0,0 +1,212 @@
+package world;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Chunk 的持久化：按区域文件 (RegionFile，每个 32x32 个 Chunk) 保存在一个目录下，文件名 r.区域X.区域Z.region。
+ * <p>
+ * save 只把方块存储的快照放进待写表就返回，压缩和写盘都在后台的 "chunk-saver" 线程上做，游戏线程不会等磁盘。
+ * 同一个 Chunk 在写盘前被多次保存时只写最后一次。load 在 ChunkWorkers 的后台线程上调用，先查待写表
+ * (刚保存、还没写盘的版本)，再读区域文件；读不到时返回 null，由调用方重新生成。
+ * <p>
+ * 每个 Chunk 的记录先用 ChunkCodec 编码 (分段调色板 + 按列游程)，再单独做 Deflate 压缩；解压后由 ChunkCodec 直接解码进
+ * ChunkStorage。旧格式 (逐方块 1 字节再压缩) 的记录仍然可以读取，下次保存时换成新格式。
+ */
+public class ChunkStore implements AutoCloseable {
+    // 记录的格式字节：按 Chunk.index 顺序每个方块 1 字节，整体 Deflate 压缩 (只读)
+    static final byte FORMAT_DEFLATE_FLAT = 1;
+    // ChunkCodec 的编码，整体 Deflate 压缩
+    static final byte FORMAT_DEFLATE_CODEC = 2;
+
+    private final Path directory;
+    private final Map<Long, RegionFile> regions = new HashMap<>(); // 已打开的区域文件，由自身加锁
+    // 等待写盘的快照。快照在交给这里之前已经共享出去 (见 Chunk.shareBlocks)，之后不会再被修改
+    private final ConcurrentHashMap<Long, ChunkStorage> pending = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Thread saver;
+    private volatile boolean closed;
+    // 后台线程的压缩状态和缓冲区，只在 saver 线程上使用
+    private final ChunkCodec codec = new ChunkCodec();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[Chunk.VOLUME / 4];
+
+    public ChunkStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        saver = new Thread(this::saveLoop, "chunk-saver");
+        saver.setDaemon(true);
+        // 和 ChunkWorkers 一样比游戏线程低一档
+        saver.setPriority(Thread.NORM_PRIORITY - 1);
+        saver.start();
+    }
+
+    /**
+     * 把 blocks 作为 Chunk (chunkX, chunkZ) 的最新内容排队写盘，立即返回。blocks 之后不能再被修改
+     */
+    public void save(int chunkX, int chunkZ, ChunkStorage blocks) {
+        if (closed) throw new IllegalStateException("ChunkStore is closed");
+        long key = ChunkCache.key(chunkX, chunkZ);
+        pending.put(key, blocks);
+        // 重复入队无害：saver 取出时待写表里已经没有这个 Chunk 就跳过
+        queue.add(key);
+    }
+
+    /**
+     * 读出保存过的 Chunk，没有保存过或记录损坏时返回 null。可以在任意线程上并发调用
+     */
+    public ChunkStorage load(int chunkX, int chunkZ) {
+        ChunkStorage unsaved = pending.get(ChunkCache.key(chunkX, chunkZ));
+        // 待写的快照还要交给 saver，调用方拿到的要能修改，所以给一份拷贝
+        if (unsaved != null) return unsaved.copy();
+
+        try {
+            RegionFile region = region(chunkX, chunkZ, false);
+            if (region == null) return null;
+            byte[] format = new byte[1];
+            byte[] bytes = region.read(chunkX & (RegionFile.REGION_SIZE - 1), chunkZ & (RegionFile.REGION_SIZE - 1), format);
+            if (bytes == null) return null;
+            return decode(format[0], bytes);
+        } catch (IOException | DataFormatException e) {
+            // 读不出来就当作没保存过，重新生成
+            System.err.println("Failed to load chunk " + chunkX + "," + chunkZ + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * 还没写盘的 Chunk 数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 阻塞直到调用前排队的 Chunk 全部写完并刷到磁盘。退出前和 benchmark 用，游戏循环里不要调用
+     */
+    public void flush() throws IOException {
+        while (!pending.isEmpty()) {
+            synchronized (pending) {
+                try {
+                    pending.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing chunks", e);
+                }
+            }
+        }
+        synchronized (regions) {
+            for (RegionFile region : regions.values()) region.flush();
+        }
+    }
+
+    /**
+     * 写完所有排队的 Chunk，关闭区域文件
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        closed = true;
+        saver.interrupt();
+        synchronized (regions) {
+            for (RegionFile region : regions.values()) region.close();
+            regions.clear();
+        }
+    }
+
+    private void saveLoop() {
+        while (!closed) {
+            long key;
+            try {
+                key = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            ChunkStorage blocks = pending.get(key);
+            if (blocks == null) continue;
+            int chunkX = (int) (key >> 32), chunkZ = (int) key;
+            try {
+                int length = encode(blocks);
+                RegionFile region = region(chunkX, chunkZ, true);
+                region.write(chunkX & (RegionFile.REGION_SIZE - 1), chunkZ & (RegionFile.REGION_SIZE - 1),
+                        FORMAT_DEFLATE_CODEC, compressed, length);
+            } catch (IOException e) {
+                // 写盘失败不影响游戏，这个 Chunk 下次加载时重新生成
+                System.err.println("Failed to save chunk " + chunkX + "," + chunkZ + ": " + e);
+            }
+            // 写盘期间又被保存过的话，新快照留在表里，它的 key 也已经重新入队
+            pending.remove(key, blocks);
+            synchronized (pending) {
+                pending.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 把 blocks 编码、压缩进 compressed，返回压缩后的长度
+     */
+    private int encode(ChunkStorage blocks) {
+        int encoded = codec.encodeToBuffer(blocks);
+        deflater.reset();
+        deflater.setInput(codec.getBuffer(), 0, encoded);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    private static ChunkStorage decode(byte format, byte[] bytes) throws IOException, DataFormatException {
+        if (format != FORMAT_DEFLATE_FLAT && format != FORMAT_DEFLATE_CODEC) {
+            throw new IOException("Unknown chunk format " + format);
+        }
+        // 编码后通常只有 1KB 左右，旧格式为 VOLUME 字节
+        byte[] data = new byte[format == FORMAT_DEFLATE_FLAT ? Chunk.VOLUME : bytes.length * 8];
+        int length = 0;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            while (!inflater.finished()) {
+                if (length == data.length) data = Arrays.copyOf(data, data.length * 2);
+                int n = inflater.inflate(data, length, data.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated chunk record");
+                }
+                length += n;
+            }
+        } finally {
+            inflater.end();
+        }
+
+        if (format == FORMAT_DEFLATE_CODEC) return ChunkCodec.decode(data, 0, length);
+        if (length != Chunk.VOLUME) throw new DataFormatException("Expected " + Chunk.VOLUME + " blocks, got " + length);
+        return ChunkStorage.fromFlat(data);
+    }
+
+    /**
+     * Chunk 所在的区域文件。create 为 false 且文件不存在时返回 null
+     */
+    private RegionFile region(int chunkX, int chunkZ, boolean create) throws IOException {
+        int regionX = chunkX >> RegionFile.REGION_SHIFT, regionZ = chunkZ >> RegionFile.REGION_SHIFT;
+        long key = ChunkCache.key(regionX, regionZ);
+        synchronized (regions) {
+            RegionFile region = regions.get(key);
+            if (region != null) return region;
+            Path file = directory.resolve("r." + regionX + "." + regionZ + ".region");
+            if (!create && !Files.exists(file)) return null;
+            region = new RegionFile(file);
+            regions.put(key, region);
+            return region;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package world;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台的地形生成 (保存过的 Chunk 读存档) / 网格构建线程池。
+ * <p>
+ * 任务按提交时离玩家的距离排序 (近的先做)，同时在途的任务数有上限，玩家移动后新提交的近处任务不会排在一长串远处任务后面。
+ * 后台线程只产出结果 (ChunkStorage 或 ChunkMesh)，放进完成队列；由游戏线程在 World.update 里取出并装入 Chunk，
+ * 所以 World 的哈希表和 Chunk 的状态仍然只有游戏线程在改。
+ */
+class ChunkWorkers {
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentLinkedQueue<Task> completed = new ConcurrentLinkedQueue<>();
+    private final int maxInFlight;
+    private final ChunkStore store; // 为 null 时不读存档，总是重新生成
+    private int inFlight; // 已提交但还没被游戏线程取走的任务数，只在游戏线程上读写
+
+    // 当前玩家所在的 Chunk 和保留半径，任务开始执行前检查，已经离开范围的直接跳过
+    private volatile int centerX, centerZ;
+    private final int keepRadius;
+
+    ChunkWorkers(int threads, int keepRadius, ChunkStore store) {
+        this.keepRadius = keepRadius;
+        this.store = store;
+        this.maxInFlight = threads * 4;
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "chunk-worker-" + threadIndex.getAndIncrement());
+            t.setDaemon(true);
+            // 比游戏线程和光栅化线程低一档，单核机器上也不会抢走帧时间
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        // 先把线程都启动起来，之后所有任务都经过优先队列，不会有任务绕过排序直接交给新线程
+        executor.prestartAllCoreThreads();
+    }
+
+    void setCenter(int chunkX, int chunkZ) {
+        centerX = chunkX;
+        centerZ = chunkZ;
+    }
+
+    boolean isFull() {
+        return inFlight >= maxInFlight;
+    }
+
+    int getInFlight() {
+        return inFlight;
+    }
+
+    void submitGenerate(Chunk chunk, int priority) {
+        submit(new Task(this, chunk, priority, null, null, 0, null));
+    }
+
+    /**
+     * 重建 sections 中的分段，其余分段沿用 base (null 表示全部重建)
+     */
+    void submitMesh(Chunk chunk, int priority, Mesher mesher, ChunkNeighbourhood blocks, int sections, ChunkMesh base) {
+        submit(new Task(this, chunk, priority, mesher, blocks, sections, base));
+    }
+
+    /**
+     * 取出一个已完成 (或被跳过) 的任务，没有则返回 null。只在游戏线程上调用
+     */
+    Task poll() {
+        Task task = completed.poll();
+        if (task != null) inFlight--;
+        return task;
+    }
+
+    private void submit(Task task) {
+        task.chunk.taskInFlight = true;
+        inFlight++;
+        executor.execute(task);
+    }
+
+    private boolean isWanted(Chunk chunk) {
+        int dx = chunk.getChunkX() - centerX;
+        int dz = chunk.getChunkZ() - centerZ;
+        return dx * dx + dz * dz <= keepRadius * keepRadius;
+    }
+
+    static final class Task implements Runnable, Comparable<Task> {
+        final Chunk chunk;
+        private final ChunkWorkers owner;
+        private final int priority;
+        private final Mesher mesher; // null 表示生成任务
+        private final ChunkNeighbourhood blocks;
+        final int sections;
+        private final ChunkMesh base;
+
+        // 执行结果，都为 null 表示任务被跳过
+        ChunkStorage generated;
+        boolean loaded; // generated 是从存档读出来的 (而不是新生成的)
+        ChunkMesh mesh;
+        long meshNanos; // 构建网格花费的时间 (性能统计用)
+
+        Task(ChunkWorkers owner, Chunk chunk, int priority, Mesher mesher,
+             ChunkNeighbourhood blocks, int sections, ChunkMesh base) {
+            this.owner = owner;
+            this.chunk = chunk;
+            this.priority = priority;
+            this.mesher = mesher;
+            this.blocks = blocks;
+            this.sections = sections;
+            this.base = base;
+        }
+
+        boolean isMeshTask() {
+            return mesher != null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!owner.isWanted(chunk)) return;
+                if (mesher == null) {
+                    // 保存过的 Chunk 直接读存档，比重新生成便宜
+                    if (owner.store != null) generated = owner.store.load(chunk.getChunkX(), chunk.getChunkZ());
+                    loaded = generated != null;
+                    if (!loaded) generated = Chunk.generateTerrain(chunk.getChunkX(), chunk.getChunkZ());
+                } else {
+                    // 对快照构建，游戏线程在此期间修改方块不会影响这里读到的数据
+                    long start = System.nanoTime();
+                    mesh = blocks.center.buildMesh(mesher, blocks, sections, base);
+                    meshNanos = System.nanoTime() - start;
+                }
+            } finally {
+                // 放入并发队列是一个 happens-before 边，游戏线程取出后能看到完整的结果
+                owner.completed.add(this);
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return Integer.compare(priority, other.priority);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package world;
+
+import util.NoiseGenerator;
+
+import static world.Chunk.HEIGHT;
+import static world.Chunk.SIZE;
+
+/**
+ * 3D 密度场地形：密度 > 0 的地方是实体方块，可以生成悬崖、悬空的岩架和洞穴，这些都是高度图做不出来的。
+ * <p>
+ * 密度 = (基准高度 - y) + 起伏 * 3D 噪声，再和洞穴的密度取较小值。基准高度、起伏和表层方块由生物群系决定，
+ * 生物群系按低频的 2D "气候" 噪声选择，相邻群系之间线性混合，边界上不会出现断崖。
+ * <p>
+ * 噪声只在粗网格 (水平每 4 格、竖直每 4 格) 上计算，方块处的密度由三线性插值得到：一个 Chunk 只需要
+ * 5x9x5 个采样，而不是 16x32x16 个。地形的细节本来就比网格粗，插值看不出差别。
+ * <p>
+ * 所有字段不可变，NoiseGenerator 的批量接口也不共享临时数组，可以在多个线程上同时生成不同的 Chunk。
+ */
+public class DensityGenerator implements TerrainGenerator {
+    // 粗网格间距 (方块)，必须整除 SIZE 和 HEIGHT
+    private static final int STEP_XZ = 4;
+    private static final int STEP_Y = 4;
+    private static final int NX = SIZE / STEP_XZ + 1;
+    private static final int NY = HEIGHT / STEP_Y + 1;
+    // 方块在所在粗网格格子里的相对位置 (插值系数)。预先算好：循环里 int 转 double 会串行化整个循环
+    private static final double[] FRACTION_XZ = fractions(SIZE, STEP_XZ);
+    private static final double[] FRACTION_Y = fractions(HEIGHT, STEP_Y);
+
+    // 地形起伏：3 层 fBm。频率避开 1 / 4 的倍数，否则粗网格正好落在噪声的整数格点上 (Perlin 噪声在格点处为 0)
+    private static final double TERRAIN_FREQUENCY = 0.037;
+    private static final int TERRAIN_OCTAVES = 3;
+    // 洞穴：噪声值超过阈值的地方挖空。竖直方向的噪声坐标放大 CAVE_SQUASH 倍，洞穴扁而宽
+    private static final double CAVE_FREQUENCY = 0.043;
+    private static final double CAVE_SQUASH = 1.6;
+    private static final double CAVE_THRESHOLD = 0.22;
+    // 洞穴噪声换算成密度的系数 (大约是噪声每格的变化量的倒数，洞壁处的密度梯度和地表差不多)
+    private static final double CAVE_SCALE = 25;
+    // 基准高度以下 CAVE_COVER 格开始，每往上一格洞穴密度加 CAVE_COVER_SCALE
+    private static final double CAVE_COVER = 4;
+    private static final double CAVE_COVER_SCALE = 3;
+    // 气候：决定生物群系，频率很低，一个群系横跨几十个 Chunk
+    private static final double CLIMATE_FREQUENCY = 0.0047;
+    private static final int CLIMATE_OCTAVES = 2;
+
+    // 表层方块下面的填充层厚度
+    private static final int FILLER_DEPTH = 3;
+    // 矿脉格子的边长和一个格子成为矿脉的概率 (/ 1024)
+    private static final int VEIN = 2;
+    private static final int COAL_CHANCE = 12;
+    private static final int IRON_CHANCE = 7;
+    // 铁矿只出现在这个高度以下
+    private static final int IRON_MAX_Y = HEIGHT / 2;
+
+    /**
+     * 生物群系，按气候值从低到高排列。地形参数在相邻两个群系的 climate 之间线性混合
+     */
+    private enum Biome {
+        DESERT(-0.18, 9, 2.5, Block.SAND, Block.SAND),
+        PLAINS(0.0, 10, 4, Block.GRASS, Block.DIRT),
+        HILLS(0.18, 13, 11, Block.GRASS, Block.DIRT);
+
+        final double climate;
+        final double baseHeight; // 地表的平均高度
+        final double roughness;  // 3D 噪声的振幅 (方块)，越大起伏越大，也越容易出现悬空的岩架
+        final byte top, filler;
+
+        Biome(double climate, double baseHeight, double roughness, byte top, byte filler) {
+            this.climate = climate;
+            this.baseHeight = baseHeight;
+            this.roughness = roughness;
+            this.top = top;
+            this.filler = filler;
+        }
+    }
+
+    private static final Biome[] BIOMES = Biome.values();
+
+    private final long seed;
+    private final NoiseGenerator terrain;
+    private final NoiseGenerator caves;
+    private final NoiseGenerator climate;
+
+    public DensityGenerator(long seed) {
+        this.seed = seed;
+        this.terrain = new NoiseGenerator(seed);
+        // 每种噪声用不同的排列表，否则洞穴和地形的形状会重合
+        this.caves = new NoiseGenerator(mix(seed, 1, 0, 0));
+        this.climate = new NoiseGenerator(mix(seed, 2, 0, 0));
+    }
+
+    @Override
+    public void generate(int chunkX, int chunkZ, byte[] ids) {
+        int worldX = chunkX * SIZE, worldZ = chunkZ * SIZE;
+
+        // 1. 粗网格上的气候值 (下标 j * NX + i) 和混合后的地形参数
+        double[] climates = new double[NX * NX];
+        climate.fillFbm2D(worldX, worldZ, STEP_XZ, CLIMATE_FREQUENCY, CLIMATE_OCTAVES, 2, 0.5, NX, NX, climates);
+        double[] baseHeight = new double[NX * NX];
+        double[] roughness = new double[NX * NX];
+        for (int c = 0; c < climates.length; c++) {
+            int b = biomeBelow(climates[c]);
+            double t = blendFactor(climates[c], b);
+            baseHeight[c] = lerp(t, BIOMES[b].baseHeight, BIOMES[Math.min(b + 1, BIOMES.length - 1)].baseHeight);
+            roughness[c] = lerp(t, BIOMES[b].roughness, BIOMES[Math.min(b + 1, BIOMES.length - 1)].roughness);
+        }
+
+        // 2. 粗网格上的密度 (下标 (k * NX + j) * NX + i)：地形和洞穴取较小值
+        double[] density = new double[NX * NY * NX];
+        double[] cave = new double[NX * NY * NX];
+        terrain.fillFbm3D(worldX, 0, worldZ, STEP_XZ, STEP_Y, TERRAIN_FREQUENCY, TERRAIN_OCTAVES, 2, 0.5, NX, NY, NX, density);
+        caves.fillFbm3D(worldX, 0, worldZ, STEP_XZ, STEP_Y * CAVE_SQUASH, CAVE_FREQUENCY, 2, 2, 0.5, NX, NY, NX, cave);
+        for (int k = 0; k < NY; k++) {
+            int y = k * STEP_Y;
+            for (int c = 0; c < NX * NX; c++) {
+                int g = k * NX * NX + c;
+                double d = baseHeight[c] - y + roughness[c] * density[g];
+                // 越接近地表洞穴越难挖穿，地表只留下少量洞口，不会到处是通到底的坑
+                double cover = Math.max(0, y - (baseHeight[c] - CAVE_COVER)) * CAVE_COVER_SCALE;
+                density[g] = Math.min(d, (CAVE_THRESHOLD - cave[g]) * CAVE_SCALE + cover);
+            }
+        }
+
+        // 3. 三线性插值到每个方块，密度 > 0 为石头。先按 y 插值出一层 NX x NX 的平面，再按 z 插值出一行，
+        //    最后按 x 插值：每个方块只剩一次 lerp。最底层总是实心的，不会掉出世界
+        double[] plane = new double[NX * NX];
+        double[] row = new double[NX];
+        for (int y = 0; y < HEIGHT; y++) {
+            int g = y / STEP_Y * NX * NX;
+            double ty = FRACTION_Y[y];
+            for (int c = 0; c < NX * NX; c++) {
+                plane[c] = lerp(ty, density[g + c], density[g + NX * NX + c]);
+            }
+            for (int z = 0; z < SIZE; z++) {
+                int p = z / STEP_XZ * NX;
+                double tz = FRACTION_XZ[z];
+                for (int i = 0; i < NX; i++) {
+                    row[i] = lerp(tz, plane[p + i], plane[p + NX + i]);
+                }
+                for (int x = 0; x < SIZE; x++) {
+                    int i = x / STEP_XZ;
+                    double d = lerp(FRACTION_XZ[x], row[i], row[i + 1]);
+                    ids[Chunk.index(x, y, z)] = d > 0 || y == 0 ? Block.STONE : Block.AIR;
+                }
+            }
+        }
+
+        // 4. 表层：每一列从上往下第一段实心方块的顶上换成群系的表层方块和填充层。
+        //    悬空岩架下面和洞穴里保持石头 (晒不到太阳)
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                Biome biome = BIOMES[nearestBiome(climateAt(climates, x, z))];
+                int y = HEIGHT - 1;
+                while (y > 0 && ids[Chunk.index(x, y, z)] == Block.AIR) y--;
+                if (y == 0) continue;
+                ids[Chunk.index(x, y, z)] = biome.top;
+                for (int depth = 1; depth <= FILLER_DEPTH && y - depth > 0; depth++) {
+                    int index = Chunk.index(x, y - depth, z);
+                    if (ids[index] == Block.AIR) break;
+                    ids[index] = biome.filler;
+                }
+            }
+        }
+
+        // 5. 矿石：按 VEIN x VEIN x VEIN 的小格子判定，同一格子里的矿石成小团出现；格子里的石头有 3/4 换成矿石。
+        //    只对选中的格子逐个检查方块，由种子和坐标的哈希决定，和生成顺序、线程无关
+        for (int cy = 0; cy < HEIGHT; cy += VEIN) {
+            for (int cz = 0; cz < SIZE; cz += VEIN) {
+                for (int cx = 0; cx < SIZE; cx += VEIN) {
+                    byte ore = veinAt(worldX + cx, cy, worldZ + cz);
+                    if (ore == Block.AIR) continue;
+                    for (int y = Math.max(cy, 1); y < cy + VEIN; y++) {
+                        for (int z = cz; z < cz + VEIN; z++) {
+                            for (int x = cx; x < cx + VEIN; x++) {
+                                int index = Chunk.index(x, y, z);
+                                if (ids[index] == Block.STONE && (mix(seed, worldX + x, y, worldZ + z) & 3) != 0) {
+                                    ids[index] = ore;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 以 (x, y, z) 为最小角的矿脉格子里是哪种矿石，不是矿脉时返回 AIR
+     */
+    private byte veinAt(int x, int y, int z) {
+        int roll = (int) (mix(seed, Math.floorDiv(x, VEIN), y / VEIN, Math.floorDiv(z, VEIN)) & 1023);
+        if (roll < IRON_CHANCE) return y < IRON_MAX_Y ? Block.IRON_ORE : Block.AIR;
+        if (roll < IRON_CHANCE + COAL_CHANCE) return Block.COAL_ORE;
+        return Block.AIR;
+    }
+
+    /**
+     * 把粗网格上的气候值双线性插值到方块列 (x, z)
+     */
+    private static double climateAt(double[] climates, int x, int z) {
+        int i = x / STEP_XZ, j = z / STEP_XZ;
+        double tx = FRACTION_XZ[x], tz = FRACTION_XZ[z];
+        int g = j * NX + i;
+        return lerp(tz, lerp(tx, climates[g], climates[g + 1]), lerp(tx, climates[g + NX], climates[g + NX + 1]));
+    }
+
+    /**
+     * climate 不小于其 climate 值的最后一个群系 (比第一个还小时为 0)
+     */
+    private static int biomeBelow(double climate) {
+        int b = 0;
+        while (b + 1 < BIOMES.length && climate >= BIOMES[b + 1].climate) b++;
+        return b;
+    }
+
+    /**
+     * climate 在群系 b 和 b + 1 之间的位置，0 为 b，1 为 b + 1。两端之外取 0
+     */
+    private static double blendFactor(double climate, int b) {
+        if (b + 1 >= BIOMES.length || climate <= BIOMES[b].climate) return 0;
+        return (climate - BIOMES[b].climate) / (BIOMES[b + 1].climate - BIOMES[b].climate);
+    }
+
+    private static int nearestBiome(double climate) {
+        int b = biomeBelow(climate);
+        return blendFactor(climate, b) > 0.5 ? b + 1 : b;
+    }
+
+    private static double[] fractions(int length, int step) {
+        double[] fractions = new double[length];
+        for (int i = 0; i < length; i++) fractions[i] = (double) (i % step) / step;
+        return fractions;
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+
+    /**
+     * 种子和整数坐标的 64 位哈希 (SplitMix64 的混合函数)，各位分布均匀
+     */
+    private static long mix(long seed, int x, int y, int z) {
+        long h = seed ^ x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ z * 0x165667B19E3779F9L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
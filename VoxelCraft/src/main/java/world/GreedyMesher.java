@@ -0,0 +1,120 @@
+package world;
+
+/**
+ * Greedy Meshing：把同一平面上相邻、朝向相同、颜色相同的方块面合并成尽量大的矩形。
+ * <p>
+ * 对每个朝向，沿法线方向逐层切片，每层先生成一张 2D 颜色掩码 (0 = 该位置没有可见面)，
+ * 再从左下角开始贪心地向 u 方向扩展宽度、向 v 方向扩展高度，输出一个大四边形并清掉掩码。
+ * 掩码只在 PaddedSection 的可见面位上填颜色：合并结束时掩码已经全部清零，没有可见面的切片直接跳过。
+ * 平坦的 16x16 草地顶面由 256 个面变成 1 个。
+ */
+public class GreedyMesher implements Mesher {
+    // 各个轴的尺寸：0 = X, 1 = Y, 2 = Z
+    // 只在一个 Section 内合并，合并结果不会跨越 Section 边界
+    private static final int[] DIMS = {Chunk.SIZE, Chunk.SECTION_HEIGHT, Chunk.SIZE};
+
+    // 每个朝向的法线轴 (与 Block.getFaceVertices 的 dir 编号一致)
+    private static final int[] NORMAL_AXIS = {2, 2, 0, 0, 1, 1};
+
+    @Override
+    public void build(PaddedSection section, Mesh out) {
+        int baseX = section.getBaseX();
+        int baseY = section.getBaseY();
+        int baseZ = section.getBaseZ();
+
+        for (int dir = 0; dir < 6; dir++) {
+            int n = NORMAL_AXIS[dir];
+            int u = (n + 1) % 3;
+            int v = (n + 2) % 3;
+            int sizeU = DIMS[u];
+            int sizeV = DIMS[v];
+            int[] mask = new int[sizeU * sizeV];
+            int[] faces = section.getFaces(dir);
+
+            for (int slice = 0; slice < DIMS[n]; slice++) {
+                // 1. 生成这一层的可见面颜色掩码
+                if (!fillMask(section, faces, dir, n, slice, mask)) continue;
+
+                // 2. 贪心合并矩形
+                for (int b = 0; b < sizeV; b++) {
+                    for (int a = 0; a < sizeU; ) {
+                        int color = mask[a + b * sizeU];
+                        if (color == 0) {
+                            a++;
+                            continue;
+                        }
+
+                        int width = 1;
+                        while (a + width < sizeU && mask[a + width + b * sizeU] == color) width++;
+
+                        int height = 1;
+                        grow:
+                        while (b + height < sizeV) {
+                            for (int k = 0; k < width; k++) {
+                                if (mask[a + k + (b + height) * sizeU] != color) break grow;
+                            }
+                            height++;
+                        }
+
+                        for (int h = 0; h < height; h++) {
+                            for (int k = 0; k < width; k++) mask[a + k + (b + h) * sizeU] = 0;
+                        }
+
+                        addQuad(out, dir, n, u, v, slice, a, b, width, height, baseX, baseY, baseZ, color);
+                        a += width;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 把第 slice 层的可见面颜色写进 mask (下标 a + b * sizeU，其余位置保持 0)，返回这一层是否有可见面
+     */
+    private static boolean fillMask(PaddedSection section, int[] faces, int dir, int n, int slice, int[] mask) {
+        boolean any = false;
+        if (n == 1) {
+            // 水平切片：u = z, v = x，逐列测试第 slice 位
+            for (int z = 0, column = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++, column++) {
+                    if ((faces[column] >>> slice & 1) == 0) continue;
+                    mask[z + x * Chunk.SIZE] = Block.getColor(section.getBlockId(x, slice, z), dir);
+                    any = true;
+                }
+            }
+            return any;
+        }
+        // 竖直切片只涉及 16 列，每列的可见位直接对应一行 (n = 0: u = y, v = z) 或一列 (n = 2: u = x, v = y)
+        for (int k = 0; k < Chunk.SIZE; k++) {
+            int x = n == 0 ? slice : k;
+            int z = n == 0 ? k : slice;
+            for (int bits = faces[z * Chunk.SIZE + x]; bits != 0; bits &= bits - 1) {
+                int y = Integer.numberOfTrailingZeros(bits);
+                int color = Block.getColor(section.getBlockId(x, y, z), dir);
+                if (n == 0) mask[y + z * Chunk.SECTION_HEIGHT] = color;
+                else mask[x + y * Chunk.SIZE] = color;
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private void addQuad(Mesh out, int dir, int n, int u, int v,
+                         int slice, int a, int b, int width, int height, int baseX, int baseY, int baseZ, int color) {
+        // 合并区域在局部坐标下的最小角和尺寸
+        float[] min = new float[3];
+        float[] size = new float[3];
+        min[n] = slice;
+        min[u] = a;
+        min[v] = b;
+        size[n] = 1;
+        size[u] = width;
+        size[v] = height;
+
+        // 方块中心在整数坐标上，所以包围盒从 -0.5 开始
+        float x0 = baseX + min[0] - 0.5f;
+        float y0 = baseY + min[1] - 0.5f;
+        float z0 = baseZ + min[2] - 0.5f;
+        out.addBoxFace(dir, x0, y0, z0, x0 + size[0], y0 + size[1], z0 + size[2], color);
+    }
+}
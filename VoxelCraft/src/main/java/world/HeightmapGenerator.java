@@ -0,0 +1,44 @@
+package world;
+
+import util.NoiseGenerator;
+
+import static world.Chunk.HEIGHT;
+import static world.Chunk.SIZE;
+
+/**
+ * 原来的地形：一层 2D 噪声作为高度图，草 / 3 层泥土 / 石头。没有洞穴和悬崖，地形平缓，方便测试光照
+ */
+public class HeightmapGenerator implements TerrainGenerator {
+    private static final double FREQUENCY = 0.05;
+    private static final double AMPLITUDE = 8.0;
+
+    private final NoiseGenerator noiseGen;
+
+    public HeightmapGenerator(long seed) {
+        this.noiseGen = new NoiseGenerator(seed);
+    }
+
+    @Override
+    public void generate(int chunkX, int chunkZ, byte[] ids) {
+        // 整个 Chunk 的高度图一次算完 (heights[z * SIZE + x])，和逐列调用 noise2D(worldX * frequency, ...) 结果相同
+        double[] heights = new double[SIZE * SIZE];
+        noiseGen.fillNoise2D(chunkX * SIZE, chunkZ * SIZE, 1, FREQUENCY, SIZE, SIZE, heights);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                double noiseValue = heights[z * SIZE + x];
+                int surfaceHeight = (int) (10 + noiseValue * AMPLITUDE);
+
+                if (surfaceHeight < 1) surfaceHeight = 1;
+                if (surfaceHeight >= HEIGHT) surfaceHeight = HEIGHT - 1;
+
+                for (int y = 0; y <= surfaceHeight; y++) {
+                    byte id;
+                    if (y == surfaceHeight) id = Block.GRASS;
+                    else if (y > surfaceHeight - 3) id = Block.DIRT;
+                    else id = Block.STONE;
+                    ids[Chunk.index(x, y, z)] = id;
+                }
+            }
+        }
+    }
+}
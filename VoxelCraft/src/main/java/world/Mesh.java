@@ -0,0 +1,178 @@
+package world;
+
+import render.math.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * 一个 Chunk 的渲染网格，按结构化数组 (SoA) 存放：每个面 4 个顶点，外加朝向和颜色。
+ * 渲染时可以把整段顶点一次性批量变换，不需要逐个面、逐个 Vector3f 地访问。
+ * 构建完成后只读。
+ */
+public class Mesh {
+    // 各朝向的法线 (下标与 Block.getFaceVertices 的 dir 一致)，所有面共享
+    public static final Vector3f[] NORMALS = {
+            new Vector3f(0, 0, 1),  // Front
+            new Vector3f(0, 0, -1), // Back
+            new Vector3f(-1, 0, 0), // Left
+            new Vector3f(1, 0, 0),  // Right
+            new Vector3f(0, 1, 0),  // Top
+            new Vector3f(0, -1, 0)  // Bottom
+    };
+
+    // getBoxFaceVertices 每个朝向的 4 个顶点取包围盒的哪个角：第 0 / 1 / 2 位为 1 表示取 x1 / y1 / z1
+    private static final int[][] BOX_CORNERS = new int[6][4];
+
+    static {
+        for (int faceDir = 0; faceDir < 6; faceDir++) {
+            Vector3f[] v = Block.getBoxFaceVertices(faceDir, 0, 0, 0, 1, 1, 1);
+            for (int i = 0; i < 4; i++) {
+                BOX_CORNERS[faceDir][i] = (v[i].x > 0 ? 1 : 0) | (v[i].y > 0 ? 2 : 0) | (v[i].z > 0 ? 4 : 0);
+            }
+        }
+    }
+
+    // 容量用完时至少扩到这么多面：new Mesh(0) 或 trim 过的空网格容量为 0，翻倍还是 0
+    private static final int MIN_GROW_FACES = 16;
+
+    private float[] x, y, z;
+    private byte[] dir;
+    private int[] color;
+    private int faceCount;
+    // 顶点包围盒，trim() 时计算
+    private float minX, minY, minZ, maxX, maxY, maxZ;
+
+    public Mesh() {
+        this(64);
+    }
+
+    public Mesh(int faceCapacity) {
+        x = new float[faceCapacity * 4];
+        y = new float[faceCapacity * 4];
+        z = new float[faceCapacity * 4];
+        dir = new byte[faceCapacity];
+        color = new int[faceCapacity];
+    }
+
+    public void addFace(Vector3f[] vertices, int faceDir, int faceColor) {
+        if (faceCount == color.length) grow(Math.max(faceCount * 2, MIN_GROW_FACES));
+        int v = faceCount * 4;
+        for (int i = 0; i < 4; i++) {
+            x[v + i] = vertices[i].x;
+            y[v + i] = vertices[i].y;
+            z[v + i] = vertices[i].z;
+        }
+        dir[faceCount] = (byte) faceDir;
+        color[faceCount] = faceColor;
+        faceCount++;
+    }
+
+    /**
+     * 与 addFace(Block.getBoxFaceVertices(...), faceDir, faceColor) 相同，但不分配顶点对象
+     */
+    public void addBoxFace(int faceDir, float x0, float y0, float z0, float x1, float y1, float z1, int faceColor) {
+        if (faceCount == color.length) grow(Math.max(faceCount * 2, MIN_GROW_FACES));
+        int v = faceCount * 4;
+        int[] corners = BOX_CORNERS[faceDir];
+        for (int i = 0; i < 4; i++) {
+            int corner = corners[i];
+            x[v + i] = (corner & 1) != 0 ? x1 : x0;
+            y[v + i] = (corner & 2) != 0 ? y1 : y0;
+            z[v + i] = (corner & 4) != 0 ? z1 : z0;
+        }
+        dir[faceCount] = (byte) faceDir;
+        color[faceCount] = faceColor;
+        faceCount++;
+    }
+
+    /**
+     * 构建结束后调用，裁掉多余容量并计算包围盒
+     */
+    public void trim() {
+        if (faceCount < color.length) grow(faceCount);
+
+        // 顶点坐标不会是 NaN，直接比较，省掉 Math.min / max 对 NaN 和 -0 的处理
+        float loX = Float.MAX_VALUE, loY = Float.MAX_VALUE, loZ = Float.MAX_VALUE;
+        float hiX = -Float.MAX_VALUE, hiY = -Float.MAX_VALUE, hiZ = -Float.MAX_VALUE;
+        for (int i = 0; i < faceCount * 4; i++) {
+            float vx = x[i], vy = y[i], vz = z[i];
+            loX = vx < loX ? vx : loX;
+            loY = vy < loY ? vy : loY;
+            loZ = vz < loZ ? vz : loZ;
+            hiX = vx > hiX ? vx : hiX;
+            hiY = vy > hiY ? vy : hiY;
+            hiZ = vz > hiZ ? vz : hiZ;
+        }
+        minX = loX;
+        minY = loY;
+        minZ = loZ;
+        maxX = hiX;
+        maxY = hiY;
+        maxZ = hiZ;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getVertexCount() {
+        return faceCount * 4;
+    }
+
+    // 第 f 个面的顶点位于下标 [f * 4, f * 4 + 4)
+    public float[] getX() {
+        return x;
+    }
+
+    public float[] getY() {
+        return y;
+    }
+
+    public float[] getZ() {
+        return z;
+    }
+
+    public int getDir(int face) {
+        return dir[face];
+    }
+
+    public int getColor(int face) {
+        return color[face];
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMinZ() {
+        return minZ;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    public int getFootprintBytes() {
+        return 32 + 3 * (16 + x.length * 4) + (16 + dir.length) + (16 + color.length * 4);
+    }
+
+    private void grow(int faces) {
+        x = Arrays.copyOf(x, faces * 4);
+        y = Arrays.copyOf(y, faces * 4);
+        z = Arrays.copyOf(z, faces * 4);
+        dir = Arrays.copyOf(dir, faces);
+        color = Arrays.copyOf(color, faces);
+    }
+}
@@ -0,0 +1,11 @@
+package world;
+
+/**
+ * 把 Chunk 的方块数据转换成可渲染的面 (写入 Mesh)。
+ * 每次只构建一个竖直分段 (section)，输入是 Chunk.buildMesh 准备好的 PaddedSection：
+ * 分段内的方块和每个面是否可见 (已经考虑了四周邻居 Chunk 和上下相邻的分段)。
+ * 实现必须是无状态的，后台的多个线程会同时调用同一个 Mesher。
+ */
+public interface Mesher {
+    void build(PaddedSection section, Mesh out);
+}
@@ -0,0 +1,35 @@
+package world;
+
+/**
+ * 最直接的网格构建：每个暴露在空气中的方块面单独输出一个四边形。
+ * 可见面已经按列算成位掩码 (见 PaddedSection)，这里只是逐位取出，不再逐个面查询邻居。
+ */
+public class NaiveMesher implements Mesher {
+    @Override
+    public void build(PaddedSection section, Mesh out) {
+        int baseX = section.getBaseX();
+        int baseY = section.getBaseY();
+        int baseZ = section.getBaseZ();
+
+        for (int dir = 0; dir < 6; dir++) {
+            int[] faces = section.getFaces(dir);
+            for (int z = 0, column = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++, column++) {
+                    // 这一列里这个朝向可见的面，每次取最低的一位
+                    for (int bits = faces[column]; bits != 0; bits &= bits - 1) {
+                        int y = Integer.numberOfTrailingZeros(bits);
+                        byte blockID = section.getBlockId(x, y, z);
+
+                        // 计算全局坐标，方块中心在整数坐标上
+                        float worldX = baseX + x;
+                        float worldY = baseY + y;
+                        float worldZ = baseZ + z;
+                        // 调用 Block.getColor 获取正确的颜色 (例如：草的顶面绿，侧面褐)
+                        out.addBoxFace(dir, worldX - 0.5f, worldY - 0.5f, worldZ - 0.5f,
+                                worldX + 0.5f, worldY + 0.5f, worldZ + 0.5f, Block.getColor(blockID, dir));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * 构建一个 Section 网格用的局部拷贝：Section 本身的方块 id，加上四周和上下各一格的实心信息，
+ * 再预先算好每个方块六个面是否暴露在空气中。Mesher 只读这里的数组，不再逐个面调用 BlockAccess.isSolid。
+ * <p>
+ * 实心信息按列存成位掩码：列 (x, z) 一个 int，第 y + 1 位表示 Section 内第 y 层是否实心 (第 0 位和
+ * 第 SECTION_HEIGHT + 1 位是上下相邻 Section 的那一层)。x / z 方向各多出一圈，来自四周的邻居 Chunk
+ * (不需要对角的 Chunk)。于是一整列 16 个方块的某个面是否可见，只是对本列和相邻一列做一次移位和与非：
+ * <pre>
+ *   顶面 = 本列 &amp; ~(本列 &gt;&gt;&gt; 1)，侧面 = 本列 &amp; ~相邻列
+ * </pre>
+ * Chunk.buildMesh 每次构建分配一个实例，逐个 Section fill 后交给 Mesher，只在一个线程上使用。
+ */
+public final class PaddedSection {
+    static final int PADDED = Chunk.SIZE + 2; // 带边框的 x / z 尺寸
+    private static final int LAYER = Chunk.SIZE * Chunk.SIZE;
+    private static final int LAYERS = Chunk.SECTION_HEIGHT + 2;
+    private static final int SECTION_BITS = (1 << Chunk.SECTION_HEIGHT) - 1;
+
+    // 方块 id，第 0 层是下面相邻的一层，下标 (层 * SIZE + z) * SIZE + x；世界上下边界之外为空气
+    private final byte[] ids = new byte[LAYER * LAYERS];
+    // 每个朝向 (与 Block.getFaceVertices 的 dir 一致) 每列一个掩码：第 y 位 = Section 内第 y 层的方块这个面可见
+    private final int[][] faces = new int[6][LAYER];
+    // 带边框的实心列掩码，下标 (z + 1) * PADDED + (x + 1)
+    private final int[] solid = new int[PADDED * PADDED];
+    // 当前 Section 最小角的世界方块坐标
+    private int baseX, baseY, baseZ;
+    private int visibleFaces;
+
+    /**
+     * 从 chunk 和 access 里的邻居拷贝第 section 段，并计算可见面。返回 false 表示整段没有可见面 (不用构建网格)
+     */
+    boolean fill(Chunk chunk, BlockAccess access, int section) {
+        int minY = section * Chunk.SECTION_HEIGHT;
+        baseX = chunk.getChunkX() * Chunk.SIZE;
+        baseY = minY;
+        baseZ = chunk.getChunkZ() * Chunk.SIZE;
+        copyLayers(chunk.getStorage(), minY);
+
+        // 本 Chunk 的列
+        Arrays.fill(solid, 0);
+        for (int layer = 0; layer < LAYERS; layer++) {
+            for (int z = 0, i = layer * LAYER; z < Chunk.SIZE; z++) {
+                int row = (z + 1) * PADDED + 1;
+                for (int x = 0; x < Chunk.SIZE; x++, i++) {
+                    // 不分支：非空气时 -id 的符号位为 1 (地表附近实心 / 空气交错，分支很难预测)
+                    solid[row + x] |= (-(ids[i] & 0xFF) >>> 31) << layer;
+                }
+            }
+        }
+
+        // 四周邻居紧挨着的一列 / 一行，只要实心信息
+        int chunkX = chunk.getChunkX(), chunkZ = chunk.getChunkZ();
+        int last = Chunk.SIZE - 1;
+        ChunkStorage west = access.getStorage(chunkX - 1, chunkZ);
+        ChunkStorage east = access.getStorage(chunkX + 1, chunkZ);
+        ChunkStorage north = access.getStorage(chunkX, chunkZ - 1);
+        ChunkStorage south = access.getStorage(chunkX, chunkZ + 1);
+        for (int k = 0; k < Chunk.SIZE; k++) {
+            solid[(k + 1) * PADDED] = column(west, last, k, minY);
+            solid[(k + 1) * PADDED + PADDED - 1] = column(east, 0, k, minY);
+            solid[k + 1] = column(north, k, last, minY);
+            solid[(PADDED - 1) * PADDED + k + 1] = column(south, k, 0, minY);
+        }
+
+        int count = 0;
+        int[] front = faces[0], back = faces[1], left = faces[2], right = faces[3], top = faces[4], bottom = faces[5];
+        for (int z = 0, i = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++, i++) {
+                int p = (z + 1) * PADDED + x + 1;
+                int c = solid[p];
+                int self = (c >>> 1) & SECTION_BITS;
+                front[i] = self & ~(solid[p + PADDED] >>> 1);
+                back[i] = self & ~(solid[p - PADDED] >>> 1);
+                left[i] = self & ~(solid[p - 1] >>> 1);
+                right[i] = self & ~(solid[p + 1] >>> 1);
+                top[i] = self & ~(c >>> 2);
+                bottom[i] = self & ~c;
+                count += Integer.bitCount(front[i]) + Integer.bitCount(back[i]) + Integer.bitCount(left[i])
+                        + Integer.bitCount(right[i]) + Integer.bitCount(top[i]) + Integer.bitCount(bottom[i]);
+            }
+        }
+        visibleFaces = count;
+        return count != 0;
+    }
+
+    /**
+     * 可见的方块面总数，即逐面构建的面数、合并后面数的上限
+     */
+    public int getVisibleFaceCount() {
+        return visibleFaces;
+    }
+
+    /**
+     * Section 内局部坐标 (x, y, z) 的方块 id
+     */
+    public byte getBlockId(int x, int y, int z) {
+        return ids[((y + 1) * Chunk.SIZE + z) * Chunk.SIZE + x];
+    }
+
+    /**
+     * 朝向 dir 的可见面掩码，下标 z * SIZE + x，第 y 位表示 Section 内 (x, y, z) 的这个面可见。只读
+     */
+    public int[] getFaces(int dir) {
+        return faces[dir];
+    }
+
+    public int getBaseX() {
+        return baseX;
+    }
+
+    public int getBaseY() {
+        return baseY;
+    }
+
+    public int getBaseZ() {
+        return baseZ;
+    }
+
+    /**
+     * 把 [minY - 1, minY + SECTION_HEIGHT] 这些层按存储顺序整段解码，超出世界高度的层填空气
+     */
+    private void copyLayers(ChunkStorage blocks, int minY) {
+        int from = Math.max(minY - 1, 0);
+        int to = Math.min(minY + Chunk.SECTION_HEIGHT + 1, Chunk.HEIGHT);
+        int offset = (from - (minY - 1)) * LAYER;
+        if (offset > 0) Arrays.fill(ids, 0, offset, Block.AIR);
+        blocks.copyTo(from * LAYER, ids, offset, (to - from) * LAYER);
+        Arrays.fill(ids, offset + (to - from) * LAYER, ids.length, Block.AIR);
+    }
+
+    /**
+     * 邻居 Chunk 局部坐标 (x, z) 那一列在 [minY - 1, minY + SECTION_HEIGHT] 内的实心掩码，没有加载时全是空气
+     */
+    private static int column(ChunkStorage blocks, int x, int z, int minY) {
+        if (blocks == null) return 0;
+        int mask = 0;
+        int from = Math.max(minY - 1, 0);
+        int to = Math.min(minY + Chunk.SECTION_HEIGHT + 1, Chunk.HEIGHT);
+        for (int y = from; y < to; y++) {
+            mask |= (-(blocks.get(Chunk.index(x, y, z)) & 0xFF) >>> 31) << (y - minY + 1);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,82 @@
+package world;
+
+/**
+ * World.raycast 的结果。调用方持有并反复传入同一个对象，射线查询本身不分配内存。
+ */
+public class RaycastHit {
+    // 各朝向的方块坐标偏移 (下标与 Block.getFaceVertices 的 dir 一致)
+    private static final int[] FACE_DX = {0, 0, -1, 1, 0, 0};
+    private static final int[] FACE_DY = {0, 0, 0, 0, 1, -1};
+    private static final int[] FACE_DZ = {1, -1, 0, 0, 0, 0};
+
+    private boolean hit;
+    private int blockX, blockY, blockZ;
+    private byte blockId;
+    private int face;
+    private float distance;
+
+    void set(int blockX, int blockY, int blockZ, byte blockId, int face, float distance) {
+        this.hit = true;
+        this.blockX = blockX;
+        this.blockY = blockY;
+        this.blockZ = blockZ;
+        this.blockId = blockId;
+        this.face = face;
+        this.distance = distance;
+    }
+
+    void miss(float distance) {
+        this.hit = false;
+        this.blockId = Block.AIR;
+        this.face = -1;
+        this.distance = distance;
+    }
+
+    public boolean isHit() {
+        return hit;
+    }
+
+    public int getBlockX() {
+        return blockX;
+    }
+
+    public int getBlockY() {
+        return blockY;
+    }
+
+    public int getBlockZ() {
+        return blockZ;
+    }
+
+    public byte getBlockId() {
+        return blockId;
+    }
+
+    /**
+     * 射线从哪个面进入命中的方块 (0 Front Z+, 1 Back Z-, 2 Left X-, 3 Right X+, 4 Top Y+, 5 Bottom Y-)，
+     * 起点就在实心方块内时为 -1
+     */
+    public int getFace() {
+        return face;
+    }
+
+    /**
+     * 起点到命中点的距离；未命中时为实际检查过的距离
+     */
+    public float getDistance() {
+        return distance;
+    }
+
+    // 命中面外侧相邻的方块坐标，放置方块时用
+    public int getAdjacentX() {
+        return face < 0 ? blockX : blockX + FACE_DX[face];
+    }
+
+    public int getAdjacentY() {
+        return face < 0 ? blockY : blockY + FACE_DY[face];
+    }
+
+    public int getAdjacentZ() {
+        return face < 0 ? blockZ : blockZ + FACE_DZ[face];
+    }
+}
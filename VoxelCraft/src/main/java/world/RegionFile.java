@@ -0,0 +1,149 @@
+package world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * 一个区域文件：保存 REGION_SIZE x REGION_SIZE 个 Chunk 的压缩数据，布局和 Minecraft 的 .mca 类似。
+ * <p>
+ * 文件按 SECTOR_BYTES 字节分扇区。第 0 个扇区是偏移表：每个 Chunk 一个 int，高 24 位为起始扇区、低 8 位为扇区数，
+ * 0 表示还没保存过。每条记录占连续的若干扇区：int 长度 (格式字节 + 数据) + 1 字节格式 + 数据。
+ * <p>
+ * 偏移表映射成 MappedByteBuffer 直接读写；数据区整个映射成只读的 MappedByteBuffer 读取，文件变长后重新映射，
+ * 写入用 FileChannel 的定位写。覆盖一个 Chunk 时总是写到新的空闲扇区，写完再改偏移表、释放旧扇区：
+ * 进程中途退出时偏移表指向的仍是完整的旧记录。所有方法加锁，可以被多个线程调用。
+ */
+class RegionFile implements AutoCloseable {
+    static final int REGION_SHIFT = 5;
+    static final int REGION_SIZE = 1 << REGION_SHIFT; // 每个区域文件 32x32 个 Chunk
+    static final int SECTOR_BYTES = 4096;
+    private static final int HEADER_SECTORS = 1;
+    private static final int MAX_SECTORS_PER_CHUNK = 255; // 偏移表里扇区数只有 8 位
+    private static final int RECORD_HEADER = 5;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final BitSet usedSectors = new BitSet();
+    private MappedByteBuffer data; // 只读映射，覆盖到 mappedBytes
+    private long mappedBytes;
+    private int sectorCount; // 文件当前的扇区数
+
+    RegionFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SECTORS * SECTOR_BYTES) {
+            channel.write(ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES), 0);
+        }
+        // 最后一个扇区可能没写满 (例如写到一半时崩溃)，按向上取整算
+        sectorCount = (int) ((channel.size() + SECTOR_BYTES - 1) / SECTOR_BYTES);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SECTORS * SECTOR_BYTES);
+
+        usedSectors.set(0, HEADER_SECTORS);
+        for (int i = 0; i < REGION_SIZE * REGION_SIZE; i++) {
+            int entry = header.getInt(i * 4);
+            int first = entry >>> 8, count = entry & 0xFF;
+            if (entry == 0) continue;
+            if (first < HEADER_SECTORS || first + count > sectorCount) {
+                // 指向文件之外 (没写完的文件)，当作没保存过
+                header.putInt(i * 4, 0);
+                continue;
+            }
+            usedSectors.set(first, first + count);
+        }
+    }
+
+    /**
+     * 读出区域内局部坐标 (x, z) 的 Chunk 记录：返回数据，format[0] 为格式字节。没有保存过时返回 null
+     */
+    synchronized byte[] read(int x, int z, byte[] format) throws IOException {
+        int entry = header.getInt(slot(x, z) * 4);
+        if (entry == 0) return null;
+        long offset = (long) (entry >>> 8) * SECTOR_BYTES;
+        int capacity = (entry & 0xFF) * SECTOR_BYTES;
+
+        // 映射整条记录占的扇区，而不只是记录头：多扇区的记录可能从旧映射里释放的扇区开始、越过映射的末尾
+        MappedByteBuffer buffer = mapData(offset + capacity);
+        int length = buffer.getInt((int) offset);
+        if (length < 1 || length > capacity - 4 || offset + 4 + length > mappedBytes) {
+            throw new IOException("Corrupt chunk record at " + x + "," + z + " (length " + length + ")");
+        }
+        format[0] = buffer.get((int) offset + 4);
+        byte[] bytes = new byte[length - 1];
+        buffer.get((int) offset + RECORD_HEADER, bytes);
+        return bytes;
+    }
+
+    /**
+     * 写入区域内局部坐标 (x, z) 的 Chunk 记录 (整个替换旧记录)
+     */
+    synchronized void write(int x, int z, byte format, byte[] bytes, int length) throws IOException {
+        int sectors = (RECORD_HEADER + length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+        if (sectors > MAX_SECTORS_PER_CHUNK) throw new IOException("Chunk record too large: " + length + " bytes");
+
+        ByteBuffer record = ByteBuffer.allocate(sectors * SECTOR_BYTES);
+        record.putInt(length + 1).put(format).put(bytes, 0, length);
+        record.clear();
+
+        int first = allocate(sectors);
+        long position = (long) first * SECTOR_BYTES;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        sectorCount = Math.max(sectorCount, first + sectors);
+
+        // 新记录写完才改偏移表，然后释放旧记录的扇区
+        int slot = slot(x, z);
+        int old = header.getInt(slot * 4);
+        header.putInt(slot * 4, first << 8 | sectors);
+        if (old != 0) usedSectors.clear(old >>> 8, (old >>> 8) + (old & 0xFF));
+    }
+
+    /**
+     * 把映射的偏移表和写入的数据刷到磁盘
+     */
+    synchronized void flush() throws IOException {
+        channel.force(false);
+        header.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+        data = null;
+    }
+
+    /**
+     * 找一段连续 sectors 个空闲扇区 (首次适应)，没有就追加到文件末尾，标记为已用
+     */
+    private int allocate(int sectors) {
+        int first = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (first < sectorCount) {
+            int end = usedSectors.nextSetBit(first);
+            if (end < 0 || end >= first + sectors) break;
+            first = usedSectors.nextClearBit(end);
+        }
+        usedSectors.set(first, first + sectors);
+        return first;
+    }
+
+    /**
+     * 返回至少覆盖到 end 字节的只读映射。文件变长后重新映射整个文件 (旧映射由 GC 回收)
+     */
+    private MappedByteBuffer mapData(long end) throws IOException {
+        if (data == null || end > mappedBytes) {
+            mappedBytes = channel.size();
+            if (mappedBytes > Integer.MAX_VALUE) throw new IOException("Region file too large: " + mappedBytes);
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, mappedBytes);
+        }
+        return data;
+    }
+
+    private static int slot(int x, int z) {
+        return z * REGION_SIZE + x;
+    }
+}
@@ -0,0 +1,14 @@
+package world;
+
+/**
+ * 地形生成器：按 Chunk 坐标填满一个 Chunk 的方块。
+ * <p>
+ * 结果只取决于种子和坐标 (同一种子、同一坐标总是生成相同的方块，和生成顺序无关)。
+ * ChunkWorkers 会在多个后台线程上并发调用 generate：实现只能读自己的不可变字段，临时数组在每次调用里分配。
+ */
+public interface TerrainGenerator {
+    /**
+     * 把 Chunk (chunkX, chunkZ) 的方块写进 ids。ids 长度为 Chunk.VOLUME、下标见 Chunk.index，调用时全为 AIR
+     */
+    void generate(int chunkX, int chunkZ, byte[] ids);
+}
@@ -1,37 +1,114 @@
 package world;
 
+import core.Config;
+import render.math.Vector3f;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
-public class World {
-    // 改用二维数组存储，方便根据坐标快速查找 (假设 World Size 是 8x8)
-    private static final int WORLD_SIZE = 8;
-    private Chunk[][] chunkMap;
-    private List<Chunk> chunkList; // 仅用于 Render 遍历
+/**
+ * 无限大小的世界：Chunk 按 (chunkX, chunkZ) 存在 ChunkCache 里，围绕玩家按视距流式加载。
+ * <p>
+ * 视距 + 1 圈内的 Chunk 只生成方块数据，视距内且四周邻居都在的 Chunk 才构建网格 (构建时要查询邻居)。
+ * 离开视距的 Chunk 不会马上丢弃，而是留在缓存里，等缓存超出内存预算后按最久未使用的顺序淘汰。
+ * <p>
+ * 生成和构建网格都交给后台的 ChunkWorkers，游戏线程每帧只提交任务、装入已完成的结果，不会因为加载而卡顿。
+ * <p>
+ * 带 ChunkStore 时，新生成和修改过的 Chunk 在被淘汰、定时自动保存和 close 时交给 ChunkStore 在后台写盘，
+ * 下次加载直接读存档。不带时 (benchmark 等) 每次都重新生成，修改不会保留。
+ */
+public class World implements BlockAccess {
+    // 不带参数构造时的出生点：旧版 8x8 固定世界的中心，benchmark 的视角都以此为准
+    private static final float DEFAULT_SPAWN = 4 * Chunk.SIZE;
 
-    public World() {
-        chunkMap = new Chunk[WORLD_SIZE][WORLD_SIZE];
-        chunkList = new ArrayList<>();
-
-        // 第一步：只生成 Chunk 数据 (Blocks)，不生成 Mesh
-        for (int x = 0; x < WORLD_SIZE; x++) {
-            for (int z = 0; z < WORLD_SIZE; z++) {
-                Chunk c = new Chunk(x, z);
-                chunkMap[x][z] = c;
-                chunkList.add(c);
+    // 以玩家所在 Chunk 为原点的偏移表，按距离由近到远排序：先加载 / 先绘制近处的 Chunk
+    private static final int[] OFFSET_X, OFFSET_Z;
+    private static final int MESH_OFFSETS; // 前 MESH_OFFSETS 个在视距内，其余是只生成数据的外圈
+
+    static {
+        int r = Config.VIEW_DISTANCE + 1;
+        List<int[]> offsets = new ArrayList<>();
+        for (int dx = -r; dx <= r; dx++) {
+            for (int dz = -r; dz <= r; dz++) {
+                if (dx * dx + dz * dz <= r * r) offsets.add(new int[]{dx, dz});
             }
         }
+        offsets.sort((a, b) -> (a[0] * a[0] + a[1] * a[1]) - (b[0] * b[0] + b[1] * b[1]));
 
-        // 第二步：所有 Chunk 数据就绪后，通知它们构建 Mesh (此时可以查找邻居了)
-        for (Chunk c : chunkList) {
-            c.rebuildMesh(this); // 把自己传进去
+        OFFSET_X = new int[offsets.size()];
+        OFFSET_Z = new int[offsets.size()];
+        int inside = 0;
+        for (int i = 0; i < offsets.size(); i++) {
+            OFFSET_X[i] = offsets.get(i)[0];
+            OFFSET_Z[i] = offsets.get(i)[1];
+            if (isInViewDistance(OFFSET_X[i], OFFSET_Z[i])) inside++;
         }
+        MESH_OFFSETS = inside;
+    }
+
+    private final ChunkCache cache = new ChunkCache(OFFSET_X.length * 4);
+    private final long memoryBudget = Config.CHUNK_CACHE_MB * 1024L * 1024L;
+    private long footprintBytes; // 缓存中所有 Chunk 的占用之和，随加载 / 重建 / 淘汰增量维护
+    private long meshNanos; // 已装入的网格任务在后台线程上累计花费的时间
+    // 渲染用的列表：视距内已构建网格的 Chunk，由近到远。每次变化都换一个新的不可变列表，渲染线程拿到的总是完整快照
+    private volatile List<Chunk> chunkList = Collections.emptyList();
+    private volatile Mesher mesher = Config.GREEDY_MESHING ? new GreedyMesher() : new NaiveMesher();
+    private final ChunkStore store; // 为 null 时不保存
+    private final ChunkWorkers workers;
+    private long lastSaveNanos = System.nanoTime();
+    // setBlock 改动过的 Chunk，每帧处理一次：同一帧内对同一个 Chunk 的多次修改合并成一次重建
+    private final ArrayDeque<Chunk> remeshQueue = new ArrayDeque<>();
+
+    private int centerX, centerZ;
+    private boolean streaming = true; // 还有 Chunk 没生成或没构建网格
+    private boolean moved = true; // 玩家换了 Chunk，渲染列表需要重新筛选
+
+    public World() {
+        this(DEFAULT_SPAWN, DEFAULT_SPAWN);
+    }
+
+    /**
+     * 从出生点开始由近到远提交加载任务后立即返回，之后随 update 的玩家位置继续流式加载
+     */
+    public World(float spawnX, float spawnZ) {
+        this(spawnX, spawnZ, null);
+    }
+
+    /**
+     * store 不为 null 时从存档加载保存过的 Chunk，并把新生成 / 修改过的 Chunk 保存进去
+     */
+    public World(float spawnX, float spawnZ, ChunkStore store) {
+        this.store = store;
+        this.workers = new ChunkWorkers(workerThreads(), Config.VIEW_DISTANCE + 1, store);
+        centerX = toChunk(spawnX);
+        centerZ = toChunk(spawnZ);
+        workers.setCenter(centerX, centerZ);
+        stream();
     }
 
     public List<Chunk> getChunks() {
         return chunkList;
     }
 
+    public Mesher getMesher() {
+        return mesher;
+    }
+
+    /**
+     * 切换网格构建策略：所有已生成的 Chunk 标记为需要重建，在后台逐个换上新网格 (旧网格在此之前继续显示)
+     */
+    public void setMesher(Mesher mesher) {
+        this.mesher = mesher;
+        for (Chunk c = cache.newest(); c != null; c = c.lruOlder) {
+            if (c.isGenerated()) c.dirtySections = Chunk.ALL_SECTIONS;
+        }
+        streaming = true;
+    }
+
     // --- 新增：碰撞检测核心查询接口 ---
 
     /**
@@ -39,38 +116,426 @@ public class World {
      * 碰撞箱判定会大量调用此方法
      */
     public boolean isSolid(float x, float y, float z) {
-        // 1. 边界检查 (World bounds)
-        int blockX = (int) Math.floor(x);
-        int blockY = (int) Math.floor(y);
-        int blockZ = (int) Math.floor(z);
+        return isSolid((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+    }
 
+    /**
+     * 整数方块坐标版本，Mesh 构建时直接调用，省掉 floor
+     */
+    @Override
+    public boolean isSolid(int blockX, int blockY, int blockZ) {
+        return getBlockId(blockX, blockY, blockZ) != Block.AIR;
+    }
+
+    @Override
+    public ChunkStorage getStorage(int chunkX, int chunkZ) {
+        Chunk chunk = cache.get(chunkX, chunkZ);
+        return chunk == null ? null : chunk.getStorage();
+    }
+
+    /**
+     * 读取世界方块坐标处的方块 ID，世界高度外和尚未加载的 Chunk 一律视为空气
+     */
+    public byte getBlockId(int blockX, int blockY, int blockZ) {
         // 如果超出世界高度，不算碰撞（允许跳出地图上方）
+        if (blockY < 0 || blockY >= Chunk.HEIGHT) return Block.AIR;
+
+        // 算术右移 / 按位与对负坐标也是向下取整，不需要特殊处理
+        Chunk chunk = cache.get(blockX >> Chunk.SHIFT, blockZ >> Chunk.SHIFT);
+        if (chunk == null) return Block.AIR;
+
+        return chunk.getBlockId(blockX & (Chunk.SIZE - 1), blockY, blockZ & (Chunk.SIZE - 1));
+    }
+
+    public boolean raycast(Vector3f origin, Vector3f direction, float maxDistance, RaycastHit out) {
+        return raycast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, maxDistance, out);
+    }
+
+    /**
+     * 从 origin 沿 direction (不要求是单位向量) 发射射线，最远检查 maxDistance，结果写入 out，返回是否命中。
+     * <p>
+     * Amanatides-Woo 3D DDA：每一步只比较三个轴到下一条格子边界的距离、沿最近的轴走一格，
+     * 不做 floor，也不重新定位 Chunk，只有跨过 Chunk 边界时才查一次哈希表，方块直接从存储里按下标读取。
+     * 坐标约定与渲染一致：方块 (x, y, z) 占据 [x - 0.5, x + 0.5]。不分配任何对象，只在游戏线程上调用。
+     */
+    public boolean raycast(float originX, float originY, float originZ,
+                           float dirX, float dirY, float dirZ, float maxDistance, RaycastHit out) {
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0f) {
+            out.miss(0f);
+            return false;
+        }
+        dirX /= length;
+        dirY /= length;
+        dirZ /= length;
+
+        // 平移半格，让方块 i 对应网格区间 [i, i + 1)
+        float px = originX + 0.5f;
+        float py = originY + 0.5f;
+        float pz = originZ + 0.5f;
+        int x = (int) Math.floor(px);
+        int y = (int) Math.floor(py);
+        int z = (int) Math.floor(pz);
+
+        int stepX = dirX > 0 ? 1 : dirX < 0 ? -1 : 0;
+        int stepY = dirY > 0 ? 1 : dirY < 0 ? -1 : 0;
+        int stepZ = dirZ > 0 ? 1 : dirZ < 0 ? -1 : 0;
+        // delta：沿射线穿过一整格的距离；next：到该轴下一条格子边界的距离
+        float deltaX = stepX == 0 ? Float.POSITIVE_INFINITY : Math.abs(1f / dirX);
+        float deltaY = stepY == 0 ? Float.POSITIVE_INFINITY : Math.abs(1f / dirY);
+        float deltaZ = stepZ == 0 ? Float.POSITIVE_INFINITY : Math.abs(1f / dirZ);
+        float nextX = stepX == 0 ? Float.POSITIVE_INFINITY : (stepX > 0 ? x + 1 - px : px - x) * deltaX;
+        float nextY = stepY == 0 ? Float.POSITIVE_INFINITY : (stepY > 0 ? y + 1 - py : py - y) * deltaY;
+        float nextZ = stepZ == 0 ? Float.POSITIVE_INFINITY : (stepZ > 0 ? z + 1 - pz : pz - z) * deltaZ;
+
+        int chunkX = x >> Chunk.SHIFT;
+        int chunkZ = z >> Chunk.SHIFT;
+        ChunkStorage blocks = storageAt(chunkX, chunkZ);
+        int face = -1;
+        float t = 0f;
+
+        while (true) {
+            if (y >= 0 && y < Chunk.HEIGHT) {
+                if (blocks != null) {
+                    byte id = blocks.get(Chunk.index(x & (Chunk.SIZE - 1), y, z & (Chunk.SIZE - 1)));
+                    if (id != Block.AIR) {
+                        out.set(x, y, z, id, face, t);
+                        return true;
+                    }
+                }
+            } else if ((y < 0 && stepY <= 0) || (y >= Chunk.HEIGHT && stepY >= 0)) {
+                break; // 在世界高度之外且不会再回来
+            }
+
+            // 沿最近的格子边界走一格，face 记录进入新格子时穿过的面
+            if (nextX < nextY && nextX < nextZ) {
+                t = nextX;
+                if (t > maxDistance) break;
+                x += stepX;
+                nextX += deltaX;
+                face = stepX > 0 ? 2 : 3;
+                if (x >> Chunk.SHIFT != chunkX) {
+                    chunkX = x >> Chunk.SHIFT;
+                    blocks = storageAt(chunkX, chunkZ);
+                }
+            } else if (nextY < nextZ) {
+                t = nextY;
+                if (t > maxDistance) break;
+                y += stepY;
+                nextY += deltaY;
+                face = stepY > 0 ? 5 : 4;
+            } else {
+                t = nextZ;
+                if (t > maxDistance) break;
+                z += stepZ;
+                nextZ += deltaZ;
+                face = stepZ > 0 ? 1 : 0;
+                if (z >> Chunk.SHIFT != chunkZ) {
+                    chunkZ = z >> Chunk.SHIFT;
+                    blocks = storageAt(chunkX, chunkZ);
+                }
+            }
+        }
+        out.miss(Math.min(t, maxDistance));
+        return false;
+    }
+
+    private ChunkStorage storageAt(int chunkX, int chunkZ) {
+        Chunk chunk = cache.get(chunkX, chunkZ);
+        return chunk == null ? null : chunk.getStorage();
+    }
+
+    /**
+     * 修改世界方块坐标处的方块 (只在游戏线程上调用)。方块数据立即生效，网格在后台重建：
+     * 只标记受影响的分段 (编辑落在分段上下边界时包括相邻分段，落在 Chunk 边界时包括邻居 Chunk 的同一分段)。
+     * 所在 Chunk 尚未生成或 y 超出世界高度时返回 false。
+     */
+    public boolean setBlock(int blockX, int blockY, int blockZ, byte id) {
         if (blockY < 0 || blockY >= Chunk.HEIGHT) return false;
+        int cx = blockX >> Chunk.SHIFT;
+        int cz = blockZ >> Chunk.SHIFT;
+        Chunk chunk = cache.get(cx, cz);
+        if (chunk == null || !chunk.isGenerated()) return false;
+
+        int x = blockX & (Chunk.SIZE - 1);
+        int z = blockZ & (Chunk.SIZE - 1);
+        footprintBytes -= chunk.getFootprintBytes();
+        boolean changed = chunk.setBlockId(x, blockY, z, id);
+        footprintBytes += chunk.getFootprintBytes();
+        if (!changed) return true;
+
+        int section = blockY / Chunk.SECTION_HEIGHT;
+        int local = blockY % Chunk.SECTION_HEIGHT;
+        int sections = 1 << section;
+        if (local == 0 && section > 0) sections |= 1 << (section - 1);
+        if (local == Chunk.SECTION_HEIGHT - 1 && section < Chunk.SECTIONS - 1) sections |= 1 << (section + 1);
+        markDirty(chunk, sections);
+
+        // 邻居 Chunk 只有同一高度的面会受影响
+        if (x == 0) markDirty(cache.get(cx - 1, cz), 1 << section);
+        if (x == Chunk.SIZE - 1) markDirty(cache.get(cx + 1, cz), 1 << section);
+        if (z == 0) markDirty(cache.get(cx, cz - 1), 1 << section);
+        if (z == Chunk.SIZE - 1) markDirty(cache.get(cx, cz + 1), 1 << section);
+        return true;
+    }
+
+    private void markDirty(Chunk c, int sections) {
+        if (c == null || !c.isGenerated()) return;
+        c.dirtySections |= sections;
+        if (!c.remeshQueued) {
+            c.remeshQueued = true;
+            remeshQueue.add(c);
+        }
+    }
+
+    /**
+     * 世界方块坐标 (x, z) 所在的 Chunk 是否已经生成 (实体只在已生成的区域里模拟，避免掉出世界)
+     */
+    public boolean isLoaded(int blockX, int blockZ) {
+        Chunk chunk = cache.get(blockX >> Chunk.SHIFT, blockZ >> Chunk.SHIFT);
+        return chunk != null && chunk.isGenerated();
+    }
+
+    /**
+     * 缓存中的 Chunk 数 (包括视距外尚未淘汰的)
+     */
+    public int getLoadedChunkCount() {
+        return cache.size();
+    }
 
-        // 计算所在的 Chunk 索引
-        int chunkX = blockX / Chunk.SIZE;
-        int chunkZ = blockZ / Chunk.SIZE;
+    /**
+     * 缓存中所有 Chunk 的内存占用估算 (字节)
+     */
+    public long getFootprintBytes() {
+        return footprintBytes;
+    }
+
+    /**
+     * 后台线程构建网格累计花费的时间 (纳秒，只统计已装入的任务)，两次读取之差即为这段时间内的重建开销
+     */
+    public long getMeshNanos() {
+        return meshNanos;
+    }
+
+    /**
+     * 每帧调用：装入后台完成的结果；玩家跨入新的 Chunk 或还有未完成的加载时，继续提交任务。只做哈希查找和入队，不会阻塞
+     */
+    public void update(float playerX, float playerZ) {
+        if (store != null && System.nanoTime() - lastSaveNanos > Config.AUTOSAVE_SECONDS * 1_000_000_000L) save();
+        int cx = toChunk(playerX);
+        int cz = toChunk(playerZ);
+        if (cx != centerX || cz != centerZ) {
+            centerX = cx;
+            centerZ = cz;
+            workers.setCenter(cx, cz);
+            moved = true;
+        }
+        if (streaming || moved || workers.getInFlight() > 0 || !remeshQueue.isEmpty()) stream();
+    }
+
+    /**
+     * 阻塞直到视距内的 Chunk 全部生成并构建好网格。benchmark 和离线工具用，游戏循环里不要调用
+     */
+    public void awaitLoaded() {
+        while (true) {
+            stream();
+            if (!streaming && workers.getInFlight() == 0 && remeshQueue.isEmpty()) return;
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    /**
+     * 把缓存里所有新生成或修改过的 Chunk 交给 ChunkStore，返回交出的个数。只是排队，写盘在后台进行，不会阻塞游戏线程
+     */
+    public int save() {
+        lastSaveNanos = System.nanoTime();
+        if (store == null) return 0;
+        int saved = 0;
+        for (Chunk c = cache.newest(); c != null; c = c.lruOlder) {
+            if (saveChunk(c)) saved++;
+        }
+        return saved;
+    }
+
+    /**
+     * 保存所有改动并等它们写完，然后关闭存档。退出时调用，之后不能再使用这个 World
+     */
+    public void close() throws IOException {
+        if (store == null) return;
+        save();
+        store.close();
+    }
+
+    /**
+     * 装入已完成的任务，再由近到远提交缺失的生成 / 网格任务 (受在途任务数上限约束)，然后按预算淘汰
+     */
+    private void stream() {
+        boolean changed = installCompleted();
+        processRemeshQueue();
+        boolean pending = false;
+
+        // 1. 方块数据：视距 + 1 圈，缺失的先放一个空的占位 Chunk，已有的标记为最近使用
+        for (int i = 0; i < OFFSET_X.length; i++) {
+            int x = centerX + OFFSET_X[i];
+            int z = centerZ + OFFSET_Z[i];
+            Chunk c = cache.get(x, z);
+            if (c == null) {
+                c = new Chunk(x, z);
+                cache.put(c);
+                footprintBytes += c.getFootprintBytes();
+            } else {
+                cache.touch(c);
+            }
+            if (c.isGenerated()) continue;
+            pending = true;
+            if (!c.taskInFlight && !workers.isFull()) workers.submitGenerate(c, i);
+        }
+
+        // 2. 网格：视距内、四周邻居都已生成的 Chunk
+        Mesher m = mesher;
+        for (int i = 0; i < MESH_OFFSETS; i++) {
+            int x = centerX + OFFSET_X[i];
+            int z = centerZ + OFFSET_Z[i];
+            Chunk c = cache.get(x, z);
+            if (c.dirtySections == 0) continue;
+            pending = true;
+            if (c.taskInFlight || workers.isFull()) continue;
+            submitMesh(c, i, m);
+        }
+
+        if (changed || moved) publishChunkList();
+        evict();
+        streaming = pending;
+        moved = false;
+    }
 
-        // 计算在 Chunk 内的局部坐标
-        int localX = blockX % Chunk.SIZE;
-        int localZ = blockZ % Chunk.SIZE;
+    /**
+     * 重建被编辑过的 Chunk。优先级高于所有流式加载任务，也不受在途任务数上限限制；
+     * 上一次重建还没完成的留到下一帧，邻居没生成或还没有网格的交给流式加载整体构建。
+     */
+    private void processRemeshQueue() {
+        Mesher m = mesher;
+        for (int n = remeshQueue.size(); n > 0; n--) {
+            Chunk c = remeshQueue.poll();
+            if (c.dirtySections != 0 && c.taskInFlight && cache.get(c.getChunkX(), c.getChunkZ()) == c) {
+                remeshQueue.add(c);
+                continue;
+            }
+            c.remeshQueued = false;
+            if (c.dirtySections != 0 && c.isMeshed() && cache.get(c.getChunkX(), c.getChunkZ()) == c) {
+                submitMesh(c, -1, m);
+            }
+        }
+    }
 
-        // 处理负坐标 (Java % 负数会有问题，这里简单处理：如果是负数认为没有方块)
-        if (blockX < 0 || blockZ < 0) return false;
+    /**
+     * 提交网格任务：已有网格时只重建脏分段，否则全部构建。邻居还没生成时不提交，返回 false
+     */
+    private boolean submitMesh(Chunk c, int priority, Mesher m) {
+        ChunkNeighbourhood neighbours = neighbourhood(c);
+        if (neighbours == null) return false;
+        ChunkMesh base = c.getChunkMesh();
+        int sections = base == null ? Chunk.ALL_SECTIONS : c.dirtySections;
+        c.dirtySections = 0;
+        workers.submitMesh(c, priority, m, neighbours, sections, base);
+        return true;
+    }
 
-        // 检查 Chunk 是否存在
-        if (chunkX >= WORLD_SIZE || chunkZ >= WORLD_SIZE) return false;
+    /**
+     * 把后台完成的方块数据 / 网格装进对应的 Chunk，返回是否有新网格
+     */
+    private boolean installCompleted() {
+        boolean meshChanged = false;
+        ChunkWorkers.Task task;
+        while ((task = workers.poll()) != null) {
+            Chunk c = task.chunk;
+            c.taskInFlight = false;
+            meshNanos += task.meshNanos;
+            // 任务执行期间已经被淘汰的 Chunk，结果直接丢弃
+            if (cache.get(c.getChunkX(), c.getChunkZ()) != c) continue;
 
-        Chunk chunk = chunkMap[chunkX][chunkZ];
-        if (chunk == null) return false;
+            footprintBytes -= c.getFootprintBytes();
+            if (task.generated != null) {
+                c.setBlocks(task.generated);
+                c.unsaved = !task.loaded;
+                c.dirtySections = Chunk.ALL_SECTIONS;
+            } else if (task.mesh != null) {
+                c.setMesh(task.mesh);
+                meshChanged = true;
+            } else if (task.isMeshTask()) {
+                // 被跳过的网格任务：分段还是脏的
+                c.dirtySections |= task.sections;
+            }
+            footprintBytes += c.getFootprintBytes();
+        }
+        return meshChanged;
+    }
 
-        // 获取方块 (需要在 Chunk 类加一个 getBlock 方法)
-        Block block = chunk.getBlock(localX, blockY, localZ);
+    private void publishChunkList() {
+        List<Chunk> visible = new ArrayList<>(MESH_OFFSETS);
+        for (int i = 0; i < MESH_OFFSETS; i++) {
+            Chunk c = cache.get(centerX + OFFSET_X[i], centerZ + OFFSET_Z[i]);
+            if (c != null && c.isMeshed()) visible.add(c);
+        }
+        chunkList = Collections.unmodifiableList(visible);
+    }
 
-        // 只有非空气方块才算 Solid
-        return block != null && block.getId() != Block.AIR;
+    /**
+     * 缓存超出预算时，从最久未使用的开始淘汰，直到回到预算内或只剩视距 + 1 圈内的 Chunk
+     */
+    private void evict() {
+        int r = Config.VIEW_DISTANCE + 1;
+        while (footprintBytes > memoryBudget) {
+            Chunk c = cache.eldest();
+            if (c == null) break;
+            int dx = c.getChunkX() - centerX;
+            int dz = c.getChunkZ() - centerZ;
+            // 本轮 touch 过的都排在前面，表尾已经在范围内说明剩下的全部在用
+            if (dx * dx + dz * dz <= r * r) break;
+            saveChunk(c);
+            cache.remove(c.getChunkX(), c.getChunkZ());
+            footprintBytes -= c.getFootprintBytes();
+        }
     }
-    public void update() {
-        // TODO: 暂时留空
+
+    /**
+     * 有未保存的改动时把方块存储共享给 ChunkStore (之后再修改会先拷贝)，返回是否交出
+     */
+    private boolean saveChunk(Chunk c) {
+        if (store == null || !c.unsaved || !c.isGenerated()) return false;
+        store.save(c.getChunkX(), c.getChunkZ(), c.shareBlocks());
+        c.unsaved = false;
+        return true;
+    }
+
+    /**
+     * 取好四周邻居的引用交给后台线程；有邻居还没生成时返回 null
+     */
+    private ChunkNeighbourhood neighbourhood(Chunk c) {
+        int x = c.getChunkX();
+        int z = c.getChunkZ();
+        Chunk east = cache.get(x + 1, z);
+        Chunk west = cache.get(x - 1, z);
+        Chunk south = cache.get(x, z + 1);
+        Chunk north = cache.get(x, z - 1);
+        if (!isGenerated(east) || !isGenerated(west) || !isGenerated(south) || !isGenerated(north)) return null;
+        return new ChunkNeighbourhood(c, east, west, south, north);
+    }
+
+    private static boolean isGenerated(Chunk c) {
+        return c != null && c.isGenerated();
+    }
+
+    private static int workerThreads() {
+        if (Config.CHUNK_WORKER_THREADS > 0) return Config.CHUNK_WORKER_THREADS;
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    private static boolean isInViewDistance(int dx, int dz) {
+        return dx * dx + dz * dz <= Config.VIEW_DISTANCE * Config.VIEW_DISTANCE;
+    }
+
+    private static int toChunk(float coord) {
+        return (int) Math.floor(coord) >> Chunk.SHIFT;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package entity;
+
+import org.junit.jupiter.api.Test;
+import world.Chunk;
+import world.World;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于空间哈希的实体间碰撞必须找到和 O(n²) 两两检测相同的接触，实体不会掉出世界
+ */
+class EntitySystemTest {
+    private static final int ENTITIES = 2000;
+    private static final float DT = 1f / 60f;
+    // 实体分布在出生点附近 (已加载的区域)，密度足够让怪物之间经常相互挤开
+    private static final float AREA_MIN = 24f, AREA_MAX = 104f;
+
+    @Test
+    void spatialHashFindsTheSameContactsAsBruteForce() {
+        World world = new World();
+        world.awaitLoaded();
+        EntitySystem system = new EntitySystem(ENTITIES, 42L);
+        EntityStore store = system.getStore();
+        Random random = new Random(42);
+        for (int i = 0; i < ENTITIES; i++) {
+            float x = AREA_MIN + random.nextFloat() * (AREA_MAX - AREA_MIN);
+            float z = AREA_MIN + random.nextFloat() * (AREA_MAX - AREA_MIN);
+            float y = Chunk.HEIGHT - 4 + random.nextFloat() * 3;
+            if (random.nextInt(10) < 8) {
+                store.add(EntityStore.MOB, x, y, z, 0.6f, 1.8f);
+            } else {
+                store.add(EntityStore.ITEM, x, y, z, 0.25f, 0.25f);
+            }
+        }
+
+        int contacts = 0;
+        for (int t = 0; t < 300; t++) {
+            system.tick(world, DT);
+            // 接触在 tick 末尾移动之后统计，和当前位置上的两两检测比较
+            if (t % 50 == 49) {
+                assertEquals(bruteForceContacts(store), system.getContacts(), "tick " + t);
+                contacts += system.getContacts();
+            }
+        }
+        assertTrue(contacts > 0, "entities never touched, the comparison checked nothing");
+
+        for (int i = 0; i < store.size(); i++) {
+            assertTrue(store.posY[i] >= -0.5f, "entity " + i + " fell out of the world");
+        }
+    }
+
+    private static int bruteForceContacts(EntityStore s) {
+        int contacts = 0;
+        int n = s.size();
+        for (int i = 0; i < n; i++) {
+            if (s.type[i] != EntityStore.MOB) continue;
+            for (int j = i + 1; j < n; j++) {
+                if (s.type[j] != EntityStore.MOB) continue;
+                float reach = s.halfWidth[i] + s.halfWidth[j];
+                if (Math.abs(s.posX[j] - s.posX[i]) >= reach || Math.abs(s.posZ[j] - s.posZ[i]) >= reach) continue;
+                if (s.posY[j] >= s.posY[i] + s.height[i] || s.posY[i] >= s.posY[j] + s.height[j]) continue;
+                contacts++;
+            }
+        }
+        return contacts;
+    }
+}
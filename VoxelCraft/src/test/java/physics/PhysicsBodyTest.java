@@ -0,0 +1,75 @@
+package physics;
+
+import org.junit.jupiter.api.Test;
+import world.BlockAccess;
+import world.ChunkStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 扫掠 AABB 碰撞：高速移动不穿墙、下落后停在地面上、走路能上一格台阶
+ */
+class PhysicsBodyTest {
+    private static final float EPSILON = 0.01f;
+
+    /**
+     * y <= 20 的平地 (顶面 20.5)，x = 80 处一堵墙，x >= 103 是高一格的平台
+     */
+    private static final BlockAccess WORLD = new BlockAccess() {
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            if (y < 0) return false;
+            if (y <= 20) return true;
+            if (x == 80 && y < 32) return true;
+            return x >= 103 && y == 21;
+        }
+
+        @Override
+        public ChunkStorage getStorage(int chunkX, int chunkZ) {
+            return null;
+        }
+    };
+
+    @Test
+    void fastBodyStopsAtAThinWall() {
+        PhysicsBody body = new PhysicsBody(0.8f, 1.8f);
+        body.setPosition(70f, 22f, 45f);
+        // 每步 3 格，比墙厚得多
+        for (int t = 0; t < 10; t++) body.move(WORLD, 3f, 0, 0);
+
+        // 墙的西面在 x = 79.5，半宽 0.4
+        assertEquals(79.1f, body.getX(), EPSILON);
+        assertTrue(body.isCollidedHorizontally());
+    }
+
+    @Test
+    void fallingBodyLandsOnTheGround() {
+        PhysicsBody body = new PhysicsBody(0.8f, 1.8f);
+        body.setGravity(32f);
+        body.setPosition(90.5f, 28f, 45.5f);
+        int ticks = 0;
+        while (!body.isOnGround() && ticks < 600) {
+            body.tick(WORLD, 1 / 60f);
+            ticks++;
+        }
+        assertTrue(body.isOnGround());
+        assertEquals(20.5f, body.getY(), EPSILON);
+    }
+
+    @Test
+    void walkingBodyStepsUpOneBlock() {
+        PhysicsBody body = new PhysicsBody(0.8f, 1.8f);
+        body.setGravity(32f);
+        body.setStepHeight(1.0f);
+        body.setPosition(100.5f, 20.5f, 101.5f);
+        body.setOnGround(true);
+        for (int t = 0; t < 45; t++) {
+            body.setVelocity(4f, body.getVelocityY(), 0);
+            body.tick(WORLD, 1 / 60f);
+        }
+        assertTrue(body.getX() > 103f, "x = " + body.getX());
+        assertEquals(21.5f, body.getY(), EPSILON);
+        assertTrue(body.isOnGround());
+    }
+}
@@ -0,0 +1,49 @@
+package render;
+
+import org.junit.jupiter.api.Test;
+import world.World;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hi-Z 遮挡剔除只能跳过本来就画不出像素的面：在 OcclusionScenes 的每个场景里，开和关渲染出的画面必须逐像素相同
+ */
+class OcclusionCullingTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    void occlusionCullingDoesNotChangeTheImage() {
+        World world = new World(OcclusionScenes.CENTER, OcclusionScenes.CENTER);
+        world.awaitLoaded();
+        Renderer renderer = new Renderer(WIDTH, HEIGHT);
+        BufferedImage off = renderer.createFrameBuffer();
+        BufferedImage on = renderer.createFrameBuffer();
+
+        long occluded = 0;
+        for (OcclusionScenes.Scene scene : OcclusionScenes.find(world)) {
+            scene.load(world);
+            for (int d = 0; d < OcclusionScenes.DIRECTIONS; d++) {
+                Camera camera = scene.camera(d);
+                renderer.setOcclusionCulling(false);
+                renderer.renderFrame(world, camera, off);
+                renderer.setOcclusionCulling(true);
+                renderer.renderFrame(world, camera, on);
+                occluded += renderer.getLastFrameOccluded();
+
+                int[] a = ((DataBufferInt) off.getRaster().getDataBuffer()).getData();
+                int[] b = ((DataBufferInt) on.getRaster().getDataBuffer()).getData();
+                int diff = 0;
+                for (int i = 0; i < a.length; i++) {
+                    if (a[i] != b[i]) diff++;
+                }
+                assertEquals(0, diff, "pixels differing in " + scene + " facing " + d);
+            }
+        }
+        assertTrue(occluded > 0, "nothing was occluded, the comparison checked nothing");
+    }
+}
@@ -0,0 +1,115 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量噪声的 Vector API 实现、标量实现和逐个调用 noise 的结果必须逐位相同 (±0 除外)：
+ * 有没有加 --add-modules jdk.incubator.vector 的 JVM 生成的地形要一致，存档里的 Chunk 和重新生成的才对得上
+ */
+class NoiseGeneratorTest {
+    private static final long SEED = 12345L;
+    // 行长度故意不是通道数 (2 / 4 / 8) 的倍数，覆盖向量循环之后的尾部
+    private static final int[] ROW_LENGTHS = {1, 3, 7, 13, 16, 33};
+
+    private final NoiseGenerator vector = new NoiseGenerator(SEED, true);
+    private final NoiseGenerator scalar = new NoiseGenerator(SEED, false);
+
+    @Test
+    void vectorKernelIsAvailable() {
+        // build.gradle 给测试加了 --add-modules jdk.incubator.vector，否则下面的比较什么也没测到
+        assertTrue(vector.isVectorized(), "Vector API kernel not loaded");
+        assertTrue(!scalar.isVectorized());
+    }
+
+    @Test
+    void fillNoise2DMatchesPerSampleNoise() {
+        Random random = new Random(1);
+        for (int round = 0; round < 300; round++) {
+            double x0 = randomOrigin(random), z0 = randomOrigin(random);
+            double step = random.nextBoolean() ? 1 : 0.25 + random.nextDouble() * 2;
+            double frequency = randomFrequency(random);
+            int nx = ROW_LENGTHS[random.nextInt(ROW_LENGTHS.length)], nz = 1 + random.nextInt(4);
+            for (NoiseGenerator generator : new NoiseGenerator[]{vector, scalar}) {
+                double[] out = new double[nx * nz];
+                generator.fillNoise2D(x0, z0, step, frequency, nx, nz, out);
+                for (int j = 0; j < nz; j++) {
+                    for (int i = 0; i < nx; i++) {
+                        double expected = scalar.noise2D((x0 + i * step) * frequency, (z0 + j * step) * frequency);
+                        assertSame(expected, out[j * nx + i], "round " + round + " sample " + i + "," + j
+                                + (generator == vector ? " (vector)" : " (scalar)"));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorFbm2DMatchesScalar() {
+        Random random = new Random(2);
+        for (int round = 0; round < 300; round++) {
+            double x0 = randomOrigin(random), z0 = randomOrigin(random);
+            double step = random.nextBoolean() ? 1 : 0.25 + random.nextDouble() * 2;
+            double frequency = randomFrequency(random);
+            int octaves = 1 + random.nextInt(5);
+            int nx = ROW_LENGTHS[random.nextInt(ROW_LENGTHS.length)], nz = 1 + random.nextInt(8);
+            double[] a = new double[nx * nz], b = new double[nx * nz];
+            vector.fillFbm2D(x0, z0, step, frequency, octaves, 2, 0.5, nx, nz, a);
+            scalar.fillFbm2D(x0, z0, step, frequency, octaves, 2, 0.5, nx, nz, b);
+            assertSameArrays(b, a, "round " + round);
+        }
+    }
+
+    @Test
+    void vectorFbm3DMatchesScalar() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            double x0 = randomOrigin(random), y0 = random.nextInt(64), z0 = randomOrigin(random);
+            double step = random.nextBoolean() ? 4 : 0.5 + random.nextDouble() * 3;
+            double stepY = 1 + random.nextDouble() * 7;
+            double frequency = randomFrequency(random);
+            int octaves = 1 + random.nextInt(4);
+            int nx = ROW_LENGTHS[random.nextInt(ROW_LENGTHS.length)], ny = 1 + random.nextInt(5), nz = 1 + random.nextInt(5);
+            double[] a = new double[nx * ny * nz], b = new double[nx * ny * nz];
+            vector.fillFbm3D(x0, y0, z0, step, stepY, frequency, octaves, 2, 0.5, nx, ny, nz, a);
+            scalar.fillFbm3D(x0, y0, z0, step, stepY, frequency, octaves, 2, 0.5, nx, ny, nz, b);
+            assertSameArrays(b, a, "round " + round);
+        }
+    }
+
+    @Test
+    void highFrequencyRowsFallBackToScalarAndStillMatch() {
+        // 一组通道跨过的格子超过 scratch 能放下的 4 个：这一组改由标量实现计算
+        for (double frequency : new double[]{1.7, 2.3, 5.7, 31.9}) {
+            for (int nx : ROW_LENGTHS) {
+                double[] a = new double[nx * 3], b = new double[nx * 3];
+                vector.fillFbm2D(-91.5, 17.25, 1, frequency, 3, 2, 0.5, nx, 3, a);
+                scalar.fillFbm2D(-91.5, 17.25, 1, frequency, 3, 2, 0.5, nx, 3, b);
+                assertSameArrays(b, a, "frequency " + frequency + ", nx " + nx);
+            }
+        }
+    }
+
+    // 多数是整数 (和地形生成一样用世界坐标)，也有负数和带小数的
+    private static double randomOrigin(Random random) {
+        double origin = random.nextInt(4096) - 2048;
+        return random.nextInt(4) == 0 ? origin + random.nextDouble() : origin;
+    }
+
+    // 不是 2 的幂的频率，乘出来的坐标不落在格点上；偶尔取高频
+    private static double randomFrequency(Random random) {
+        return random.nextInt(8) == 0 ? 1 + random.nextDouble() * 8 : 0.003 + random.nextDouble() * 0.2;
+    }
+
+    // 用 == 比较：只有 ±0 的符号可以不同 (assertEquals(double, double) 会区分 ±0)
+    private static void assertSame(double expected, double actual, String message) {
+        assertTrue(expected == actual, message + ": expected " + expected + " got " + actual);
+    }
+
+    private static void assertSameArrays(double[] expected, double[] actual, String message) {
+        for (int i = 0; i < expected.length; i++) assertSame(expected[i], actual[i], message + ", index " + i);
+    }
+}
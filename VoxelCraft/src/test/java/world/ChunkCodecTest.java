@@ -0,0 +1,169 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ChunkCodec 编码再解码必须逐格一致，旧版本的记录仍然能读，截断或损坏的数据必须报错而不是得到错误的方块
+ */
+class ChunkCodecTest {
+    private final ChunkCodec codec = new ChunkCodec();
+
+    @Test
+    void generatedTerrainRoundTrips() throws DataFormatException {
+        for (int cx = -2; cx < 2; cx++) {
+            for (int cz = -2; cz < 2; cz++) {
+                ChunkStorage blocks = Chunk.generateTerrain(cx, cz);
+                assertSameBlocks(blocks, roundTrip(blocks));
+            }
+        }
+    }
+
+    @Test
+    void randomEditsWithManyBlockTypesRoundTrip() throws DataFormatException {
+        Random random = new Random(1);
+        // 8 种方块时分段仍是调色板存储，40 种超过 16 种，分段退回逐格存储
+        for (int types : new int[]{8, 40}) {
+            for (int i = 0; i < 8; i++) {
+                ChunkStorage edited = Chunk.generateTerrain(i, -i).copy();
+                for (int k = 0; k < 300; k++) edited.set(random.nextInt(Chunk.VOLUME), (byte) random.nextInt(types));
+                assertSameBlocks(edited, roundTrip(edited));
+            }
+        }
+    }
+
+    @Test
+    void emptyChunkRoundTrips() throws DataFormatException {
+        ChunkStorage decoded = roundTrip(new ChunkStorage());
+        assertEquals(0, decoded.getSectionCount());
+        assertSameBlocks(new ChunkStorage(), decoded);
+    }
+
+    @Test
+    void version1RecordsDecode() throws DataFormatException {
+        Random random = new Random(2);
+        ChunkStorage edited = Chunk.generateTerrain(3, 5).copy();
+        for (int k = 0; k < 200; k++) edited.set(random.nextInt(Chunk.VOLUME), (byte) random.nextInt(20));
+        for (ChunkStorage blocks : new ChunkStorage[]{Chunk.generateTerrain(0, 0), edited, new ChunkStorage()}) {
+            byte[] encoded = encodeVersion1(blocks);
+            assertSameBlocks(blocks, ChunkCodec.decode(encoded, 0, encoded.length));
+        }
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        byte[] encoded = codec.encode(Chunk.generateTerrain(0, 0));
+        for (int length : new int[]{0, 3, 6, encoded.length / 2, encoded.length - 1}) {
+            assertThrows(DataFormatException.class, () -> ChunkCodec.decode(encoded, 0, length),
+                    "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void corruptHeaderIsRejected() {
+        byte[] encoded = codec.encode(Chunk.generateTerrain(0, 0));
+        for (int i = 0; i < 5; i++) {
+            byte[] corrupt = encoded.clone();
+            corrupt[i] ^= 0x40; // 版本、SIZE、HEIGHT、SECTION_HEIGHT 各自改错
+            assertThrows(DataFormatException.class, () -> ChunkCodec.decode(corrupt, 0, corrupt.length), "header byte " + i);
+        }
+    }
+
+    @Test
+    void badRunsAreRejected() {
+        // 一个只有第 0 段的记录：调色板 {1, 2}，每个游程 1 位下标 + 4 位长度，补齐到 8 位
+        byte[] paletteOutOfRange = section0Record(0x3F); // 下标 3 超出调色板
+        assertThrows(DataFormatException.class, () -> ChunkCodec.decode(paletteOutOfRange, 0, paletteOutOfRange.length));
+        byte[] runPastTop = section0Record(0x0E, 0x01); // 15 格之后再来 2 格，超出分段高度
+        assertThrows(DataFormatException.class, () -> ChunkCodec.decode(runPastTop, 0, runPastTop.length));
+    }
+
+    private ChunkStorage roundTrip(ChunkStorage blocks) throws DataFormatException {
+        byte[] encoded = codec.encode(blocks);
+        return ChunkCodec.decode(encoded, 0, encoded.length);
+    }
+
+    private static void assertSameBlocks(ChunkStorage expected, ChunkStorage actual) {
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            assertEquals(expected.get(i), actual.get(i), "block " + i);
+        }
+    }
+
+    private static byte[] section0Record(int... runs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ChunkCodec.VERSION);
+        out.write(Chunk.SIZE);
+        out.write(Chunk.HEIGHT >>> 8);
+        out.write(Chunk.HEIGHT & 0xFF);
+        out.write(Chunk.SECTION_HEIGHT);
+        byte[] mask = new byte[(Chunk.SECTIONS + 7) / 8];
+        mask[0] = 1;
+        out.write(mask, 0, mask.length);
+        out.write(1); // 调色板大小 - 1
+        out.write(1);
+        out.write(2);
+        for (int run : runs) out.write(run);
+        return out.toByteArray();
+    }
+
+    /**
+     * 版本 1 的编码 (已经不再写出)：整个 Chunk 一个调色板，每列从下往上游程编码，
+     * 游程为 bitsFor(调色板大小) 位下标 + bitsFor(HEIGHT) 位 (长度 - 1)，不对齐
+     */
+    private static byte[] encodeVersion1(ChunkStorage blocks) {
+        byte[] flat = new byte[Chunk.VOLUME];
+        blocks.copyTo(flat);
+        int[] lookup = new int[256];
+        Arrays.fill(lookup, -1);
+        ByteArrayOutputStream palette = new ByteArrayOutputStream();
+        for (byte id : flat) lookup[id & 0xFF] = 0;
+        int paletteSize = 0;
+        for (int id = 0; id < 256; id++) {
+            if (lookup[id] < 0) continue;
+            lookup[id] = paletteSize++;
+            palette.write(id);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1);
+        out.write(Chunk.SIZE);
+        out.write(Chunk.HEIGHT >>> 8);
+        out.write(Chunk.HEIGHT & 0xFF);
+        out.write(paletteSize - 1);
+        out.write(palette.toByteArray(), 0, paletteSize);
+
+        int lengthBits = bitsFor(Chunk.HEIGHT);
+        int runBits = bitsFor(paletteSize) + lengthBits;
+        int layer = Chunk.SIZE * Chunk.SIZE;
+        long acc = 0;
+        int accBits = 0;
+        for (int column = 0; column < layer; column++) {
+            int y = 0;
+            while (y < Chunk.HEIGHT) {
+                byte id = flat[column + y * layer];
+                int run = 1;
+                while (y + run < Chunk.HEIGHT && flat[column + (y + run) * layer] == id) run++;
+                acc = acc << runBits | (long) lookup[id & 0xFF] << lengthBits | (run - 1);
+                accBits += runBits;
+                while (accBits >= 8) {
+                    accBits -= 8;
+                    out.write((int) (acc >>> accBits));
+                }
+                y += run;
+            }
+        }
+        if (accBits > 0) out.write((int) (acc << (8 - accBits)));
+        return out.toByteArray();
+    }
+
+    private static int bitsFor(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+}
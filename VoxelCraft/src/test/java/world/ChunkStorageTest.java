@@ -0,0 +1,58 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 全是空气的分段不占存储：生成时丢掉，被挖空时释放
+ */
+class ChunkStorageTest {
+
+    @Test
+    void emptySectionsAreNotAllocated() {
+        ChunkStorage storage = new ChunkStorage();
+        storage.set(Chunk.index(3, 1, 4), Block.AIR);
+        assertNull(storage.getSection(0));
+        assertEquals(0, storage.getSectionCount());
+    }
+
+    @Test
+    void sectionDugOutToAirIsReleased() {
+        // 几种方块 (调色板模式) 和超过 16 种方块 (平铺模式) 的分段都要能被释放
+        for (int types : new int[]{1, 3, 40}) {
+            for (int s = 0; s < Chunk.SECTIONS; s++) {
+                ChunkStorage storage = new ChunkStorage();
+                int from = s * ChunkStorage.SECTION_VOLUME;
+                int placed = 0;
+                for (int i = from; i < from + ChunkStorage.SECTION_VOLUME; i += 7) {
+                    storage.set(i, (byte) (1 + placed++ % types));
+                }
+                assertNotNull(storage.getSection(s));
+
+                for (int i = from; i < from + ChunkStorage.SECTION_VOLUME; i += 7) {
+                    storage.set(i, Block.AIR);
+                }
+                assertNull(storage.getSection(s), types + " types, section " + s);
+                assertEquals(0, storage.getSectionCount());
+            }
+        }
+    }
+
+    @Test
+    void generatedSectionDugOutToAirIsReleased() {
+        ChunkStorage storage = Chunk.generateTerrain(0, 0).copy();
+        assertNotNull(storage.getSection(0));
+        for (int i = 0; i < ChunkStorage.SECTION_VOLUME; i++) {
+            storage.set(i, Block.AIR);
+            // 最后一个方块挖掉之前分段都还在
+            if (i < ChunkStorage.SECTION_VOLUME - 1 && storage.get(ChunkStorage.SECTION_VOLUME - 1) != Block.AIR) {
+                assertNotNull(storage.getSection(0));
+            }
+        }
+        assertNull(storage.getSection(0));
+        for (int i = 0; i < ChunkStorage.SECTION_VOLUME; i++) assertEquals(Block.AIR, storage.get(i));
+    }
+}
@@ -0,0 +1,76 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ChunkStore 保存后重新打开读回的方块必须与保存的一致，覆盖保存时读到的是最后一次的内容
+ */
+class ChunkStoreTest {
+    private static final int GRID = 6; // 含负坐标，跨越 4 个区域文件
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedChunksLoadBackAfterReopen() throws IOException {
+        ChunkStorage[] saved = new ChunkStorage[GRID * GRID];
+        try (ChunkStore store = new ChunkStore(dir)) {
+            for (int i = 0; i < saved.length; i++) {
+                saved[i] = Chunk.generateTerrain(chunkX(i), chunkZ(i));
+                store.save(chunkX(i), chunkZ(i), saved[i]);
+            }
+        }
+
+        try (ChunkStore store = new ChunkStore(dir)) {
+            for (int i = 0; i < saved.length; i++) {
+                assertSameBlocks(saved[i], store.load(chunkX(i), chunkZ(i)));
+            }
+            assertNull(store.load(GRID, GRID));
+        }
+    }
+
+    @Test
+    void latestSaveWins() throws IOException {
+        Random random = new Random(3);
+        ChunkStorage latest = null;
+        try (ChunkStore store = new ChunkStore(dir)) {
+            for (int round = 0; round < 5; round++) {
+                ChunkStorage edited = Chunk.generateTerrain(1, 2).copy();
+                for (int k = 0; k < 500; k++) edited.set(random.nextInt(Chunk.VOLUME), (byte) random.nextInt(8));
+                store.save(1, 2, edited);
+                // 偶数轮等写完再保存下一份，奇数轮直接覆盖还在排队的快照
+                if (round % 2 == 0) store.flush();
+                latest = edited;
+            }
+            assertSameBlocks(latest, store.load(1, 2));
+        }
+
+        try (ChunkStore store = new ChunkStore(dir)) {
+            assertSameBlocks(latest, store.load(1, 2));
+        }
+    }
+
+    private static int chunkX(int i) {
+        return i % GRID - GRID / 2;
+    }
+
+    private static int chunkZ(int i) {
+        return i / GRID - GRID / 2;
+    }
+
+    private static void assertSameBlocks(ChunkStorage expected, ChunkStorage actual) {
+        assertNotNull(actual);
+        for (int i = 0; i < Chunk.VOLUME; i++) {
+            assertEquals(expected.get(i), actual.get(i), "block " + i);
+        }
+    }
+}
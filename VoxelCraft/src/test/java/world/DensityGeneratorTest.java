@@ -0,0 +1,86 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * DensityGenerator 的结果只取决于种子和坐标：换一个实例、换生成顺序、多个线程同时生成都得到相同的方块
+ */
+class DensityGeneratorTest {
+    private static final long SEED = 20240613L;
+    private static final int GRID = 20; // GRID x GRID 个 Chunk，含负坐标
+    private static final int THREADS = 8;
+
+    @Test
+    void sameSeedGivesSameBlocks() {
+        DensityGenerator a = new DensityGenerator(SEED);
+        DensityGenerator b = new DensityGenerator(SEED);
+        for (int i = 0; i < GRID * GRID; i += 7) {
+            assertArrayEquals(generate(a, chunkX(i), chunkZ(i)), generate(b, chunkX(i), chunkZ(i)), "chunk " + i);
+        }
+        // 不同的种子确实生成不同的地形，上面的比较不是因为地形和种子无关
+        assertFalse(Arrays.equals(generate(a, 0, 0), generate(new DensityGenerator(SEED + 1), 0, 0)));
+    }
+
+    @Test
+    void concurrentGenerationMatchesSequential() throws InterruptedException, ExecutionException {
+        DensityGenerator generator = new DensityGenerator(SEED);
+        byte[][] sequential = new byte[GRID * GRID][];
+        for (int i = 0; i < sequential.length; i++) sequential[i] = generate(generator, chunkX(i), chunkZ(i));
+
+        // 同一个实例在多个线程上同时生成，顺序打乱 (倒序提交)
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = sequential.length - 1; i >= 0; i--) {
+                int x = chunkX(i), z = chunkZ(i);
+                futures.add(pool.submit(() -> generate(generator, x, z)));
+            }
+            for (int k = 0; k < futures.size(); k++) {
+                int i = sequential.length - 1 - k;
+                assertArrayEquals(sequential[i], futures.get(k).get(), "chunk " + chunkX(i) + "," + chunkZ(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void bottomLayerIsAlwaysSolid() {
+        DensityGenerator generator = new DensityGenerator(SEED);
+        for (int i = 0; i < GRID * GRID; i++) {
+            byte[] ids = generate(generator, chunkX(i), chunkZ(i));
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    assertNotEquals(Block.AIR, ids[Chunk.index(x, 0, z)],
+                            "chunk " + chunkX(i) + "," + chunkZ(i) + " column " + x + "," + z);
+                }
+            }
+        }
+    }
+
+    private static byte[] generate(TerrainGenerator generator, int chunkX, int chunkZ) {
+        byte[] ids = new byte[Chunk.VOLUME];
+        generator.generate(chunkX, chunkZ, ids);
+        return ids;
+    }
+
+    private static int chunkX(int i) {
+        return i % GRID - GRID / 2;
+    }
+
+    private static int chunkZ(int i) {
+        return i / GRID - GRID / 2;
+    }
+}
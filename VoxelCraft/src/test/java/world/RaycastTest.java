@@ -0,0 +1,53 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * World.raycast (DDA) 与细步长逐点采样的参照结果比较：是否命中、命中距离都要一致
+ */
+class RaycastTest {
+    private static final int RAYS = 4096;
+    private static final float MAX_DISTANCE = 64f;
+    private static final float STEP = 0.001f;
+
+    @Test
+    void raycastMatchesFineStepMarching() {
+        World world = new World();
+        world.awaitLoaded();
+
+        // 起点在地表附近，方向在球面上均匀分布
+        Random random = new Random(42);
+        RaycastHit hit = new RaycastHit();
+        for (int i = 0; i < RAYS; i++) {
+            float ox = 32 + random.nextFloat() * 64;
+            float oy = 12 + random.nextFloat() * 16;
+            float oz = 32 + random.nextFloat() * 64;
+            float u = random.nextFloat() * 2 - 1;
+            float phi = random.nextFloat() * (float) (Math.PI * 2);
+            float r = (float) Math.sqrt(1 - u * u);
+            float dx = r * (float) Math.cos(phi), dy = u, dz = r * (float) Math.sin(phi);
+
+            boolean h = world.raycast(ox, oy, oz, dx, dy, dz, MAX_DISTANCE, hit);
+            float t = march(world, ox, oy, oz, dx, dy, dz);
+            String ray = "ray " + i + " from " + ox + "," + oy + "," + oz;
+            assertEquals(t >= 0, h, ray);
+            // 参照按 STEP 采样，擦过棱角时会晚一点才进入方块
+            if (h) assertEquals(t, hit.getDistance(), 0.01f, ray);
+        }
+    }
+
+    /**
+     * 按固定步长采样，返回第一次进入实心方块的距离，没有命中返回 -1
+     */
+    private static float march(World world, float x, float y, float z, float dx, float dy, float dz) {
+        for (float t = 0; t <= MAX_DISTANCE; t += STEP) {
+            // 与渲染相同的坐标约定：方块 (x, y, z) 占据 [x - 0.5, x + 0.5]
+            if (world.isSolid(x + dx * t + 0.5f, y + dy * t + 0.5f, z + dz * t + 0.5f)) return t;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * RegionFile 的读写：覆盖、复用释放的扇区、重新打开后都要读回写入的记录
+ */
+class RegionFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void multiSectorRecordInFreedSectorsAcrossTheMappingEndReadsBack() throws IOException {
+        try (RegionFile region = new RegionFile(dir.resolve("r.0.0.vcr"))) {
+            byte[] format = new byte[1];
+            region.write(0, 0, (byte) 1, bytes(100, 1), 100); // 扇区 1
+            region.write(1, 0, (byte) 1, bytes(100, 2), 100); // 扇区 2
+            // B 挪到追加的扇区 3 再挪回扇区 2：文件有 4 个扇区，最后一个空闲
+            region.write(1, 0, (byte) 1, bytes(100, 2), 100);
+            region.write(1, 0, (byte) 1, bytes(100, 3), 100);
+            region.read(0, 0, format); // 映射当前的整个文件 (扇区 0..3)
+
+            // C 占两个扇区：从映射范围内空闲的扇区 3 开始，越过映射的末尾
+            byte[] c = bytes(6000, 4);
+            region.write(2, 0, (byte) 2, c, c.length);
+
+            assertArrayEquals(c, region.read(2, 0, format));
+            assertEquals(2, format[0]);
+            assertArrayEquals(bytes(100, 3), region.read(1, 0, format));
+            assertArrayEquals(bytes(100, 1), region.read(0, 0, format));
+        }
+    }
+
+    @Test
+    void recordsSurviveReopen() throws IOException {
+        Path file = dir.resolve("r.0.0.vcr");
+        Random random = new Random(1);
+        byte[][] expected = new byte[RegionFile.REGION_SIZE][];
+        try (RegionFile region = new RegionFile(file)) {
+            byte[] format = new byte[1];
+            // 大小不一的记录反复覆盖，中间穿插读取，让映射和空闲扇区都不断变化
+            for (int round = 0; round < 200; round++) {
+                int x = random.nextInt(RegionFile.REGION_SIZE);
+                expected[x] = bytes(1 + random.nextInt(3 * RegionFile.SECTOR_BYTES), round);
+                region.write(x, 7, (byte) 1, expected[x], expected[x].length);
+                int y = random.nextInt(RegionFile.REGION_SIZE);
+                if (expected[y] != null) assertArrayEquals(expected[y], region.read(y, 7, format), "round " + round);
+            }
+        }
+        try (RegionFile region = new RegionFile(file)) {
+            byte[] format = new byte[1];
+            for (int x = 0; x < RegionFile.REGION_SIZE; x++) {
+                if (expected[x] == null) assertNull(region.read(x, 7, format));
+                else assertArrayEquals(expected[x], region.read(x, 7, format), "chunk " + x);
+            }
+        }
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,41 @@
+package world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * setBlock 之后只重建脏分段的增量结果，必须和整个 Chunk 从头重建的结果一样
+ */
+class RemeshTest {
+
+    @Test
+    void incrementalRemeshMatchesFullRebuild() {
+        World world = new World();
+        world.awaitLoaded();
+
+        // 在 Chunk 交界处挖一条沟 (跨越 4 个 Chunk、两个分段)，再放回几块石头
+        int edits = 0;
+        for (int x = 56; x < 72; x++) {
+            for (int y = 10; y < 20; y++) {
+                if (world.setBlock(x, y, 63, Block.AIR)) edits++;
+                if (world.setBlock(x, y, 64, Block.AIR)) edits++;
+            }
+        }
+        for (int x = 60; x < 68; x += 2) {
+            if (world.setBlock(x, 16, 64, Block.STONE)) edits++;
+        }
+        assertTrue(edits > 0, "no block changed, the comparison checked nothing");
+        world.awaitLoaded();
+
+        for (Chunk c : world.getChunks()) {
+            ChunkMesh incremental = c.getChunkMesh();
+            ChunkMesh full = c.buildMesh(world.getMesher(), world);
+            for (int s = 0; s < Chunk.SECTIONS; s++) {
+                assertEquals(full.getSection(s).getFaceCount(), incremental.getSection(s).getFaceCount(),
+                        "chunk " + c.getChunkX() + "," + c.getChunkZ() + " section " + s);
+            }
+        }
+    }
+}